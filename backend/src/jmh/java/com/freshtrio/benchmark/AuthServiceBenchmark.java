@@ -0,0 +1,64 @@
+package com.freshtrio.benchmark;
+
+import com.freshtrio.dto.UserDto;
+import com.freshtrio.entity.User;
+import com.freshtrio.service.AuthService;
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The User to UserDto mapping every auth response goes through. mapToUserDto is private,
+ * so it is called through a constant MethodHandle, which the JIT inlines like a direct
+ * call.
+ *
+ * Run with:
+ *   mvn -Pbenchmark test-compile exec:exec -Djmh.includes=AuthServiceBenchmark
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AuthServiceBenchmark {
+
+    private static final MethodHandle MAP_TO_USER_DTO;
+
+    static {
+        try {
+            MAP_TO_USER_DTO = MethodHandles.privateLookupIn(AuthService.class, MethodHandles.lookup())
+                    .findVirtual(AuthService.class, "mapToUserDto", MethodType.methodType(UserDto.class, User.class));
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private AuthService authService;
+    private User user;
+
+    @Setup
+    public void setUp() {
+        authService = new AuthService();
+        user = new User();
+        user.setId(UUID.randomUUID());
+        user.setEmail("jane.smith@example.com");
+        user.setFirstName("Jane");
+        user.setLastName("Smith");
+        user.setPhone("+44 7700 900123");
+        user.setRole(User.Role.CUSTOMER);
+        user.setIsVerified(true);
+        user.setGdprConsent(true);
+        user.setGdprConsentDate(LocalDateTime.of(2024, 3, 1, 12, 0));
+    }
+
+    @Benchmark
+    public UserDto mapToUserDto() throws Throwable {
+        return (UserDto) MAP_TO_USER_DTO.invokeExact(authService, user);
+    }
+}
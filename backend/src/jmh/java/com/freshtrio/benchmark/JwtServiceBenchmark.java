@@ -0,0 +1,108 @@
+package com.freshtrio.benchmark;
+
+import com.freshtrio.config.JwtConfig;
+import com.freshtrio.entity.User;
+import com.freshtrio.repository.RevokedTokenRepository;
+import com.freshtrio.service.JwtService;
+import com.freshtrio.service.TokenDenylist;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token issue and verification as the auth endpoints and JwtAuthenticationFilter use
+ * them, under both codecs (app.jwt.codec). extractUsername and isTokenValid hit the
+ * verified-token cache after the first call, as repeat requests do; decode measures a
+ * token seen for the first time.
+ *
+ * Run with:
+ *   mvn -Pbenchmark test-compile exec:exec -Djmh.includes=JwtServiceBenchmark
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtServiceBenchmark {
+
+    private static final String SECRET = "benchmarkSecretKeyThatIsAtLeast32CharactersLong123456789";
+
+    @Param({"nimbus", "hs256"})
+    private String codec;
+
+    private JwtService jwtService;
+    private JwtDecoder jwtDecoder;
+    private TokenDenylist tokenDenylist;
+    private User user;
+    private String token;
+    private String bearerToken;
+
+    @Setup
+    public void setUp() {
+        JwtConfig jwtConfig = new JwtConfig();
+        ReflectionTestUtils.setField(jwtConfig, "jwtSecret", SECRET);
+        ReflectionTestUtils.setField(jwtConfig, "codec", codec);
+        jwtDecoder = jwtConfig.jwtDecoder();
+
+        // Nothing revoked, so isRevoked answers from the Bloom filter as it does for most tokens
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        tokenDenylist = new TokenDenylist();
+        ReflectionTestUtils.setField(tokenDenylist, "revokedTokenRepository", Mockito.mock(RevokedTokenRepository.class));
+        ReflectionTestUtils.setField(tokenDenylist, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(tokenDenylist, "expectedRevocations", 100_000);
+        ReflectionTestUtils.setField(tokenDenylist, "falsePositiveRate", 0.01);
+        ReflectionTestUtils.setField(tokenDenylist, "syncInterval", Duration.ofHours(1));
+        tokenDenylist.init();
+
+        jwtService = new JwtService();
+        ReflectionTestUtils.setField(jwtService, "jwtEncoder", jwtConfig.jwtEncoder());
+        ReflectionTestUtils.setField(jwtService, "jwtDecoder", jwtDecoder);
+        ReflectionTestUtils.setField(jwtService, "jwsHeader", jwtConfig.jwsHeader());
+        ReflectionTestUtils.setField(jwtService, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(jwtService, "tokenDenylist", tokenDenylist);
+        ReflectionTestUtils.setField(jwtService, "jwtExpirationInSeconds", 86400L);
+        ReflectionTestUtils.setField(jwtService, "cacheMaxSize", 10_000L);
+        jwtService.init();
+
+        user = new User();
+        user.setId(UUID.randomUUID());
+        user.setEmail("jane.smith@example.com");
+        user.setRole(User.Role.CUSTOMER);
+        user.setGoogleId("110248495921238986420");
+        token = jwtService.generateToken(user);
+        bearerToken = "Bearer " + token;
+    }
+
+    @TearDown
+    public void tearDown() {
+        tokenDenylist.shutdown();
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return jwtService.generateToken(user);
+    }
+
+    @Benchmark
+    public String extractUsername() {
+        return jwtService.extractUsername(bearerToken);
+    }
+
+    @Benchmark
+    public boolean isTokenValid() {
+        return jwtService.isTokenValid(bearerToken);
+    }
+
+    @Benchmark
+    public Jwt decode() {
+        return jwtDecoder.decode(token);
+    }
+}
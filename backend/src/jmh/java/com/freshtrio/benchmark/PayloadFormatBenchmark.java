@@ -0,0 +1,132 @@
+package com.freshtrio.benchmark;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.freshtrio.dto.AuthResponse;
+import com.freshtrio.dto.UserDto;
+import com.freshtrio.entity.Product;
+import com.freshtrio.entity.Supplier;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Compares JSON, CBOR and Smile on a listing page of 20 products and on a login
+ * response: encode time, and decode time into a tree as a generic client would parse
+ * it. Mappers are configured like the application's (non_null inclusion, Java time).
+ * Encoded and gzipped sizes are printed once per fork, since JMH only reports times.
+ *
+ * Run with:
+ *   mvn -Pbenchmark test-compile exec:exec -Djmh.includes=PayloadFormatBenchmark
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PayloadFormatBenchmark {
+
+    @Param({"json", "cbor", "smile"})
+    private String format;
+
+    private ObjectMapper mapper;
+    private Page<Product> page;
+    private AuthResponse authResponse;
+    private byte[] encodedPage;
+
+    @Setup
+    public void setUp() throws IOException {
+        JsonFactory factory = switch (format) {
+            case "cbor" -> new CBORFactory();
+            case "smile" -> new SmileFactory();
+            default -> new JsonFactory();
+        };
+        mapper = Jackson2ObjectMapperBuilder.json()
+                .factory(factory)
+                .serializationInclusion(JsonInclude.Include.NON_NULL)
+                .failOnEmptyBeans(false)
+                .build();
+        page = samplePage(new Random(42));
+        authResponse = sampleAuthResponse();
+        encodedPage = mapper.writeValueAsBytes(page);
+        // Mobile clients get JSON gzipped by nginx, so that is the size to beat
+        System.out.printf("%n%s: page %d bytes, %d gzipped%n", format, encodedPage.length, gzip(encodedPage).length);
+    }
+
+    @Benchmark
+    public byte[] encodePage() throws IOException {
+        return mapper.writeValueAsBytes(page);
+    }
+
+    @Benchmark
+    public JsonNode decodePage() throws IOException {
+        return mapper.readTree(encodedPage);
+    }
+
+    @Benchmark
+    public byte[] encodeAuthResponse() throws IOException {
+        return mapper.writeValueAsBytes(authResponse);
+    }
+
+    private static byte[] gzip(byte[] bytes) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(buffer)) {
+            gzip.write(bytes);
+        }
+        return buffer.toByteArray();
+    }
+
+    static Page<Product> samplePage(Random random) {
+        String[] categories = {"beef", "chicken", "pork", "lamb", "seafood"};
+        String[] cuts = {"Ribeye Steak", "Chicken Thighs", "Pork Belly", "Lamb Shoulder", "Salmon Fillet",
+                "Beef Mince", "Chicken Breast", "Pork Chops", "Lamb Rack", "King Prawns"};
+        Supplier supplier = Supplier.builder()
+                .id(UUID.randomUUID())
+                .name("Highland Farm Butchers")
+                .contactEmail("orders@highlandfarm.example")
+                .contactPhone("+44 1234 567890")
+                .build();
+        List<Product> products = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            String name = cuts[i % cuts.length] + (i >= cuts.length ? " (Family Pack)" : "");
+            products.add(Product.builder()
+                    .id(UUID.randomUUID())
+                    .name(name)
+                    .description("Locally sourced " + name.toLowerCase() + ", hand cut and vacuum packed. "
+                            + "Keeps for five days refrigerated.")
+                    .category(categories[i % categories.length])
+                    .price(BigDecimal.valueOf(399 + random.nextInt(3000), 2))
+                    .unit(i % 3 == 0 ? "piece" : "kg")
+                    .imageUrl("https://cdn.freshtrio.example/uploads/products/" + UUID.randomUUID() + "/detail.jpg")
+                    .createdAt(LocalDateTime.of(2024, 1, 1, 9, 0).plusHours(random.nextInt(5000)))
+                    .updatedAt(LocalDateTime.of(2024, 6, 1, 9, 0).plusHours(random.nextInt(5000)))
+                    .supplier(supplier)
+                    .build());
+        }
+        return new PageImpl<>(products, PageRequest.of(0, 20), 412);
+    }
+
+    static AuthResponse sampleAuthResponse() {
+        // A token of the length JwtService issues: header, seven claims and an HS256 signature
+        String token = "eyJhbGciOiJIUzI1NiJ9." + "x".repeat(280) + "." + "s".repeat(43);
+        return new AuthResponse(token, new UserDto(UUID.randomUUID(), "jane.smith@example.com", "Jane", "Smith", "customer"));
+    }
+}
@@ -0,0 +1,155 @@
+package com.freshtrio.benchmark;
+
+import com.freshtrio.dto.ProductSummary;
+import com.freshtrio.entity.Address;
+import com.freshtrio.entity.Product;
+import com.freshtrio.entity.Supplier;
+import com.freshtrio.repository.ProductRepository;
+import com.freshtrio.service.ProductService;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.FilterType;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import java.math.BigDecimal;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ProductService search against a throwaway PostgreSQL (Testcontainers, so Docker is
+ * needed) migrated by Flyway and seeded with a generated catalogue. With the real
+ * schema, search=fulltext measures the tsvector queries on the idx_products_search GIN
+ * index and search=like the LIKE fallback used for short or unparseable queries.
+ *
+ * Run with:
+ *   mvn -Pbenchmark test-compile exec:exec -Djmh.includes=ProductSearchBenchmark
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ProductSearchBenchmark {
+
+    private static final String[] CATEGORIES = {"beef", "chicken", "pork", "lamb", "seafood"};
+    private static final String[] CUTS = {"Ribeye Steak", "Chicken Thighs", "Pork Belly", "Lamb Shoulder",
+            "Salmon Fillet", "Beef Mince", "Chicken Breast", "Pork Chops", "Lamb Rack", "King Prawns"};
+    private static final String[] PACKS = {"", " (Family Pack)", " (Butcher's Choice)", " (Organic)", " (Value)"};
+
+    @Param({"1000", "10000"})
+    private int products;
+
+    @Param({"fulltext", "like"})
+    private String search;
+
+    private PostgreSQLContainer<?> postgres;
+    private ConfigurableApplicationContext context;
+    private ProductService productService;
+    private final Pageable firstPage = PageRequest.of(0, 20);
+
+    @Setup
+    public void setUp() {
+        postgres = new PostgreSQLContainer<>("postgres:15-alpine");
+        postgres.start();
+        context = new SpringApplicationBuilder(Fixture.class)
+                .properties(
+                        "spring.main.web-application-type=none",
+                        "spring.main.banner-mode=off",
+                        "spring.datasource.url=" + postgres.getJdbcUrl(),
+                        "spring.datasource.username=" + postgres.getUsername(),
+                        "spring.datasource.password=" + postgres.getPassword(),
+                        "spring.jpa.hibernate.ddl-auto=none",
+                        "spring.flyway.enabled=true",
+                        "logging.level.root=WARN")
+                .run();
+        seed(context, products);
+        // Fresh statistics, so the planner sees the seeded table when choosing the GIN index
+        context.getBean(JdbcTemplate.class).execute("ANALYZE products");
+
+        productService = new ProductService();
+        ReflectionTestUtils.setField(productService, "productRepository", context.getBean(ProductRepository.class));
+        ReflectionTestUtils.setField(productService, "fullTextSearchEnabled", search.equals("fulltext"));
+        ReflectionTestUtils.setField(productService, "minQueryLength", 3);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+        postgres.stop();
+    }
+
+    @Benchmark
+    public Page<ProductSummary> searchProducts() {
+        return productService.searchProducts("steak", firstPage);
+    }
+
+    @Benchmark
+    public Page<ProductSummary> searchProductsByCategory() {
+        return productService.searchProductsByCategory("fillet", "seafood", firstPage);
+    }
+
+    @Benchmark
+    public Page<ProductSummary> searchProductsNoMatch() {
+        return productService.searchProducts("venison", firstPage);
+    }
+
+    private static void seed(ConfigurableApplicationContext context, int count) {
+        EntityManagerFactory entityManagerFactory = context.getBean(EntityManagerFactory.class);
+        EntityManager entityManager = SharedEntityManagerCreator.createSharedEntityManager(entityManagerFactory);
+        Random random = new Random(42);
+        context.getBean(TransactionTemplate.class).executeWithoutResult(status -> {
+            Supplier[] suppliers = new Supplier[5];
+            for (int i = 0; i < suppliers.length; i++) {
+                Address address = Address.builder().street(i + " Market Street").city("Leeds").country("GB").build();
+                entityManager.persist(address);
+                suppliers[i] = Supplier.builder().name("Supplier " + i).address(address).build();
+                entityManager.persist(suppliers[i]);
+            }
+            for (int i = 0; i < count; i++) {
+                // The lot number keeps (supplier, name) unique, as idx_products_supplier_name requires
+                String name = CUTS[i % CUTS.length] + PACKS[(i / CUTS.length) % PACKS.length]
+                        + " Lot " + (i / (CUTS.length * PACKS.length));
+                entityManager.persist(Product.builder()
+                        .name(name)
+                        .description("Locally sourced " + name.toLowerCase() + ", hand cut and vacuum packed.")
+                        .category(CATEGORIES[i % CATEGORIES.length])
+                        .price(BigDecimal.valueOf(399 + random.nextInt(3000), 2))
+                        .unit(i % 3 == 0 ? "piece" : "kg")
+                        .supplier(suppliers[i % suppliers.length])
+                        .build());
+                if (i % 500 == 499) {
+                    entityManager.flush();
+                    entityManager.clear();
+                }
+            }
+        });
+    }
+
+    /**
+     * Just the JPA stack and Flyway: entities, ProductRepository and the container's
+     * DataSource, without the application's other beans (Firebase, schedulers, web).
+     */
+    @SpringBootConfiguration
+    @EnableAutoConfiguration
+    @EntityScan(basePackageClasses = Product.class)
+    @EnableJpaRepositories(basePackageClasses = ProductRepository.class, includeFilters =
+            @ComponentScan.Filter(type = FilterType.ASSIGNABLE_TYPE, classes = ProductRepository.class))
+    static class Fixture {
+    }
+}
@@ -0,0 +1,70 @@
+package com.freshtrio.config;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+/**
+ * CBOR and Smile for every controller, selected by Accept (responses) or Content-Type
+ * (request bodies). JSON stays the default for clients that send neither.
+ *
+ * Spring MVC would register these converters by itself once the dataformat modules are
+ * on the classpath, but with a plain ObjectMapper. Declaring them here builds them from
+ * Boot's builder instead, so spring.jackson settings (non_null inclusion, date handling)
+ * give the same document in all three formats.
+ */
+@Configuration
+public class BinaryFormatsConfig {
+
+    public static final MediaType APPLICATION_SMILE = new MediaType("application", "x-jackson-smile");
+
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(builder.factory(new CBORFactory()).build());
+    }
+
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2SmileHttpMessageConverter(builder.factory(new SmileFactory()).build());
+    }
+
+    /**
+     * The binary format a response to this Accept header will use, "cbor" or "smile", or
+     * null for JSON. Follows content negotiation: the highest quality wins, earlier on a
+     * tie, and wildcards resolve to JSON because its converter is registered first.
+     */
+    static String binaryFormat(String accept) {
+        if (accept == null || accept.isBlank()) {
+            return null;
+        }
+        try {
+            String format = null;
+            double best = 0;
+            for (MediaType type : MediaType.parseMediaTypes(accept)) {
+                double quality = type.getQualityValue();
+                if (quality <= best) {
+                    continue;
+                }
+                if (type.equalsTypeAndSubtype(MediaType.APPLICATION_CBOR)) {
+                    format = "cbor";
+                } else if (type.equalsTypeAndSubtype(APPLICATION_SMILE)) {
+                    format = "smile";
+                } else if (type.isCompatibleWith(MediaType.APPLICATION_JSON)) {
+                    format = null;
+                } else {
+                    continue;
+                }
+                best = quality;
+            }
+            return format;
+        } catch (InvalidMediaTypeException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.freshtrio.config;
+
+import com.freshtrio.service.CatalogSnapshotService;
+import com.freshtrio.service.CatalogVersion;
+import com.freshtrio.service.SuggestService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.CacheControl;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.time.Duration;
+
+@Configuration
+public class CatalogCacheConfig {
+
+    @Autowired
+    private CatalogVersion catalogVersion;
+
+    @Autowired
+    private CatalogSnapshotService catalogSnapshotService;
+
+    @Autowired
+    private SuggestService suggestService;
+
+    @Value("${app.http.catalog.max-age:60s}")
+    private Duration maxAge;
+
+    @Value("${app.http.catalog.stale-while-revalidate:300s}")
+    private Duration staleWhileRevalidate;
+
+    @Bean
+    public WebMvcConfigurer catalogCacheConfigurer() {
+        CacheControl cacheControl = CacheControl.maxAge(maxAge)
+                .staleWhileRevalidate(staleWhileRevalidate)
+                .cachePublic();
+        return new WebMvcConfigurer() {
+            @Override
+            public void addInterceptors(InterceptorRegistry registry) {
+                // The change feed is validated by its own since token, not the catalog ETag,
+                // and must not be cached publicly
+                registry.addInterceptor(new CatalogCacheInterceptor(catalogVersion, cacheControl))
+                    .addPathPatterns("/api/products", "/api/products/**")
+                    .excludePathPatterns("/api/products/changes", "/api/products/suggest");
+                // Suggestions come from a trie rebuilt after writes, so they are validated
+                // by the version it was built from rather than the current one
+                registry.addInterceptor(new CatalogCacheInterceptor(suggestService::version, cacheControl))
+                    .addPathPatterns("/api/products/suggest");
+                // After the ETag check, so revalidations are still answered with 304
+                registry.addInterceptor(new CatalogSnapshotInterceptor(catalogSnapshotService))
+                    .addPathPatterns("/api/products", "/api/products/categories");
+            }
+        };
+    }
+}
@@ -0,0 +1,59 @@
+package com.freshtrio.config;
+
+import com.freshtrio.service.CatalogVersion;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.util.function.LongSupplier;
+
+/**
+ * Conditional GET support for the catalog endpoints.
+ *
+ * Every GET/HEAD carries the catalog version as its ETag, one per response format,
+ * plus the configured Cache-Control. A matching If-None-Match is answered with 304 here, before the
+ * controller runs, so revalidations never reach the service or repository.
+ */
+public class CatalogCacheInterceptor implements HandlerInterceptor {
+
+    private final LongSupplier version;
+    private final CacheControl cacheControl;
+
+    public CatalogCacheInterceptor(CatalogVersion catalogVersion, CacheControl cacheControl) {
+        this(catalogVersion::current, cacheControl);
+    }
+
+    /**
+     * For endpoints served from a view rebuilt after catalog writes: the ETag carries the
+     * version that view was built from, which may lag the catalog. A version of 0 means
+     * the view is not built yet, so its empty answers are sent as no-store without an ETag.
+     */
+    public CatalogCacheInterceptor(LongSupplier version, CacheControl cacheControl) {
+        this.version = version;
+        this.cacheControl = cacheControl;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!HttpMethod.GET.matches(request.getMethod()) && !HttpMethod.HEAD.matches(request.getMethod())) {
+            return true;
+        }
+        long current = version.getAsLong();
+        if (current == 0) {
+            response.setHeader(HttpHeaders.CACHE_CONTROL, CacheControl.noStore().getHeaderValue());
+            return true;
+        }
+        response.setHeader(HttpHeaders.CACHE_CONTROL, cacheControl.getHeaderValue());
+        // JSON, CBOR and Smile share the URL, so shared caches must key on Accept too
+        response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+        String etag = CatalogVersion.etag(current,
+                BinaryFormatsConfig.binaryFormat(request.getHeader(HttpHeaders.ACCEPT)));
+        // The version is read before the handler loads any data, so a concurrent write
+        // can only leave this ETag older than the body, never newer
+        return !new ServletWebRequest(request, response).checkNotModified(etag);
+    }
+}
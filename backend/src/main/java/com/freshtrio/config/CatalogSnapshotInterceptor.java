@@ -0,0 +1,111 @@
+package com.freshtrio.config;
+
+import com.freshtrio.service.CatalogSnapshotService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.io.IOException;
+import java.util.Set;
+
+/**
+ * Answers the home screen requests from CatalogSnapshotService's pre-rendered bytes:
+ * GET /api/products/categories, and GET /api/products with at most a category parameter.
+ * The repository, Jackson and compression are all skipped.
+ *
+ * Registered after CatalogCacheInterceptor, which has already set the ETag and
+ * Cache-Control. Anything the snapshot doesn't cover (paging parameters, a non-JSON
+ * Accept, a snapshot still being rebuilt) goes on to the controller as usual.
+ */
+public class CatalogSnapshotInterceptor implements HandlerInterceptor {
+
+    private static final String PRODUCTS = "/api/products";
+    private static final String CATEGORIES = "/api/products/categories";
+
+    private final CatalogSnapshotService snapshotService;
+
+    public CatalogSnapshotInterceptor(CatalogSnapshotService snapshotService) {
+        this.snapshotService = snapshotService;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws IOException {
+        boolean head = HttpMethod.HEAD.matches(request.getMethod());
+        if (!head && !HttpMethod.GET.matches(request.getMethod())) {
+            return true;
+        }
+        CatalogSnapshotService.Rendered body = lookup(request);
+        if (body == null || !servesJson(request.getHeader(HttpHeaders.ACCEPT))) {
+            return true;
+        }
+
+        boolean gzip = body.gzip() != null && acceptsGzip(request.getHeader(HttpHeaders.ACCEPT_ENCODING));
+        byte[] bytes = gzip ? body.gzip() : body.identity();
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        response.setContentLength(bytes.length);
+        if (!head) {
+            response.getOutputStream().write(bytes);
+        }
+        return false;
+    }
+
+    private CatalogSnapshotService.Rendered lookup(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        if (path.equals(CATEGORIES)) {
+            return snapshotService.categories();
+        }
+        if (path.equals(PRODUCTS) && Set.of("category").containsAll(request.getParameterMap().keySet())) {
+            return snapshotService.firstPage(request.getParameter("category"));
+        }
+        return null;
+    }
+
+    /**
+     * True when content negotiation would pick JSON for this Accept header: JSON must be
+     * acceptable, and no binary format may be preferred over it, e.g.
+     * "application/cbor, application/json;q=0.5" gets CBOR from the controller.
+     */
+    static boolean servesJson(String accept) {
+        return acceptsJson(accept) && BinaryFormatsConfig.binaryFormat(accept) == null;
+    }
+
+    static boolean acceptsJson(String accept) {
+        if (accept == null || accept.isBlank()) {
+            return true;
+        }
+        try {
+            return MediaType.parseMediaTypes(accept).stream()
+                    .anyMatch(type -> type.getQualityValue() > 0 && type.isCompatibleWith(MediaType.APPLICATION_JSON));
+        } catch (InvalidMediaTypeException e) {
+            return false;
+        }
+    }
+
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.split(";");
+            if (!parts[0].trim().equalsIgnoreCase("gzip")) {
+                continue;
+            }
+            for (int i = 1; i < parts.length; i++) {
+                String param = parts[i].trim();
+                if (param.startsWith("q=") && param.substring(2).trim().matches("0(\\.0*)?")) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+}
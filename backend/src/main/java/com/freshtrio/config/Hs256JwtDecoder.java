@@ -0,0 +1,187 @@
+package com.freshtrio.config;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.security.oauth2.core.OAuth2Error;
+import org.springframework.security.oauth2.core.OAuth2TokenValidator;
+import org.springframework.security.oauth2.core.OAuth2TokenValidatorResult;
+import org.springframework.security.oauth2.jwt.*;
+import org.springframework.util.StringUtils;
+
+import javax.crypto.ShortBufferException;
+import java.io.IOException;
+import java.security.MessageDigest;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Verifies HS256 tokens in the shape Hs256JwtEncoder and NimbusJwtEncoder issue for
+ * JwtService: the {"alg":"HS256"} header and a flat payload of iss, sub, exp, iat, jti,
+ * role and googleid. The signature is checked with a pooled Mac and compared in
+ * constant time, and the payload is read with a streaming parser straight into the
+ * claim map. The claims then go through the same MappedJwtClaimSetConverter and default
+ * validators NimbusJwtDecoder uses.
+ *
+ * Any other token (another header, claim, or claim type; anything malformed) goes to
+ * the Nimbus decoder, so what is accepted and what is rejected never differs from it.
+ */
+public final class Hs256JwtDecoder implements JwtDecoder {
+
+    private static final String DECODING_ERROR_MESSAGE_TEMPLATE = "An error occurred while attempting to decode the Jwt: %s";
+    private static final Set<String> STRING_CLAIMS = Set.of("iss", "sub", "jti", "role", "googleid");
+    private static final Set<String> TIME_CLAIMS = Set.of("exp", "iat");
+    private static final int SIGNATURE_TEXT_LENGTH = Hs256Signer.encodedLength(Hs256Signer.SIGNATURE_LENGTH);
+    // Beyond this, seconds * 1000 overflows the long Nimbus stores as a Date
+    private static final long MAX_EPOCH_SECONDS = Long.MAX_VALUE / 1000;
+    private static final JsonFactory JSON = new JsonFactory();
+
+    private final Hs256Signer signer;
+    private final JwtDecoder fallback;
+    private final OAuth2TokenValidator<Jwt> jwtValidator = JwtValidators.createDefault();
+    private final Converter<Map<String, Object>, Map<String, Object>> claimSetConverter =
+            MappedJwtClaimSetConverter.withDefaults(Collections.emptyMap());
+
+    public Hs256JwtDecoder(byte[] secret, JwtDecoder fallback) {
+        this.signer = new Hs256Signer(secret);
+        this.fallback = fallback;
+    }
+
+    @Override
+    public Jwt decode(String token) throws JwtException {
+        if (token == null || !token.startsWith(Hs256Signer.HEADER)
+                || token.indexOf('.') != Hs256Signer.HEADER.length()) {
+            return fallback.decode(token);
+        }
+        int signatureStart = token.lastIndexOf('.') + 1;
+        int payloadStart = Hs256Signer.HEADER.length() + 1;
+        if (signatureStart <= payloadStart || token.length() - signatureStart != SIGNATURE_TEXT_LENGTH) {
+            return fallback.decode(token);
+        }
+
+        // Claims are read before the signature is checked, the same order Nimbus works in,
+        // so a token that is both malformed and forged fails the same way under either
+        Map<String, Object> claims;
+        Hs256Signer.Workspace workspace = signer.acquire();
+        try {
+            claims = readClaims(token, payloadStart, signatureStart - 1, workspace);
+            if (claims == null || !verifySignature(token, signatureStart, workspace)) {
+                return fallback.decode(token);
+            }
+        } finally {
+            signer.release(workspace);
+        }
+
+        // The same claim conversion NimbusJwtDecoder applies: iss coerced to a URL or URI
+        // string, iat defaulted from exp. An issuer it cannot coerce fails there, so let
+        // Nimbus raise that error itself
+        Map<String, Object> converted;
+        try {
+            converted = claimSetConverter.convert(claims);
+        } catch (RuntimeException e) {
+            return fallback.decode(token);
+        }
+        Jwt jwt = Jwt.withTokenValue(token)
+                .header("alg", "HS256")
+                .claims(c -> c.putAll(converted))
+                .build();
+        return validate(jwt);
+    }
+
+    /**
+     * Returns true for a valid signature, false when the token should go to the fallback,
+     * and throws for a well-formed token whose signature does not match.
+     */
+    private static boolean verifySignature(String token, int signatureStart, Hs256Signer.Workspace workspace) {
+        int signingLength = signatureStart - 1;
+        byte[] text = workspace.text(signingLength);
+        for (int i = 0; i < signingLength; i++) {
+            char c = token.charAt(i);
+            if (c >= 128) {
+                return false;
+            }
+            text[i] = (byte) c;
+        }
+        if (Hs256Signer.decode(token, signatureStart, token.length(), workspace.presented) != Hs256Signer.SIGNATURE_LENGTH) {
+            return false;
+        }
+        workspace.mac.update(text, 0, signingLength);
+        try {
+            workspace.mac.doFinal(workspace.signature, 0);
+        } catch (ShortBufferException e) {
+            throw new IllegalStateException(e);
+        }
+        if (!MessageDigest.isEqual(workspace.signature, workspace.presented)) {
+            throw new BadJwtException(String.format(DECODING_ERROR_MESSAGE_TEMPLATE, "Signed JWT rejected: Invalid signature"));
+        }
+        return true;
+    }
+
+    /**
+     * Reads the payload into Strings and Instants, as Nimbus hands them to the claim set
+     * converter, or returns null for anything outside the fixed claim set.
+     */
+    private static Map<String, Object> readClaims(String token, int from, int to, Hs256Signer.Workspace workspace) {
+        byte[] json = workspace.json((to - from) * 3 / 4 + 3);
+        int length = Hs256Signer.decode(token, from, to, json);
+        if (length <= 0) {
+            return null;
+        }
+        Map<String, Object> claims = new HashMap<>();
+        try (JsonParser parser = JSON.createParser(json, 0, length)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return null;
+            }
+            String name;
+            while ((name = parser.nextFieldName()) != null) {
+                JsonToken value = parser.nextToken();
+                if (claims.containsKey(name)) {
+                    return null;
+                }
+                Object claim = null;
+                if (STRING_CLAIMS.contains(name) && value == JsonToken.VALUE_STRING) {
+                    claim = parser.getText();
+                } else if (TIME_CLAIMS.contains(name) && value == JsonToken.VALUE_NUMBER_INT) {
+                    claim = instant(parser);
+                }
+                if (claim == null) {
+                    return null;
+                }
+                claims.put(name, claim);
+            }
+            if (parser.currentToken() != JsonToken.END_OBJECT || parser.nextToken() != null) {
+                return null;
+            }
+        } catch (IOException e) {
+            return null;
+        }
+        return claims.isEmpty() ? null : claims;
+    }
+
+    private static Instant instant(JsonParser parser) throws IOException {
+        if (parser.getNumberType() == JsonParser.NumberType.BIG_INTEGER) {
+            return null;
+        }
+        long seconds = parser.getLongValue();
+        return seconds >= -MAX_EPOCH_SECONDS && seconds <= MAX_EPOCH_SECONDS ? Instant.ofEpochSecond(seconds) : null;
+    }
+
+    private Jwt validate(Jwt jwt) {
+        OAuth2TokenValidatorResult result = jwtValidator.validate(jwt);
+        if (result.hasErrors()) {
+            String message = "Unable to validate Jwt";
+            for (OAuth2Error error : result.getErrors()) {
+                if (StringUtils.hasLength(error.getDescription())) {
+                    message = String.format(DECODING_ERROR_MESSAGE_TEMPLATE, error.getDescription());
+                    break;
+                }
+            }
+            throw new JwtValidationException(message, result.getErrors());
+        }
+        return jwt;
+    }
+}
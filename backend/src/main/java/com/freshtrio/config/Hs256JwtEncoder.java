@@ -0,0 +1,268 @@
+package com.freshtrio.config;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.nimbusds.jwt.JWTClaimsSet;
+import org.springframework.security.oauth2.jose.jws.MacAlgorithm;
+import org.springframework.security.oauth2.jwt.*;
+
+import javax.crypto.ShortBufferException;
+import java.io.IOException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Issues HS256 tokens for the claims JwtService.generateToken sets (iss, sub, exp, iat,
+ * jti, role, googleid) without going through Nimbus's claim builders, JSON maps and
+ * per-call Mac. The output is byte for byte what NimbusJwtEncoder produces for the same
+ * claims: claims are written in the order Nimbus serializes them, with Gson's string
+ * escaping. Anything outside that shape (another header, another claim
+ * or claim type) is handed to the Nimbus encoder unchanged.
+ */
+public final class Hs256JwtEncoder implements JwtEncoder {
+
+    private static final String[] CUSTOM = {"role", "googleid"};
+    private static final List<String> NAMES = List.of("iss", "sub", "exp", "iat", "jti", "role", "googleid");
+
+    private static final JsonFactory JSON = new JsonFactory();
+
+    // Claim write order for every subset of NAMES, indexed by a bitmask of the claims present
+    private static final String[][] ORDERS = new String[1 << 7][];
+
+    static {
+        for (int mask = 0; mask < ORDERS.length; mask++) {
+            ORDERS[mask] = nimbusOrder(mask);
+        }
+    }
+
+    private static final byte[] HEADER = Hs256Signer.HEADER.getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] HEX = "0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+
+    private final Hs256Signer signer;
+    private final JwtEncoder fallback;
+
+    public Hs256JwtEncoder(byte[] secret, JwtEncoder fallback) {
+        this.signer = new Hs256Signer(secret);
+        this.fallback = fallback;
+    }
+
+    @Override
+    public Jwt encode(JwtEncoderParameters parameters) throws JwtEncodingException {
+        JwsHeader header = parameters.getJwsHeader();
+        JwtClaimsSet claims = parameters.getClaims();
+        if (header == null || header.getHeaders().size() != 1 || header.getAlgorithm() != MacAlgorithm.HS256) {
+            return fallback.encode(parameters);
+        }
+        Object[] values = new Object[NAMES.size()];
+        int mask = 0;
+        int bound = 2;
+        for (Map.Entry<String, Object> claim : claims.getClaims().entrySet()) {
+            int index = NAMES.indexOf(claim.getKey());
+            Object value = supported(index, claim.getValue());
+            if (value == null) {
+                return fallback.encode(parameters);
+            }
+            // Nimbus drops a blank subject or id rather than writing it
+            if ((index == 1 || index == 4) && ((String) value).isBlank()) {
+                continue;
+            }
+            values[index] = value;
+            mask |= 1 << index;
+            // Worst case six bytes per char (an escaped code unit), plus quotes, colon and comma
+            bound += 6 * claim.getKey().length() + (value instanceof String text ? 6 * text.length() : 20) + 6;
+        }
+
+        Hs256Signer.Workspace workspace = signer.acquire();
+        try {
+            byte[] json = workspace.json(bound);
+            int length = writeClaims(json, ORDERS[mask], values);
+            int signingLength = HEADER.length + 1 + Hs256Signer.encodedLength(length);
+            byte[] text = workspace.text(signingLength + 1 + Hs256Signer.encodedLength(Hs256Signer.SIGNATURE_LENGTH));
+            System.arraycopy(HEADER, 0, text, 0, HEADER.length);
+            text[HEADER.length] = '.';
+            Hs256Signer.encode(json, 0, length, text, HEADER.length + 1);
+            workspace.mac.update(text, 0, signingLength);
+            workspace.mac.doFinal(workspace.signature, 0);
+            text[signingLength] = '.';
+            int end = Hs256Signer.encode(workspace.signature, 0, Hs256Signer.SIGNATURE_LENGTH, text, signingLength + 1);
+            String token = new String(text, 0, end, StandardCharsets.US_ASCII);
+            return new Jwt(token, claims.getIssuedAt(), claims.getExpiresAt(), header.getHeaders(), claims.getClaims());
+        } catch (ShortBufferException e) {
+            throw new JwtEncodingException("Signature buffer too small", e);
+        } finally {
+            signer.release(workspace);
+        }
+    }
+
+    /**
+     * Returns the value to write for a claim at this index of NAMES, or null if the
+     * fast path does not handle it.
+     */
+    private static Object supported(int index, Object value) {
+        if (index < 0) {
+            return null;
+        }
+        if (index == 0 && value instanceof URL url) {
+            return url.toString();
+        }
+        if (index == 2 || index == 3) {
+            return value instanceof Instant ? value : null;
+        }
+        return value instanceof String ? value : null;
+    }
+
+    private static int writeClaims(byte[] json, String[] order, Object[] values) {
+        int p = 0;
+        json[p++] = '{';
+        for (String name : order) {
+            if (p > 1) {
+                json[p++] = ',';
+            }
+            p = writeString(json, p, name);
+            json[p++] = ':';
+            Object value = values[NAMES.indexOf(name)];
+            if (value instanceof Instant instant) {
+                // Nimbus goes through java.util.Date and writes getTime() / 1000
+                p = writeLong(json, p, instant.toEpochMilli() / 1000L);
+            } else {
+                p = writeString(json, p, (String) value);
+            }
+        }
+        json[p++] = '}';
+        return p;
+    }
+
+    private static int writeLong(byte[] json, int p, long value) {
+        String digits = Long.toString(value);
+        for (int i = 0; i < digits.length(); i++) {
+            json[p++] = (byte) digits.charAt(i);
+        }
+        return p;
+    }
+
+    /**
+     * Writes a JSON string the way Gson does with HTML escaping off: quote, backslash and
+     * control characters escaped, U+2028 and U+2029 escaped, everything else as UTF-8.
+     */
+    private static int writeString(byte[] json, int p, String value) {
+        json[p++] = '"';
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                if (c < 0x20 || c == '"' || c == '\\') {
+                    p = writeEscape(json, p, c);
+                } else {
+                    json[p++] = (byte) c;
+                }
+            } else if (c < 0x800) {
+                json[p++] = (byte) (0xc0 | c >> 6);
+                json[p++] = (byte) (0x80 | c & 0x3f);
+            } else if (c == 0x2028 || c == 0x2029) {
+                p = writeUnicodeEscape(json, p, c);
+            } else if (Character.isHighSurrogate(c) && i + 1 < value.length()
+                    && Character.isLowSurrogate(value.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                json[p++] = (byte) (0xf0 | codePoint >> 18);
+                json[p++] = (byte) (0x80 | codePoint >> 12 & 0x3f);
+                json[p++] = (byte) (0x80 | codePoint >> 6 & 0x3f);
+                json[p++] = (byte) (0x80 | codePoint & 0x3f);
+            } else if (Character.isSurrogate(c)) {
+                // An unpaired surrogate; String.getBytes(UTF_8), which Nimbus ends with, writes '?'
+                json[p++] = '?';
+            } else {
+                json[p++] = (byte) (0xe0 | c >> 12);
+                json[p++] = (byte) (0x80 | c >> 6 & 0x3f);
+                json[p++] = (byte) (0x80 | c & 0x3f);
+            }
+        }
+        json[p++] = '"';
+        return p;
+    }
+
+    private static int writeEscape(byte[] json, int p, char c) {
+        char short_ = switch (c) {
+            case '"' -> '"';
+            case '\\' -> '\\';
+            case '\t' -> 't';
+            case '\b' -> 'b';
+            case '\n' -> 'n';
+            case '\r' -> 'r';
+            case '\f' -> 'f';
+            default -> 0;
+        };
+        if (short_ == 0) {
+            return writeUnicodeEscape(json, p, c);
+        }
+        json[p++] = '\\';
+        json[p++] = (byte) short_;
+        return p;
+    }
+
+    private static int writeUnicodeEscape(byte[] json, int p, char c) {
+        json[p++] = '\\';
+        json[p++] = 'u';
+        json[p++] = HEX[c >> 12 & 0xf];
+        json[p++] = HEX[c >> 8 & 0xf];
+        json[p++] = HEX[c >> 4 & 0xf];
+        json[p++] = HEX[c & 0xf];
+        return p;
+    }
+
+    /**
+     * The order NimbusJwtEncoder writes this subset of claims in. That order falls out of
+     * the HashMaps Nimbus copies the claims through (whose capacity depends on the claim
+     * count) and Gson, so rather than model it, this feeds placeholder claims through the
+     * same steps: registered claims into a JWTClaimsSet builder in NimbusJwtEncoder's
+     * order, custom ones by iterating a HashMap, then reads the key order back from the
+     * serialized payload.
+     */
+    static String[] nimbusOrder(int mask) {
+        JWTClaimsSet.Builder builder = new JWTClaimsSet.Builder();
+        Date placeholder = new Date(0);
+        if (has(mask, "iss")) {
+            builder.issuer("x");
+        }
+        if (has(mask, "sub")) {
+            builder.subject("x");
+        }
+        if (has(mask, "exp")) {
+            builder.expirationTime(placeholder);
+        }
+        if (has(mask, "iat")) {
+            builder.issueTime(placeholder);
+        }
+        if (has(mask, "jti")) {
+            builder.jwtID("x");
+        }
+        Map<String, Object> custom = new HashMap<>();
+        for (String name : CUSTOM) {
+            if (has(mask, name)) {
+                custom.put(name, "x");
+            }
+        }
+        custom.forEach(builder::claim);
+
+        List<String> order = new ArrayList<>();
+        try (JsonParser parser = JSON.createParser(builder.build().toPayload().toString())) {
+            parser.nextToken();
+            String name;
+            while ((name = parser.nextFieldName()) != null) {
+                order.add(name);
+                parser.nextToken();
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Unreadable Nimbus payload", e);
+        }
+        return order.toArray(new String[0]);
+    }
+
+    private static boolean has(int mask, String name) {
+        return (mask & 1 << NAMES.indexOf(name)) != 0;
+    }
+}
@@ -0,0 +1,179 @@
+package com.freshtrio.config;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.security.GeneralSecurityException;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+
+/**
+ * HMAC-SHA256 and Base64URL plumbing shared by Hs256JwtEncoder and Hs256JwtDecoder.
+ *
+ * Initialised Mac instances and their scratch buffers are pooled together as
+ * Workspaces rather than held per thread: with virtual threads enabled every request
+ * runs on a new thread, so a ThreadLocal would build a fresh Mac per request. The pool
+ * is a fixed array queue, so taking and returning a workspace allocates nothing.
+ */
+final class Hs256Signer {
+
+    static final String ALGORITHM = "HmacSHA256";
+    static final int SIGNATURE_LENGTH = 32;
+
+    // Base64URL of {"alg":"HS256"}, the only header this application issues
+    static final String HEADER = "eyJhbGciOiJIUzI1NiJ9";
+
+    private static final int POOL_SIZE = 64;
+    private static final byte[] ALPHABET =
+            "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789-_".getBytes();
+    private static final int[] DECODE = new int[128];
+
+    static {
+        Arrays.fill(DECODE, -1);
+        for (int i = 0; i < ALPHABET.length; i++) {
+            DECODE[ALPHABET[i]] = i;
+        }
+    }
+
+    private final SecretKeySpec key;
+    private final ArrayBlockingQueue<Workspace> pool = new ArrayBlockingQueue<>(POOL_SIZE);
+
+    Hs256Signer(byte[] secret) {
+        // Same floor Nimbus enforces: HS256 keys must be at least 256 bits
+        if (secret.length < SIGNATURE_LENGTH) {
+            throw new IllegalArgumentException("HS256 secret must be at least 256 bits");
+        }
+        key = new SecretKeySpec(secret, ALGORITHM);
+    }
+
+    Workspace acquire() {
+        Workspace workspace = pool.poll();
+        return workspace != null ? workspace : new Workspace(newMac());
+    }
+
+    void release(Workspace workspace) {
+        // A full pool just drops the extra workspace
+        pool.offer(workspace);
+    }
+
+    private Mac newMac() {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 unavailable", e);
+        }
+    }
+
+    static int encodedLength(int length) {
+        return (length * 4 + 2) / 3;
+    }
+
+    /**
+     * Writes src[off, off + len) to dst at dstOff as unpadded Base64URL and returns the
+     * offset after the last byte written.
+     */
+    static int encode(byte[] src, int off, int len, byte[] dst, int dstOff) {
+        int end = off + len;
+        int i = off;
+        int o = dstOff;
+        while (end - i >= 3) {
+            int bits = (src[i] & 0xff) << 16 | (src[i + 1] & 0xff) << 8 | (src[i + 2] & 0xff);
+            dst[o++] = ALPHABET[bits >>> 18];
+            dst[o++] = ALPHABET[(bits >>> 12) & 0x3f];
+            dst[o++] = ALPHABET[(bits >>> 6) & 0x3f];
+            dst[o++] = ALPHABET[bits & 0x3f];
+            i += 3;
+        }
+        int remaining = end - i;
+        if (remaining == 1) {
+            int bits = (src[i] & 0xff) << 16;
+            dst[o++] = ALPHABET[bits >>> 18];
+            dst[o++] = ALPHABET[(bits >>> 12) & 0x3f];
+        } else if (remaining == 2) {
+            int bits = (src[i] & 0xff) << 16 | (src[i + 1] & 0xff) << 8;
+            dst[o++] = ALPHABET[bits >>> 18];
+            dst[o++] = ALPHABET[(bits >>> 12) & 0x3f];
+            dst[o++] = ALPHABET[(bits >>> 6) & 0x3f];
+        }
+        return o;
+    }
+
+    /**
+     * Decodes unpadded Base64URL text[from, to) into dst and returns the number of bytes
+     * written, or -1 if the text is not valid Base64URL. dst must hold at least
+     * (to - from) * 3 / 4 bytes.
+     */
+    static int decode(String text, int from, int to, byte[] dst) {
+        int length = to - from;
+        if (length % 4 == 1) {
+            return -1;
+        }
+        int o = 0;
+        int i = from;
+        while (to - i >= 4) {
+            int bits = sextet(text, i) << 18 | sextet(text, i + 1) << 12 | sextet(text, i + 2) << 6 | sextet(text, i + 3);
+            if (bits < 0) {
+                return -1;
+            }
+            dst[o++] = (byte) (bits >>> 16);
+            dst[o++] = (byte) (bits >>> 8);
+            dst[o++] = (byte) bits;
+            i += 4;
+        }
+        int remaining = to - i;
+        if (remaining == 2) {
+            int bits = sextet(text, i) << 18 | sextet(text, i + 1) << 12;
+            if (bits < 0) {
+                return -1;
+            }
+            dst[o++] = (byte) (bits >>> 16);
+        } else if (remaining == 3) {
+            int bits = sextet(text, i) << 18 | sextet(text, i + 1) << 12 | sextet(text, i + 2) << 6;
+            if (bits < 0) {
+                return -1;
+            }
+            dst[o++] = (byte) (bits >>> 16);
+            dst[o++] = (byte) (bits >>> 8);
+        }
+        return o;
+    }
+
+    // -1 for anything outside the alphabet; shifted left it keeps the sign bit, so one
+    // bad character makes the whole OR'd group negative
+    private static int sextet(String text, int index) {
+        char c = text.charAt(index);
+        return c < 128 ? DECODE[c] : -1;
+    }
+
+    /**
+     * One pooled Mac with the buffers an encode or decode needs; buffers grow on demand
+     * and are kept at their largest size.
+     */
+    static final class Workspace {
+
+        final Mac mac;
+        final byte[] signature = new byte[SIGNATURE_LENGTH];
+        final byte[] presented = new byte[SIGNATURE_LENGTH];
+        byte[] json = new byte[512];
+        byte[] text = new byte[1024];
+
+        private Workspace(Mac mac) {
+            this.mac = mac;
+        }
+
+        byte[] json(int capacity) {
+            if (json.length < capacity) {
+                json = new byte[Math.max(capacity, json.length * 2)];
+            }
+            return json;
+        }
+
+        byte[] text(int capacity) {
+            if (text.length < capacity) {
+                text = new byte[Math.max(capacity, text.length * 2)];
+            }
+            return text;
+        }
+    }
+}
@@ -18,22 +18,33 @@ public class JwtConfig {
     @Value("${jwt.secret:myVerySecretKeyThatIsAtLeast32CharactersLongAndSecureForJWTSigning123456789}")
     private String jwtSecret;
 
+    // "nimbus", or "hs256" for the specialized codec, which falls back to Nimbus for
+    // any token outside the claim set JwtService issues
+    @Value("${app.jwt.codec:nimbus}")
+    private String codec;
+
     @Bean
     public JwtEncoder jwtEncoder() {
         SecretKeySpec secretKey = new SecretKeySpec(jwtSecret.getBytes(), "HmacSHA256");
-        return new NimbusJwtEncoder(new ImmutableSecret<>(secretKey));
+        JwtEncoder nimbus = new NimbusJwtEncoder(new ImmutableSecret<>(secretKey));
+        return useHs256Codec() ? new Hs256JwtEncoder(jwtSecret.getBytes(), nimbus) : nimbus;
     }
 
     @Bean
     public JwtDecoder jwtDecoder() {
         SecretKeySpec secretKey = new SecretKeySpec(jwtSecret.getBytes(), "HmacSHA256");
-        return NimbusJwtDecoder.withSecretKey(secretKey)
+        JwtDecoder nimbus = NimbusJwtDecoder.withSecretKey(secretKey)
                 .macAlgorithm(MacAlgorithm.HS256)
                 .build();
+        return useHs256Codec() ? new Hs256JwtDecoder(jwtSecret.getBytes(), nimbus) : nimbus;
     }
 
     @Bean
     public JwsHeader jwsHeader() {
         return JwsHeader.with(MacAlgorithm.HS256).build();
     }
+
+    private boolean useHs256Codec() {
+        return "hs256".equalsIgnoreCase(codec);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,67 @@
+package com.freshtrio.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Streams JFR's jdk.VirtualThreadPinned events, which fire when a virtual thread blocks
+ * for longer than the threshold while pinned to its carrier (inside synchronized, or in
+ * native code). Every event is counted and timed as jvm.threads.virtual.pinned; the
+ * stack is logged the first time each blocking location is seen.
+ */
+public class PinnedThreadMonitor implements AutoCloseable {
+
+    static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+
+    private static final int LOGGED_FRAMES = 8;
+
+    private final Counter pinned;
+    private final Timer pinnedTime;
+    private final Set<String> reportedLocations = ConcurrentHashMap.newKeySet();
+    private final RecordingStream stream;
+
+    public PinnedThreadMonitor(MeterRegistry meterRegistry, Duration threshold) {
+        pinned = Counter.builder("jvm.threads.virtual.pinned")
+                .description("Virtual threads that blocked while pinned to their carrier")
+                .register(meterRegistry);
+        pinnedTime = Timer.builder("jvm.threads.virtual.pinned.duration")
+                .description("Time virtual threads spent blocked while pinned")
+                .register(meterRegistry);
+        stream = new RecordingStream();
+        stream.enable(PINNED_EVENT).withThreshold(threshold).withStackTrace();
+        stream.onEvent(PINNED_EVENT, this::onPinned);
+        stream.startAsync();
+    }
+
+    private void onPinned(RecordedEvent event) {
+        pinned.increment();
+        pinnedTime.record(event.getDuration());
+        RecordedStackTrace stackTrace = event.getStackTrace();
+        if (stackTrace == null || stackTrace.getFrames().isEmpty()) {
+            return;
+        }
+        StringBuilder frames = new StringBuilder();
+        for (RecordedFrame frame : stackTrace.getFrames().subList(0, Math.min(LOGGED_FRAMES, stackTrace.getFrames().size()))) {
+            frames.append("\n    at ").append(frame.getMethod().getType().getName()).append('.')
+                    .append(frame.getMethod().getName()).append(" line ").append(frame.getLineNumber());
+        }
+        // Keyed by the whole logged stack, so the same lock reached from two callers is reported twice
+        if (reportedLocations.add(frames.toString())) {
+            System.err.println("Virtual thread pinned for " + event.getDuration().toMillis() + " ms" + frames);
+        }
+    }
+
+    @Override
+    public void close() {
+        stream.close();
+    }
+}
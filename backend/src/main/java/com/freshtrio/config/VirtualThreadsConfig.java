@@ -0,0 +1,63 @@
+package com.freshtrio.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Extras for the virtual-thread mode, active when spring.threads.virtual.enabled is set
+ * and the JVM is 21 or later. Boot itself then runs Tomcat requests and @Async work on
+ * virtual threads; this adds the connection bulkhead and pinning diagnostics.
+ */
+@Configuration
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class VirtualThreadsConfig {
+
+    // Static so the post-processor does not force this configuration to be created early
+    @Bean
+    public static BeanPostProcessor dataSourceBulkhead(Environment environment) {
+        int permits = environment.getProperty("app.datasource.bulkhead.permits", Integer.class, 10);
+        Duration acquireTimeout = environment.getProperty("app.datasource.bulkhead.acquire-timeout",
+                Duration.class, Duration.ofSeconds(30));
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof BulkheadDataSource)) {
+                    System.out.println("Database bulkhead enabled with " + permits + " permits");
+                    return new BulkheadDataSource(dataSource, permits, acquireTimeout);
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Bean
+    public MeterBinder dataSourceBulkheadMetrics(DataSource dataSource) {
+        return registry -> {
+            if (dataSource instanceof BulkheadDataSource bulkhead) {
+                Gauge.builder("db.bulkhead.permits.available", bulkhead, BulkheadDataSource::getAvailablePermits)
+                        .description("Connection permits not currently held")
+                        .register(registry);
+                Gauge.builder("db.bulkhead.waiting", bulkhead, BulkheadDataSource::getQueueLength)
+                        .description("Threads waiting for a connection permit")
+                        .register(registry);
+            }
+        };
+    }
+
+    @Bean(destroyMethod = "close")
+    public PinnedThreadMonitor pinnedThreadMonitor(MeterRegistry meterRegistry,
+                                                   @Value("${app.virtual-threads.pinned-threshold:20ms}") Duration threshold) {
+        return new PinnedThreadMonitor(meterRegistry, threshold);
+    }
+}
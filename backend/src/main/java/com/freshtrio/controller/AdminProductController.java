@@ -0,0 +1,110 @@
+package com.freshtrio.controller;
+
+import com.freshtrio.dto.ImportReport;
+import com.freshtrio.dto.ProductImageUpload;
+import com.freshtrio.service.ProductExportService;
+import com.freshtrio.service.ProductImageService;
+import com.freshtrio.service.ProductImportService;
+import com.freshtrio.service.ProductService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/api/admin/products")
+@PreAuthorize("hasRole('ADMIN')")
+@CrossOrigin(origins = "*")
+public class AdminProductController {
+
+    @Autowired
+    private ProductImportService productImportService;
+
+    @Autowired
+    private ProductExportService productExportService;
+
+    @Autowired
+    private ProductImageService productImageService;
+
+    @Autowired
+    private ProductService productService;
+
+    /**
+     * Bulk upsert of a supplier's products. The request body is read as a stream, so
+     * the upload size is not limited by the multipart settings.
+     */
+    @PostMapping(value = "/import", consumes = "text/csv")
+    public ResponseEntity<ImportReport> importCsv(@RequestParam UUID supplierId, InputStream body) throws IOException {
+        return importProducts(supplierId, body, ProductImportService.Format.CSV);
+    }
+
+    @PostMapping(value = "/import", consumes = "application/x-ndjson")
+    public ResponseEntity<ImportReport> importNdjson(@RequestParam UUID supplierId, InputStream body) throws IOException {
+        return importProducts(supplierId, body, ProductImportService.Format.NDJSON);
+    }
+
+    private ResponseEntity<ImportReport> importProducts(UUID supplierId, InputStream body,
+                                                        ProductImportService.Format format) throws IOException {
+        try {
+            return ResponseEntity.ok(productImportService.importProducts(supplierId, body, format));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * Streams the catalog, including inactive products unless activeOnly is set. Rows are
+     * written as they come off the database cursor, so the response starts at once and
+     * memory stays flat however large the catalog is.
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportProducts(
+            @RequestParam(defaultValue = "ndjson") String format,
+            @RequestParam(required = false) UUID supplierId,
+            @RequestParam(defaultValue = "false") boolean activeOnly) {
+        ProductExportService.Format exportFormat;
+        try {
+            exportFormat = ProductExportService.Format.valueOf(format.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        boolean csv = exportFormat == ProductExportService.Format.CSV;
+        StreamingResponseBody body = out -> productExportService.export(exportFormat, supplierId, !activeOnly, out);
+        return ResponseEntity.ok()
+                .contentType(csv ? new MediaType("text", "csv", StandardCharsets.UTF_8)
+                        : MediaType.APPLICATION_NDJSON)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"products." + exportFormat.name().toLowerCase() + "\"")
+                // Stops nginx from buffering the whole download before passing it on
+                .header("X-Accel-Buffering", "no")
+                .body(body);
+    }
+
+    /**
+     * Uploads a product image. Answers 202 with the variant URLs; they start resolving,
+     * and the product's imageUrl moves to the new detail variant, once processing is done.
+     */
+    @PostMapping(value = "/{id}/image", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<ProductImageUpload> uploadImage(@PathVariable UUID id,
+                                                          @RequestParam("file") MultipartFile file) throws IOException {
+        if (productService.getProductById(id).isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        try {
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(productImageService.upload(id, file));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "5").build();
+        }
+    }
+}
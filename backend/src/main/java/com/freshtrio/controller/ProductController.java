@@ -1,14 +1,28 @@
 // src/main/java/com/freshtrio/controller/ProductController.java
 package com.freshtrio.controller;
 
+import com.freshtrio.dto.CategorySummary;
+import com.freshtrio.dto.CursorPage;
+import com.freshtrio.dto.FacetedSearchResult;
+import com.freshtrio.dto.ProductBatch;
+import com.freshtrio.dto.ProductBatchRequest;
+import com.freshtrio.dto.ProductChanges;
+import com.freshtrio.dto.ProductSearchFilter;
+import com.freshtrio.dto.ProductSummary;
+import com.freshtrio.dto.Suggestion;
 import com.freshtrio.entity.Product;
+import com.freshtrio.service.CategoryService;
+import com.freshtrio.service.ProductCursor;
 import com.freshtrio.service.ProductService;
+import com.freshtrio.service.SuggestService;
+import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.math.BigDecimal;
 import java.util.List;
 import java.util.UUID;
 
@@ -19,15 +33,69 @@ public class ProductController {
     
     @Autowired
     private ProductService productService;
+
+    @Autowired
+    private CategoryService categoryService;
+
+    @Autowired
+    private SuggestService suggestService;
     
     @GetMapping
-    public ResponseEntity<Page<Product>> getAllProducts(
+    public ResponseEntity<Page<ProductSummary>> getAllProducts(
             @RequestParam(required = false) String category,
             Pageable pageable) {
-        Page<Product> products = productService.getAllProducts(category, pageable);
+        Page<ProductSummary> products = productService.getAllProducts(category, pageable);
         return ResponseEntity.ok(products);
     }
     
+    /**
+     * Batch lookup, e.g. GET /api/products?ids=a,b,c. Selected over the paged listing
+     * whenever ids is present.
+     */
+    @GetMapping(params = "ids")
+    public ResponseEntity<ProductBatch> getProductsByIds(@RequestParam List<UUID> ids) {
+        try {
+            return ResponseEntity.ok(productService.getProductsByIds(ids));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+    
+    // Same as GET ?ids= for id lists too long for a URL
+    @PostMapping("/batch")
+    public ResponseEntity<ProductBatch> getProductsByIdsPost(@Valid @RequestBody ProductBatchRequest request) {
+        try {
+            return ResponseEntity.ok(productService.getProductsByIds(request.getIds()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+    
+    @GetMapping("/scroll")
+    public ResponseEntity<CursorPage<ProductSummary>> scrollProducts(
+            @RequestParam(required = false) String category,
+            @RequestParam(defaultValue = "newest") String sort,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        try {
+            ProductCursor.Order order = ProductCursor.Order.valueOf(sort.toUpperCase());
+            return ResponseEntity.ok(productService.scrollProducts(category, order, cursor, size));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+    
+    @GetMapping("/changes")
+    public ResponseEntity<ProductChanges> getChanges(
+            @RequestParam(required = false) String since,
+            @RequestParam(defaultValue = "500") int size) {
+        try {
+            return ResponseEntity.ok(productService.getChanges(since, size));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+    
     @GetMapping("/{id}")
     public ResponseEntity<Product> getProduct(@PathVariable UUID id) {
         return productService.getProductById(id)
@@ -36,16 +104,47 @@ public class ProductController {
     }
     
     @GetMapping("/categories")
-    public ResponseEntity<List<String>> getCategories() {
-        List<String> categories = productService.getCategories();
+    public ResponseEntity<List<CategorySummary>> getCategories() {
+        List<CategorySummary> categories = categoryService.getCategories();
         return ResponseEntity.ok(categories);
     }
     
     @GetMapping("/search")
-    public ResponseEntity<Page<Product>> searchProducts(
+    public ResponseEntity<Page<ProductSummary>> searchProducts(
             @RequestParam String q,
             Pageable pageable) {
-        Page<Product> products = productService.searchProducts(q, pageable);
+        Page<ProductSummary> products = productService.searchProducts(q, pageable);
         return ResponseEntity.ok(products);
     }
+    
+    @GetMapping("/facets")
+    public ResponseEntity<FacetedSearchResult> facetedSearch(
+            @RequestParam(required = false) String q,
+            @RequestParam(required = false) String category,
+            @RequestParam(required = false) BigDecimal minPrice,
+            @RequestParam(required = false) BigDecimal maxPrice,
+            @RequestParam(required = false) UUID supplierId,
+            Pageable pageable) {
+        ProductSearchFilter filter = new ProductSearchFilter(q, category, minPrice, maxPrice, supplierId);
+        return ResponseEntity.ok(productService.facetedSearch(filter, pageable));
+    }
+    
+    @GetMapping("/search/scroll")
+    public ResponseEntity<CursorPage<ProductSummary>> scrollSearch(
+            @RequestParam String q,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        try {
+            return ResponseEntity.ok(productService.scrollSearch(q, cursor, size));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+    
+    @GetMapping("/suggest")
+    public ResponseEntity<List<Suggestion>> suggest(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(suggestService.suggest(q, limit));
+    }
 }
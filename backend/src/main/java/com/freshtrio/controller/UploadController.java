@@ -0,0 +1,145 @@
+package com.freshtrio.controller;
+
+import com.freshtrio.service.ProductImageService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Serves files from the upload directory when the backend is reached without nginx in
+ * front. Uploaded files are never rewritten in place (a new upload gets a new path), so
+ * responses are cacheable for a year.
+ *
+ * The body is handed to Tomcat's sendfile support where available, so the kernel copies
+ * the file to the socket without it passing through the heap; otherwise it is copied
+ * with FileChannel.transferTo. Single byte ranges are honoured.
+ */
+@RestController
+public class UploadController {
+
+    private static final String PREFIX = "/uploads/";
+
+    private static final Pattern SAFE_PATH = Pattern.compile("[A-Za-z0-9._/-]+");
+
+    private static final String CACHE_CONTROL = "public, max-age=31536000, immutable";
+
+    // Request attributes of Tomcat's NIO connector; the file is sent after the servlet returns
+    static final String SENDFILE_SUPPORTED = "org.apache.tomcat.sendfile.support";
+    static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    @Autowired
+    private ProductImageService productImageService;
+
+    @GetMapping(PREFIX + "**")
+    public void serve(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        Path file = resolve(request);
+        if (file == null) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        long length = Files.size(file);
+        long lastModified = Files.getLastModifiedTime(file).toMillis();
+        String etag = "\"" + Long.toHexString(length) + "-" + Long.toHexString(lastModified) + "\"";
+
+        response.setHeader(HttpHeaders.CACHE_CONTROL, CACHE_CONTROL);
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        // Sets ETag and Last-Modified, and a 304 when the client's copy is current
+        if (new ServletWebRequest(request, response).checkNotModified(etag, lastModified)) {
+            return;
+        }
+        response.setContentType(MediaTypeFactory.getMediaType(file.getFileName().toString())
+                .orElse(MediaType.APPLICATION_OCTET_STREAM).toString());
+
+        long start = 0;
+        long end = length; // exclusive
+        HttpRange range = singleRange(request, etag);
+        if (range != null) {
+            start = range.getRangeStart(length);
+            if (start >= length) {
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+                response.sendError(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                return;
+            }
+            end = range.getRangeEnd(length) + 1;
+            response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+            response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + (end - 1) + "/" + length);
+        }
+        response.setContentLengthLong(end - start);
+        if ("HEAD".equals(request.getMethod())) {
+            return;
+        }
+
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORTED))) {
+            request.setAttribute(SENDFILE_FILENAME, file.toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, end);
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            long position = start;
+            while (position < end) {
+                position += channel.transferTo(position, end - position, out);
+            }
+        }
+    }
+
+    /**
+     * Maps the request path onto a regular file under the upload directory, or returns
+     * null. Only plain names are accepted, so the path cannot leave the directory.
+     */
+    private Path resolve(HttpServletRequest request) {
+        String uri = request.getRequestURI().substring(request.getContextPath().length());
+        if (!uri.startsWith(PREFIX)) {
+            return null;
+        }
+        String relative = uri.substring(PREFIX.length());
+        if (!SAFE_PATH.matcher(relative).matches() || relative.contains("..") || relative.endsWith(".tmp")) {
+            return null;
+        }
+        Path root = productImageService.root();
+        Path file = root.resolve(relative).normalize();
+        return file.startsWith(root) && Files.isRegularFile(file) ? file : null;
+    }
+
+    /**
+     * Returns the requested range, or null to send the whole file: when there is no Range
+     * header, when it is malformed or asks for several ranges, or when If-Range names an
+     * older version of the file.
+     */
+    private static HttpRange singleRange(HttpServletRequest request, String etag) {
+        String header = request.getHeader(HttpHeaders.RANGE);
+        if (header == null) {
+            return null;
+        }
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (ifRange != null && !ifRange.equals(etag)) {
+            return null;
+        }
+        try {
+            List<HttpRange> ranges = HttpRange.parseRanges(header);
+            return ranges.size() == 1 ? ranges.get(0) : null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
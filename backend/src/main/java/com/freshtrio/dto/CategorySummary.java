@@ -0,0 +1,9 @@
+package com.freshtrio.dto;
+
+/**
+ * A category as listed by GET /api/products/categories, with the number of active
+ * products in it. Instances are immutable so the category snapshot can be shared
+ * across requests.
+ */
+public record CategorySummary(String name, String displayName, String imageUrl, int sortOrder, long productCount) {
+}
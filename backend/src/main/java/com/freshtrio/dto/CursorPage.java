@@ -0,0 +1,20 @@
+package com.freshtrio.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * One slice of a keyset-paginated listing. nextCursor is an opaque token to pass
+ * back as ?cursor= for the following slice, and is null on the last slice.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorPage<T> {
+    private List<T> content;
+    private String nextCursor;
+    private boolean hasNext;
+}
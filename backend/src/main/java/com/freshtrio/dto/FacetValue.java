@@ -0,0 +1,15 @@
+package com.freshtrio.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * One selectable facet value and the number of matching products. For price bands
+ * min (inclusive) and max (exclusive) give the filter to send back; for suppliers
+ * value is the supplier id and label its name.
+ */
+public record FacetValue(String value, String label, BigDecimal min, BigDecimal max, long count) {
+
+    public static FacetValue of(String value, long count) {
+        return new FacetValue(value, null, null, null, count);
+    }
+}
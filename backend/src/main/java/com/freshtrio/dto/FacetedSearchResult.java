@@ -0,0 +1,16 @@
+package com.freshtrio.dto;
+
+import org.springframework.data.domain.Page;
+
+import java.util.List;
+
+/**
+ * A search result page together with the facet counts for the same query.
+ *
+ * Each facet is counted with every filter applied except its own, so the category
+ * chips show how many results each category would give with the current price and
+ * supplier selection, and likewise for the other facets.
+ */
+public record FacetedSearchResult(Page<ProductSummary> results, List<FacetValue> categories,
+                                  List<FacetValue> priceBands, List<FacetValue> suppliers) {
+}
@@ -0,0 +1,25 @@
+package com.freshtrio.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Outcome of a bulk product import. errors lists failed rows by source line, up to
+ * app.import.max-errors; errorsTruncated is set when more rows failed than were listed.
+ */
+@Data
+@NoArgsConstructor
+public class ImportReport {
+    private long rowsRead;
+    private long inserted;
+    private long updated;
+    private long failed;
+    private List<RowError> errors = new ArrayList<>();
+    private boolean errorsTruncated;
+
+    public record RowError(long line, String message) {
+    }
+}
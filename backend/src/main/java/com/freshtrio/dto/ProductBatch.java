@@ -0,0 +1,12 @@
+package com.freshtrio.dto;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Result of a batch product lookup. products follows the order of the requested ids;
+ * ids that were requested but not returned are listed in missing (no such product)
+ * or inactive (soft-deleted), so a cart can drop or flag those lines.
+ */
+public record ProductBatch(List<ProductSummary> products, List<UUID> missing, List<UUID> inactive) {
+}
@@ -0,0 +1,14 @@
+package com.freshtrio.dto;
+
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+import java.util.List;
+import java.util.UUID;
+
+@Data
+public class ProductBatchRequest {
+
+    @NotNull(message = "ids is required")
+    private List<UUID> ids;
+}
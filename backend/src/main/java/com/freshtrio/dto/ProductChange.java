@@ -0,0 +1,12 @@
+package com.freshtrio.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * A product as returned by delta sync. Deactivated products come back with active=false
+ * so clients can drop them from their local catalog.
+ */
+public interface ProductChange extends ProductSummary {
+    Boolean getActive();
+    LocalDateTime getUpdatedAt();
+}
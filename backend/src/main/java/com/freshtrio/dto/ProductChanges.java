@@ -0,0 +1,10 @@
+package com.freshtrio.dto;
+
+import java.util.List;
+
+/**
+ * One page of delta sync. nextToken is passed back as ?since= on the next sync; while
+ * hasMore is set the client should keep fetching before it considers itself current.
+ */
+public record ProductChanges(List<ProductChange> changes, String nextToken, boolean hasMore) {
+}
@@ -0,0 +1,12 @@
+package com.freshtrio.dto;
+
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Response to an image upload. variants maps variant name (thumb, list, detail, lqip)
+ * to its URL; the files appear once background processing finishes, at which point
+ * the product's imageUrl is switched to the detail variant.
+ */
+public record ProductImageUpload(UUID imageId, Map<String, String> variants) {
+}
@@ -0,0 +1,12 @@
+package com.freshtrio.dto;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+/**
+ * A validated import line. Optional fields left null keep the stored value when the
+ * row updates an existing product, and the id is only used when the row inserts one.
+ */
+public record ProductImportRow(long line, UUID id, String name, String description, String category,
+                               BigDecimal price, String unit, String imageUrl, boolean active) {
+}
@@ -0,0 +1,12 @@
+package com.freshtrio.dto;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+/**
+ * Filters for faceted search; every field is optional. minPrice is inclusive and
+ * maxPrice exclusive, matching the price band facet.
+ */
+public record ProductSearchFilter(String query, String category, BigDecimal minPrice, BigDecimal maxPrice,
+                                  UUID supplierId) {
+}
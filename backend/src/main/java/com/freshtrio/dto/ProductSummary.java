@@ -0,0 +1,22 @@
+package com.freshtrio.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Listing projection of a product. Selected together with the supplier name in a
+ * single query, so serializing a page never touches the lazy Supplier association.
+ * The full Product entity is only returned by GET /api/products/{id}.
+ */
+public interface ProductSummary {
+    UUID getId();
+    String getName();
+    String getDescription();
+    String getCategory();
+    BigDecimal getPrice();
+    String getUnit();
+    String getImageUrl();
+    String getSupplierName();
+    LocalDateTime getCreatedAt();
+}
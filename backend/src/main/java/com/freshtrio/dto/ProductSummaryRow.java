@@ -0,0 +1,49 @@
+package com.freshtrio.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Plain ProductSummary holding its own values, for rows read with JDBC and for copies
+ * that must not keep a JPA or projection proxy alive.
+ */
+public class ProductSummaryRow implements ProductSummary {
+    private final UUID id;
+    private final String name;
+    private final String description;
+    private final String category;
+    private final BigDecimal price;
+    private final String unit;
+    private final String imageUrl;
+    private final String supplierName;
+    private final LocalDateTime createdAt;
+
+    public ProductSummaryRow(UUID id, String name, String description, String category, BigDecimal price,
+                             String unit, String imageUrl, String supplierName, LocalDateTime createdAt) {
+        this.id = id;
+        this.name = name;
+        this.description = description;
+        this.category = category;
+        this.price = price;
+        this.unit = unit;
+        this.imageUrl = imageUrl;
+        this.supplierName = supplierName;
+        this.createdAt = createdAt;
+    }
+
+    public ProductSummaryRow(ProductSummary source) {
+        this(source.getId(), source.getName(), source.getDescription(), source.getCategory(), source.getPrice(),
+                source.getUnit(), source.getImageUrl(), source.getSupplierName(), source.getCreatedAt());
+    }
+
+    @Override public UUID getId() { return id; }
+    @Override public String getName() { return name; }
+    @Override public String getDescription() { return description; }
+    @Override public String getCategory() { return category; }
+    @Override public BigDecimal getPrice() { return price; }
+    @Override public String getUnit() { return unit; }
+    @Override public String getImageUrl() { return imageUrl; }
+    @Override public String getSupplierName() { return supplierName; }
+    @Override public LocalDateTime getCreatedAt() { return createdAt; }
+}
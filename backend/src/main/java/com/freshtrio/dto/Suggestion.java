@@ -0,0 +1,18 @@
+package com.freshtrio.dto;
+
+import java.util.UUID;
+
+/**
+ * One autocomplete entry. type is "category" or "product"; productId is only set
+ * for products.
+ */
+public record Suggestion(String text, String type, String category, UUID productId) {
+
+    public static Suggestion category(String displayName, String category) {
+        return new Suggestion(displayName, "category", category, null);
+    }
+
+    public static Suggestion product(String name, String category, UUID productId) {
+        return new Suggestion(name, "product", category, productId);
+    }
+}
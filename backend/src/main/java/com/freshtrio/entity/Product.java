@@ -43,6 +43,7 @@ public class Product {
     @Builder.Default
     private LocalDateTime createdAt = LocalDateTime.now();
 
+    // Stamped by the V11 trigger on every write; delta sync compares it with the database clock
     @Column(name = "updated_at")
     @Builder.Default
     private LocalDateTime updatedAt = LocalDateTime.now();
@@ -0,0 +1,21 @@
+package com.freshtrio.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.Instant;
+import java.util.UUID;
+
+@Entity
+@Table(name = "revoked_tokens")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RevokedToken {
+
+    @Id
+    private UUID jti;
+
+    @Column(name = "expires_at", nullable = false)
+    private Instant expiresAt;
+}
@@ -0,0 +1,13 @@
+package com.freshtrio.repository;
+
+import com.freshtrio.entity.Category;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface CategoryRepository extends JpaRepository<Category, UUID> {
+    List<Category> findAllByOrderBySortOrderAscNameAsc();
+}
@@ -0,0 +1,83 @@
+package com.freshtrio.repository;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * Forward-only reads of the whole catalog for exports. Rows are fetched from a server-side
+ * cursor app.export.fetch-size at a time and handed to the consumer one by one, so nothing
+ * accumulates in memory. PostgreSQL only uses a cursor inside a transaction, so callers
+ * must run this in one.
+ */
+@Repository
+public class ProductExportRepository {
+
+    private static final String SELECT = "SELECT p.id, p.name, p.description, p.category, p.price, p.unit, " +
+            "p.image_url, p.is_active, p.created_at, p.updated_at, p.supplier_id, s.name AS supplier_name " +
+            "FROM products p JOIN suppliers s ON s.id = p.supplier_id WHERE 1 = 1 ";
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Value("${app.export.fetch-size:500}")
+    private int fetchSize;
+
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    @PostConstruct
+    public void init() {
+        JdbcTemplate template = new JdbcTemplate(dataSource);
+        template.setFetchSize(fetchSize);
+        jdbcTemplate = new NamedParameterJdbcTemplate(template);
+    }
+
+    public void forEach(UUID supplierId, boolean includeInactive, Consumer<ExportedProduct> consumer) {
+        StringBuilder sql = new StringBuilder(SELECT);
+        MapSqlParameterSource params = new MapSqlParameterSource();
+        if (supplierId != null) {
+            sql.append("AND p.supplier_id = :supplierId ");
+            params.addValue("supplierId", supplierId);
+        }
+        if (!includeInactive) {
+            sql.append("AND p.is_active = true ");
+        }
+        // Ordered like the unique (supplier_id, name) index, which the scan can follow
+        sql.append("ORDER BY p.supplier_id, p.name");
+        jdbcTemplate.query(sql.toString(), params, rs -> {
+            consumer.accept(new ExportedProduct(
+                    rs.getObject("id", UUID.class),
+                    rs.getString("name"),
+                    rs.getString("description"),
+                    rs.getString("category"),
+                    rs.getBigDecimal("price"),
+                    rs.getString("unit"),
+                    rs.getString("image_url"),
+                    rs.getBoolean("is_active"),
+                    toLocalDateTime(rs.getTimestamp("created_at")),
+                    toLocalDateTime(rs.getTimestamp("updated_at")),
+                    rs.getObject("supplier_id", UUID.class),
+                    rs.getString("supplier_name")));
+        });
+    }
+
+    private static LocalDateTime toLocalDateTime(Timestamp timestamp) {
+        return timestamp != null ? timestamp.toLocalDateTime() : null;
+    }
+
+    public record ExportedProduct(UUID id, String name, String description, String category, BigDecimal price,
+                                  String unit, String imageUrl, boolean active, LocalDateTime createdAt,
+                                  LocalDateTime updatedAt, UUID supplierId, String supplierName) {
+    }
+}
@@ -0,0 +1,189 @@
+package com.freshtrio.repository;
+
+import com.freshtrio.dto.FacetValue;
+import com.freshtrio.dto.ProductSearchFilter;
+import com.freshtrio.dto.ProductSummary;
+import com.freshtrio.dto.ProductSummaryRow;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Faceted search over active products. The WHERE clause depends on which filters are
+ * set, so the SQL is assembled here rather than declared on ProductRepository.
+ *
+ * All facet counts come from one GROUPING SETS pass over the rows matching the text
+ * query. Each row carries whether it passes the category, price and supplier filters,
+ * and each facet counts with FILTER over the other two, so selecting a category does
+ * not collapse the category facet to that one value.
+ */
+@Repository
+public class ProductFacetRepository {
+
+    private static final String FROM = "FROM products p JOIN suppliers s ON s.id = p.supplier_id " +
+            "WHERE p.is_active = true ";
+
+    @Autowired
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    /**
+     * Returns one page of products matching the text query and all filters, ranked by
+     * relevance for full-text queries and by name otherwise. tsQuery, when not null, is
+     * a to_tsquery expression; otherwise a non-blank filter query is matched with LIKE.
+     */
+    public List<ProductSummary> findPage(ProductSearchFilter filter, String tsQuery, long offset, int limit) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("offset", offset)
+                .addValue("limit", limit);
+        StringBuilder sql = new StringBuilder("SELECT p.id, p.name, p.description, p.category, p.price, p.unit, " +
+                "p.image_url, p.created_at, s.name AS supplier_name ").append(FROM);
+        sql.append(textCondition(filter, tsQuery, params));
+        sql.append(" AND ").append(categoryCondition(filter, params));
+        sql.append(" AND ").append(priceCondition(filter, params));
+        sql.append(" AND ").append(supplierCondition(filter, params));
+        sql.append(" ORDER BY ");
+        if (tsQuery != null) {
+            sql.append("ts_rank(").append(ProductRepository.SEARCH_VECTOR).append(", to_tsquery('english', :tsQuery)) DESC, ");
+        }
+        sql.append("p.name, p.id LIMIT :limit OFFSET :offset");
+
+        return jdbcTemplate.query(sql.toString(), params, (rs, rowNum) -> new ProductSummaryRow(
+                rs.getObject("id", UUID.class),
+                rs.getString("name"),
+                rs.getString("description"),
+                rs.getString("category"),
+                rs.getBigDecimal("price"),
+                rs.getString("unit"),
+                rs.getString("image_url"),
+                rs.getString("supplier_name"),
+                toLocalDateTime(rs.getTimestamp("created_at"))));
+    }
+
+    /**
+     * Counts matches per category, per price band and per supplier, plus the total with
+     * all filters applied, in a single query. priceBands are the ascending band
+     * boundaries; band i covers [priceBands[i-1], priceBands[i]).
+     */
+    public FacetCounts countFacets(ProductSearchFilter filter, String tsQuery, BigDecimal[] priceBands) {
+        MapSqlParameterSource params = new MapSqlParameterSource();
+        StringBuilder band = new StringBuilder("CASE WHEN p.price IS NULL THEN NULL");
+        for (int i = 0; i < priceBands.length; i++) {
+            band.append(" WHEN p.price < :band").append(i).append(" THEN ").append(i);
+            params.addValue("band" + i, priceBands[i]);
+        }
+        band.append(" ELSE ").append(priceBands.length).append(" END");
+
+        String matches = "SELECT p.category, " + band + " AS band, p.supplier_id, s.name AS supplier_name, " +
+                categoryCondition(filter, params) + " AS category_ok, " +
+                priceCondition(filter, params) + " AS price_ok, " +
+                supplierCondition(filter, params) + " AS supplier_ok " +
+                FROM + textCondition(filter, tsQuery, params);
+        String sql = "SELECT category, band, supplier_id, supplier_name, " +
+                "GROUPING(category) AS by_category, GROUPING(band) AS by_band, " +
+                "GROUPING(supplier_id, supplier_name) AS by_supplier, " +
+                "count(*) FILTER (WHERE price_ok AND supplier_ok) AS category_count, " +
+                "count(*) FILTER (WHERE category_ok AND supplier_ok) AS band_count, " +
+                "count(*) FILTER (WHERE category_ok AND price_ok) AS supplier_count, " +
+                "count(*) FILTER (WHERE category_ok AND price_ok AND supplier_ok) AS total " +
+                "FROM (" + matches + ") m " +
+                "GROUP BY GROUPING SETS ((category), (band), (supplier_id, supplier_name), ())";
+
+        List<FacetValue> categories = new ArrayList<>();
+        List<FacetValue> bands = new ArrayList<>();
+        List<FacetValue> suppliers = new ArrayList<>();
+        long[] total = {0};
+        jdbcTemplate.query(sql, params, rs -> {
+            // GROUPING() is 0 for the columns a row is grouped by
+            if (rs.getInt("by_category") == 0) {
+                String category = rs.getString("category");
+                if (category != null) {
+                    categories.add(FacetValue.of(category, rs.getLong("category_count")));
+                }
+            } else if (rs.getInt("by_band") == 0) {
+                int index = rs.getInt("band");
+                if (!rs.wasNull()) {
+                    bands.add(priceBand(priceBands, index, rs.getLong("band_count")));
+                }
+            } else if (rs.getInt("by_supplier") == 0) {
+                suppliers.add(new FacetValue(rs.getObject("supplier_id", UUID.class).toString(),
+                        rs.getString("supplier_name"), null, null, rs.getLong("supplier_count")));
+            } else {
+                total[0] = rs.getLong("total");
+            }
+        });
+
+        Comparator<FacetValue> byCount = Comparator.comparingLong(FacetValue::count).reversed();
+        categories.sort(byCount.thenComparing(FacetValue::value));
+        bands.sort(Comparator.comparing(FacetValue::min, Comparator.nullsFirst(Comparator.naturalOrder())));
+        suppliers.sort(byCount.thenComparing(FacetValue::label));
+        return new FacetCounts(total[0], categories, bands, suppliers);
+    }
+
+    private static FacetValue priceBand(BigDecimal[] bounds, int index, long count) {
+        BigDecimal min = index == 0 ? null : bounds[index - 1];
+        BigDecimal max = index == bounds.length ? null : bounds[index];
+        String label = min == null ? "under " + max.toPlainString()
+                : max == null ? min.toPlainString() + "+"
+                : min.toPlainString() + "-" + max.toPlainString();
+        return new FacetValue(Integer.toString(index), label, min, max, count);
+    }
+
+    private static String textCondition(ProductSearchFilter filter, String tsQuery, MapSqlParameterSource params) {
+        if (tsQuery != null) {
+            params.addValue("tsQuery", tsQuery);
+            // Same expression as idx_products_search (V4), so the GIN index applies
+            return "AND " + ProductRepository.SEARCH_VECTOR + " @@ to_tsquery('english', :tsQuery)";
+        }
+        if (filter.query() != null && !filter.query().isBlank()) {
+            params.addValue("likeQuery", "%" + filter.query().trim().toLowerCase() + "%");
+            return "AND (LOWER(p.name) LIKE :likeQuery OR LOWER(p.description) LIKE :likeQuery)";
+        }
+        return "";
+    }
+
+    private static String categoryCondition(ProductSearchFilter filter, MapSqlParameterSource params) {
+        if (filter.category() == null) {
+            return "true";
+        }
+        params.addValue("category", filter.category());
+        return "COALESCE(p.category = :category, false)";
+    }
+
+    private static String priceCondition(ProductSearchFilter filter, MapSqlParameterSource params) {
+        StringBuilder condition = new StringBuilder("true");
+        if (filter.minPrice() != null) {
+            params.addValue("minPrice", filter.minPrice());
+            condition.append(" AND COALESCE(p.price >= :minPrice, false)");
+        }
+        if (filter.maxPrice() != null) {
+            params.addValue("maxPrice", filter.maxPrice());
+            condition.append(" AND COALESCE(p.price < :maxPrice, false)");
+        }
+        return "(" + condition + ")";
+    }
+
+    private static String supplierCondition(ProductSearchFilter filter, MapSqlParameterSource params) {
+        if (filter.supplierId() == null) {
+            return "true";
+        }
+        params.addValue("supplierId", filter.supplierId());
+        return "p.supplier_id = :supplierId";
+    }
+
+    private static LocalDateTime toLocalDateTime(Timestamp timestamp) {
+        return timestamp != null ? timestamp.toLocalDateTime() : null;
+    }
+
+    public record FacetCounts(long total, List<FacetValue> categories, List<FacetValue> priceBands,
+                              List<FacetValue> suppliers) {
+    }
+}
@@ -0,0 +1,107 @@
+package com.freshtrio.repository;
+
+import com.freshtrio.dto.ProductImportRow;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Plain JDBC access for bulk imports. Each chunk is written as one statement, which JPA
+ * cannot do for upserts and which skips loading entities into the persistence context.
+ */
+@Repository
+public class ProductImportRepository {
+
+    private static final String INSERT = "INSERT INTO products " +
+            "(id, name, description, category, price, unit, image_url, supplier_id, is_active, created_at, updated_at) " +
+            "VALUES ";
+
+    // Relies on idx_products_supplier_name (V10); optional columns keep their value when omitted.
+    // xmax is 0 only on a freshly inserted row version, so the database says which rows were new
+    private static final String ON_CONFLICT = " ON CONFLICT (supplier_id, name) DO UPDATE SET " +
+            "description = COALESCE(EXCLUDED.description, products.description), " +
+            "category = COALESCE(EXCLUDED.category, products.category), " +
+            "price = EXCLUDED.price, " +
+            "unit = COALESCE(EXCLUDED.unit, products.unit), " +
+            "image_url = COALESCE(EXCLUDED.image_url, products.image_url), " +
+            "is_active = EXCLUDED.is_active, " +
+            "updated_at = CURRENT_TIMESTAMP " +
+            "RETURNING id, name, category, is_active, (xmax = 0) AS inserted";
+
+    @Autowired
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    public boolean supplierExists(UUID supplierId) {
+        Boolean exists = jdbcTemplate.queryForObject("SELECT EXISTS (SELECT 1 FROM suppliers WHERE id = :id)",
+                new MapSqlParameterSource("id", supplierId), Boolean.class);
+        return Boolean.TRUE.equals(exists);
+    }
+
+    /**
+     * Returns the supplier's current products with the given names, keyed by name.
+     */
+    public Map<String, ExistingProduct> findExisting(UUID supplierId, Collection<String> names) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("supplierId", supplierId)
+                .addValue("names", names);
+        Map<String, ExistingProduct> existing = new HashMap<>();
+        jdbcTemplate.query("SELECT id, name, category, is_active FROM products " +
+                        "WHERE supplier_id = :supplierId AND name IN (:names)", params,
+                rs -> {
+                    existing.put(rs.getString("name"), new ExistingProduct(
+                            rs.getObject("id", UUID.class),
+                            rs.getString("category"),
+                            rs.getBoolean("is_active")));
+                });
+        return existing;
+    }
+
+    /**
+     * Writes the rows as one multi-row statement and returns what the database stored for
+     * each, so ids and inserted/updated counts hold even when another writer got there first.
+     * Names must be unique within the call, as ON CONFLICT cannot touch a row twice, and each
+     * row takes eight of PostgreSQL's 65535 bind parameters.
+     */
+    public List<UpsertedProduct> upsert(UUID supplierId, List<ProductImportRow> rows) {
+        StringBuilder sql = new StringBuilder(INSERT);
+        MapSqlParameterSource params = new MapSqlParameterSource("supplierId", supplierId);
+        for (int i = 0; i < rows.size(); i++) {
+            ProductImportRow row = rows.get(i);
+            if (i > 0) {
+                sql.append(", ");
+            }
+            sql.append("(:id").append(i).append(", :name").append(i).append(", :description").append(i)
+                    .append(", :category").append(i).append(", :price").append(i).append(", :unit").append(i)
+                    .append(", :imageUrl").append(i).append(", :supplierId, :active").append(i)
+                    .append(", CURRENT_TIMESTAMP, CURRENT_TIMESTAMP)");
+            params.addValue("id" + i, row.id())
+                    .addValue("name" + i, row.name())
+                    .addValue("description" + i, row.description())
+                    .addValue("category" + i, row.category())
+                    .addValue("price" + i, row.price())
+                    .addValue("unit" + i, row.unit())
+                    .addValue("imageUrl" + i, row.imageUrl())
+                    .addValue("active" + i, row.active());
+        }
+        sql.append(ON_CONFLICT);
+        return jdbcTemplate.query(sql.toString(), params, (rs, rowNum) -> new UpsertedProduct(
+                rs.getObject("id", UUID.class),
+                rs.getString("name"),
+                rs.getString("category"),
+                rs.getBoolean("is_active"),
+                rs.getBoolean("inserted")));
+    }
+
+    public record ExistingProduct(UUID id, String category, boolean active) {
+    }
+
+    public record UpsertedProduct(UUID id, String name, String category, boolean active, boolean inserted) {
+    }
+}
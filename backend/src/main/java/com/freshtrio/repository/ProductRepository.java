@@ -1,19 +1,46 @@
 // src/main/java/com/freshtrio/repository/ProductRepository.java
 package com.freshtrio.repository;
 
+import com.freshtrio.dto.ProductChange;
+import com.freshtrio.dto.ProductSummary;
 import com.freshtrio.entity.Product;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 @Repository
 public interface ProductRepository extends JpaRepository<Product, UUID> {
+
+    // Listing queries select a ProductSummary joined to its supplier in one statement
+    String SUMMARY_SELECT = "SELECT p.id AS id, p.name AS name, p.description AS description, p.category AS category, " +
+            "p.price AS price, p.unit AS unit, p.imageUrl AS imageUrl, p.createdAt AS createdAt, " +
+            "s.name AS supplierName FROM Product p JOIN p.supplier s ";
+    
+    String NATIVE_SUMMARY_SELECT = "SELECT p.id AS \"id\", p.name AS \"name\", p.description AS \"description\", " +
+            "p.category AS \"category\", p.price AS \"price\", p.unit AS \"unit\", p.image_url AS \"imageUrl\", " +
+            "p.created_at AS \"createdAt\", s.name AS \"supplierName\" " +
+            "FROM products p JOIN suppliers s ON s.id = p.supplier_id ";
+    
+    // Delta sync rows also carry the active flag and change time
+    String CHANGE_SELECT = "SELECT p.id AS id, p.name AS name, p.description AS description, p.category AS category, " +
+            "p.price AS price, p.unit AS unit, p.imageUrl AS imageUrl, p.createdAt AS createdAt, " +
+            "s.name AS supplierName, p.isActive AS active, p.updatedAt AS updatedAt FROM Product p JOIN p.supplier s ";
+
+    String CHANGE_HORIZON = "cast(function('clock_timestamp') as LocalDateTime) - :settleSeconds second";
+    
+    // The tsvector expression must match idx_products_search (V4) for the GIN index to be used
+    String SEARCH_VECTOR = "to_tsvector('english', coalesce(p.name, '') || ' ' || coalesce(p.description, ''))";
     
     Page<Product> findByIsActiveTrue(Pageable pageable);
     
@@ -21,16 +48,143 @@ public interface ProductRepository extends JpaRepository<Product, UUID> {
     
     List<Product> findByCategoryAndIsActiveTrue(String category);
     
-    @Query("SELECT DISTINCT p.category FROM Product p WHERE p.isActive = true AND p.category IS NOT NULL ORDER BY p.category")
-    List<String> findDistinctCategories();
+    @Query(value = SUMMARY_SELECT + "WHERE p.isActive = true AND (:category IS NULL OR p.category = :category)",
+           countQuery = "SELECT count(p) FROM Product p WHERE p.isActive = true AND (:category IS NULL OR p.category = :category)")
+    Page<ProductSummary> findSummaries(@Param("category") String category, Pageable pageable);
+    
+    @Query(SUMMARY_SELECT + "WHERE p.isActive = true")
+    List<ProductSummary> findActiveSummaries();
+    
+    // The product detail with its supplier and address loaded in one statement, so the
+    // entity holds no lazy proxies once detached and can be cached and serialized anywhere
+    @Query("SELECT p FROM Product p JOIN FETCH p.supplier s JOIN FETCH s.address WHERE p.id = :id")
+    Optional<Product> findDetailById(@Param("id") UUID id);
+    
+    @Query(SUMMARY_SELECT + "WHERE p.id = :id AND p.isActive = true")
+    Optional<ProductSummary> findActiveSummaryById(@Param("id") UUID id);
     
-    @Query("SELECT p FROM Product p WHERE p.isActive = true AND " +
+    @Query(SUMMARY_SELECT + "WHERE p.id IN :ids AND p.isActive = true")
+    List<ProductSummary> findActiveSummariesByIds(@Param("ids") Collection<UUID> ids);
+    
+    @Query("SELECT p.id FROM Product p WHERE p.id IN :ids AND p.isActive = false")
+    List<UUID> findInactiveIds(@Param("ids") Collection<UUID> ids);
+    
+    @Query("SELECT p.category AS category, count(p) AS productCount FROM Product p " +
+           "WHERE p.isActive = true AND p.category IS NOT NULL GROUP BY p.category")
+    List<CategoryCount> countActiveProductsByCategory();
+    
+    @Query(value = SUMMARY_SELECT + "WHERE p.isActive = true AND " +
+           "(LOWER(p.name) LIKE LOWER(CONCAT('%', :query, '%')) OR " +
+           "LOWER(p.description) LIKE LOWER(CONCAT('%', :query, '%')))",
+           countQuery = "SELECT count(p) FROM Product p WHERE p.isActive = true AND " +
            "(LOWER(p.name) LIKE LOWER(CONCAT('%', :query, '%')) OR " +
            "LOWER(p.description) LIKE LOWER(CONCAT('%', :query, '%')))")
-    Page<Product> searchProducts(@Param("query") String query, Pageable pageable);
+    Page<ProductSummary> searchProducts(@Param("query") String query, Pageable pageable);
     
-    @Query("SELECT p FROM Product p WHERE p.isActive = true AND p.category = :category AND " +
+    @Query(value = SUMMARY_SELECT + "WHERE p.isActive = true AND p.category = :category AND " +
+           "(LOWER(p.name) LIKE LOWER(CONCAT('%', :query, '%')) OR " +
+           "LOWER(p.description) LIKE LOWER(CONCAT('%', :query, '%')))",
+           countQuery = "SELECT count(p) FROM Product p WHERE p.isActive = true AND p.category = :category AND " +
            "(LOWER(p.name) LIKE LOWER(CONCAT('%', :query, '%')) OR " +
            "LOWER(p.description) LIKE LOWER(CONCAT('%', :query, '%')))")
-    Page<Product> searchProductsByCategory(@Param("query") String query, @Param("category") String category, Pageable pageable);
-}
\ No newline at end of file
+    Page<ProductSummary> searchProductsByCategory(@Param("query") String query, @Param("category") String category, Pageable pageable);
+    
+    // Full-text search ranked by ts_rank
+    @Query(value = NATIVE_SUMMARY_SELECT + "WHERE p.is_active = true AND " +
+           SEARCH_VECTOR + " @@ to_tsquery('english', :tsQuery) " +
+           "ORDER BY ts_rank(" + SEARCH_VECTOR + ", to_tsquery('english', :tsQuery)) DESC, p.name, p.id",
+           countQuery = "SELECT count(*) FROM products p WHERE p.is_active = true AND " +
+           SEARCH_VECTOR + " @@ to_tsquery('english', :tsQuery)",
+           nativeQuery = true)
+    Page<ProductSummary> fullTextSearch(@Param("tsQuery") String tsQuery, Pageable pageable);
+    
+    @Query(value = NATIVE_SUMMARY_SELECT + "WHERE p.is_active = true AND p.category = :category AND " +
+           SEARCH_VECTOR + " @@ to_tsquery('english', :tsQuery) " +
+           "ORDER BY ts_rank(" + SEARCH_VECTOR + ", to_tsquery('english', :tsQuery)) DESC, p.name, p.id",
+           countQuery = "SELECT count(*) FROM products p WHERE p.is_active = true AND p.category = :category AND " +
+           SEARCH_VECTOR + " @@ to_tsquery('english', :tsQuery)",
+           nativeQuery = true)
+    Page<ProductSummary> fullTextSearchByCategory(@Param("tsQuery") String tsQuery, @Param("category") String category, Pageable pageable);
+    
+    // Keyset (cursor) pagination: List results skip the count query. The seek is a row comparison so
+    // it becomes one range scan on idx_products_created_at_id / idx_products_name_id (V14); HQL only
+    // accepts a row of parameters once each is cast to its type
+    @Query(SUMMARY_SELECT + "WHERE p.isActive = true AND (:category IS NULL OR p.category = :category) " +
+           "ORDER BY p.createdAt DESC, p.id DESC")
+    List<ProductSummary> findNewestFirst(@Param("category") String category, Pageable limit);
+    
+    @Query(SUMMARY_SELECT + "WHERE p.isActive = true AND (:category IS NULL OR p.category = :category) AND " +
+           "(p.createdAt, p.id) < (cast(:createdAt as LocalDateTime), cast(:id as java.util.UUID)) " +
+           "ORDER BY p.createdAt DESC, p.id DESC")
+    List<ProductSummary> findNewestFirstAfter(@Param("category") String category, @Param("createdAt") LocalDateTime createdAt,
+                                              @Param("id") UUID id, Pageable limit);
+    
+    @Query(SUMMARY_SELECT + "WHERE p.isActive = true AND (:category IS NULL OR p.category = :category) " +
+           "ORDER BY p.name, p.id")
+    List<ProductSummary> findOrderedByName(@Param("category") String category, Pageable limit);
+    
+    @Query(SUMMARY_SELECT + "WHERE p.isActive = true AND (:category IS NULL OR p.category = :category) AND " +
+           "(p.name, p.id) > (cast(:name as String), cast(:id as java.util.UUID)) " +
+           "ORDER BY p.name, p.id")
+    List<ProductSummary> findOrderedByNameAfter(@Param("category") String category, @Param("name") String name,
+                                                @Param("id") UUID id, Pageable limit);
+    
+    @Query(value = NATIVE_SUMMARY_SELECT + "WHERE p.is_active = true AND " +
+           SEARCH_VECTOR + " @@ to_tsquery('english', :tsQuery) " +
+           "ORDER BY p.name, p.id",
+           nativeQuery = true)
+    List<ProductSummary> fullTextSearchByName(@Param("tsQuery") String tsQuery, Pageable limit);
+    
+    @Query(value = NATIVE_SUMMARY_SELECT + "WHERE p.is_active = true AND " +
+           SEARCH_VECTOR + " @@ to_tsquery('english', :tsQuery) " +
+           "AND (p.name, p.id) > (:name, :id) " +
+           "ORDER BY p.name, p.id",
+           nativeQuery = true)
+    List<ProductSummary> fullTextSearchByNameAfter(@Param("tsQuery") String tsQuery, @Param("name") String name,
+                                                   @Param("id") UUID id, Pageable limit);
+    
+    @Query(SUMMARY_SELECT + "WHERE p.isActive = true AND " +
+           "(LOWER(p.name) LIKE LOWER(CONCAT('%', :query, '%')) OR " +
+           "LOWER(p.description) LIKE LOWER(CONCAT('%', :query, '%'))) " +
+           "ORDER BY p.name, p.id")
+    List<ProductSummary> searchProductsByName(@Param("query") String query, Pageable limit);
+    
+    @Query(SUMMARY_SELECT + "WHERE p.isActive = true AND " +
+           "(LOWER(p.name) LIKE LOWER(CONCAT('%', :query, '%')) OR " +
+           "LOWER(p.description) LIKE LOWER(CONCAT('%', :query, '%'))) AND " +
+           "(p.name, p.id) > (cast(:name as String), cast(:id as java.util.UUID)) " +
+           "ORDER BY p.name, p.id")
+    List<ProductSummary> searchProductsByNameAfter(@Param("query") String query, @Param("name") String name,
+                                                   @Param("id") UUID id, Pageable limit);
+    
+    // Delta sync, ordered by (updated_at, id) to use idx_products_updated_at (V11). The horizon is taken
+    // from the database clock the V11 trigger stamps with, so app server clock skew cannot skip rows
+    @Query(CHANGE_SELECT + "WHERE p.isActive = true AND p.updatedAt <= " + CHANGE_HORIZON +
+           " ORDER BY p.updatedAt, p.id")
+    List<ProductChange> findChanges(@Param("settleSeconds") long settleSeconds, Pageable limit);
+    
+    @Query(CHANGE_SELECT + "WHERE (p.updatedAt > :updatedAt OR (p.updatedAt = :updatedAt AND p.id > :id)) " +
+           "AND p.updatedAt <= " + CHANGE_HORIZON + " ORDER BY p.updatedAt, p.id")
+    List<ProductChange> findChangesAfter(@Param("updatedAt") LocalDateTime updatedAt, @Param("id") UUID id,
+                                         @Param("settleSeconds") long settleSeconds, Pageable limit);
+    
+    @Query("SELECT p.imageUrl AS imageUrl, p.category AS category FROM Product p WHERE p.id = :id")
+    Optional<ImageSlot> findImageSlot(@Param("id") UUID id);
+    
+    // Compare-and-set, so concurrent uploads for one product cannot overwrite each other
+    // unseen; previous is "" for a product without an image. updated_at is stamped by the V11 trigger
+    @Modifying
+    @Transactional
+    @Query("UPDATE Product p SET p.imageUrl = :imageUrl WHERE p.id = :id AND COALESCE(p.imageUrl, '') = :previous")
+    int replaceImageUrl(@Param("id") UUID id, @Param("previous") String previous, @Param("imageUrl") String imageUrl);
+    
+    interface ImageSlot {
+        String getImageUrl();
+        String getCategory();
+    }
+    
+    interface CategoryCount {
+        String getCategory();
+        long getProductCount();
+    }
+}
@@ -0,0 +1,24 @@
+package com.freshtrio.repository;
+
+import com.freshtrio.entity.RevokedToken;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface RevokedTokenRepository extends JpaRepository<RevokedToken, UUID> {
+
+    List<RevokedToken> findByExpiresAtAfter(Instant now);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM RevokedToken r WHERE r.expiresAt <= :now")
+    int deleteExpired(@Param("now") Instant now);
+}
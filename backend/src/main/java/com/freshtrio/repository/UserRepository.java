@@ -2,11 +2,43 @@ package com.freshtrio.repository;
 
 import com.freshtrio.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Optional;
+import java.util.UUID;
 
 @Repository
-public interface UserRepository extends JpaRepository<User, Long> {
+public interface UserRepository extends JpaRepository<User, UUID> {
     Optional<User> findByEmail(String email);
+
+    /**
+     * Creates a user signing in through an external provider, or links the provider to
+     * the existing account with that email, and returns the resulting row; one statement,
+     * so simultaneous first logins for the same email all end up with the same user.
+     * An existing account keeps its first google_id; its auth_provider is replaced only
+     * when it is being linked for the first time and relinkProvider is true.
+     * PostgreSQL only.
+     */
+    @Transactional
+    @Query(nativeQuery = true, value = "INSERT INTO users " +
+            "(email, phone, google_id, auth_provider, role, first_name, last_name, " +
+            "is_verified, gdpr_consent, gdpr_consent_date, created_at, updated_at) " +
+            "VALUES (:email, :phone, :googleId, :authProvider, 'CUSTOMER', :firstName, :lastName, " +
+            "true, true, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP) " +
+            "ON CONFLICT (email) DO UPDATE SET " +
+            "auth_provider = CASE WHEN users.google_id IS NULL AND :relinkProvider " +
+            "THEN EXCLUDED.auth_provider ELSE users.auth_provider END, " +
+            "google_id = COALESCE(users.google_id, EXCLUDED.google_id), " +
+            "updated_at = CASE WHEN users.google_id IS NULL THEN CURRENT_TIMESTAMP ELSE users.updated_at END " +
+            "RETURNING *")
+    User provisionExternalUser(@Param("email") String email,
+                               @Param("firstName") String firstName,
+                               @Param("lastName") String lastName,
+                               @Param("phone") String phone,
+                               @Param("googleId") String googleId,
+                               @Param("authProvider") String authProvider,
+                               @Param("relinkProvider") boolean relinkProvider);
 }
@@ -0,0 +1,66 @@
+package com.freshtrio.security;
+
+import com.freshtrio.service.JwtService;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtException;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Authenticates requests that carry "Authorization: Bearer <token>".
+ *
+ * The token goes through JwtService.parse, so a token seen before costs one digest and
+ * one cache lookup, and a revoked one is refused. The principal is built from the
+ * token's claims alone. A missing or invalid token leaves the request anonymous; open
+ * endpoints still work, and protected ones are refused by the authorization rules.
+ */
+public class JwtAuthenticationFilter extends OncePerRequestFilter {
+
+    private static final String BEARER_PREFIX = "Bearer ";
+
+    private final JwtService jwtService;
+
+    public JwtAuthenticationFilter(JwtService jwtService) {
+        this.jwtService = jwtService;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String header = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (header != null && header.startsWith(BEARER_PREFIX)) {
+            authenticate(header.substring(BEARER_PREFIX.length()));
+        }
+        chain.doFilter(request, response);
+    }
+
+    private void authenticate(String token) {
+        Jwt jwt;
+        try {
+            jwt = jwtService.parse(token);
+        } catch (JwtException e) {
+            return;
+        }
+        String role = jwt.getClaimAsString("role");
+        if (jwt.getSubject() == null || role == null) {
+            return;
+        }
+        JwtPrincipal principal = new JwtPrincipal(jwt.getSubject(), role, jwt.getClaimAsString("googleid"));
+        UsernamePasswordAuthenticationToken authentication = UsernamePasswordAuthenticationToken.authenticated(
+                principal, null, List.of(new SimpleGrantedAuthority("ROLE_" + role)));
+        SecurityContext context = SecurityContextHolder.createEmptyContext();
+        context.setAuthentication(authentication);
+        SecurityContextHolder.setContext(context);
+    }
+}
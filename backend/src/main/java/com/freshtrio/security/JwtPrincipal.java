@@ -0,0 +1,16 @@
+package com.freshtrio.security;
+
+import java.security.Principal;
+
+/**
+ * The caller of an authenticated request, read from the claims JwtService.generateToken
+ * embeds. Nothing is loaded from the database; controllers that need the full User can
+ * look it up by email.
+ */
+public record JwtPrincipal(String email, String role, String googleId) implements Principal {
+
+    @Override
+    public String getName() {
+        return email;
+    }
+}
@@ -8,13 +8,13 @@ import com.freshtrio.dto.GoogleAuthRequest;
 import com.freshtrio.dto.RegisterRequest;
 import com.freshtrio.dto.UserDto;
 import com.freshtrio.entity.User;
-import com.freshtrio.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.oauth2.jwt.JwtException;
 import org.springframework.stereotype.Service;
 import com.google.firebase.auth.FirebaseAuthException;
 
@@ -28,7 +28,7 @@ public class AuthService {
     private AuthenticationManager authenticationManager;
     
     @Autowired
-    private UserRepository userRepository;
+    private UserCache userCache;
     
 //    @Autowired
 //    private PasswordEncoder passwordEncoder;
@@ -41,7 +41,7 @@ public class AuthService {
     
     public AuthResponse register(RegisterRequest request) {
         // Check if user already exists
-        if (userRepository.findByEmail(request.getEmail()).isPresent()) {
+        if (userCache.findByEmail(request.getEmail()).isPresent()) {
             throw new RuntimeException("User already exists with email: " + request.getEmail());
         }
         
@@ -57,7 +57,7 @@ public class AuthService {
         user.setGdprConsent(request.getGdprConsent());
         user.setGdprConsentDate(LocalDateTime.now());
         
-        User savedUser = userRepository.save(user);
+        User savedUser = userCache.save(user);
         
         // Generate JWT token
         String token = jwtService.generateToken(savedUser);
@@ -81,7 +81,7 @@ public class AuthService {
     
     public AuthResponse refreshToken(String token) {
         String email = jwtService.extractUsername(token);
-        User user = userRepository.findByEmail(email)
+        User user = userCache.findByEmail(email)
             .orElseThrow(() -> new RuntimeException("User not found"));
         
         String newToken = jwtService.generateToken(user);
@@ -90,38 +90,26 @@ public class AuthService {
     }
     
     public void logout(String token) {
-        // In a production app, you might want to blacklist the token
-        // For now, we'll just let it expire naturally
+        if (token == null || token.isBlank()) {
+            return;
+        }
+        try {
+            // Rejected by every later request until it would have expired anyway
+            jwtService.revoke(token);
+        } catch (JwtException e) {
+            // Already invalid, so there is nothing to revoke
+        }
     }
     
     public AuthResponse googleAuth(GoogleAuthRequest request) {
         // In a real implementation, you would verify the Google ID token here
         // For now, we'll trust the client-side verification
 
-        // Check if user already exists
-        User user = userRepository.findByEmail(request.getEmail()).orElse(null);
-        
-        if (user == null) {
-            // Create new user from Google auth
-            user = new User();
-            user.setEmail(request.getEmail());
-            user.setFirstName(request.getFirstName());
-            user.setLastName(request.getLastName());
-            user.setGoogleId(request.getIdToken()); // Store the Google ID
-            user.setAuthProvider(User.AuthProvider.GOOGLE);
-            user.setRole(User.Role.CUSTOMER);
-            user.setIsVerified(true); // Google users are pre-verified
-            user.setGdprConsent(true);
-            user.setGdprConsentDate(LocalDateTime.now());
-            
-            user = userRepository.save(user);
-        } else {
-            // Update existing user with Google info if not already set
-            if (user.getGoogleId() == null) {
-                user.setGoogleId(request.getIdToken());
-                user.setAuthProvider(User.AuthProvider.GOOGLE);
-                user = userRepository.save(user);
-            }
+        // Known and already linked: nothing to write. Otherwise create or link in one statement.
+        User user = userCache.peek(request.getEmail()).orElse(null);
+        if (user == null || user.getGoogleId() == null) {
+            user = userCache.provision(request.getEmail(), request.getFirstName(), request.getLastName(),
+                null, request.getIdToken(), User.AuthProvider.GOOGLE, true);
         }
         
         // Generate JWT token
@@ -132,12 +120,13 @@ public class AuthService {
     
     public AuthResponse firebaseAuth(FirebaseAuthRequest request) {
         try {
-            // Verify Firebase ID token
-            String firebaseUid = firebaseService.getUidFromToken(request.getIdToken());
-            String email = firebaseService.getEmailFromToken(request.getIdToken());
-            String name = firebaseService.getNameFromToken(request.getIdToken());
-            String phone = firebaseService.getPhoneFromToken(request.getIdToken());
-            String provider = firebaseService.getProviderFromToken(request.getIdToken());
+            // Verify Firebase ID token once and read every field from the result
+            FirebaseIdentity identity = firebaseService.verify(request.getIdToken());
+            String firebaseUid = identity.uid();
+            String email = identity.email();
+            String name = identity.name();
+            String phone = identity.phone();
+            String provider = identity.provider();
             
             // Split name into first and last name
             String firstName = "";
@@ -150,46 +139,28 @@ public class AuthService {
                 }
             }
             
-            // Check if user exists by email
-            User user = userRepository.findByEmail(email).orElse(null);
+            // Map provider to AuthProvider enum
+            User.AuthProvider authProvider;
+            switch (provider.toLowerCase()) {
+                case "google.com":
+                    authProvider = User.AuthProvider.GOOGLE;
+                    break;
+                case "facebook.com":
+                    authProvider = User.AuthProvider.FACEBOOK;
+                    break;
+                case "apple.com":
+                    authProvider = User.AuthProvider.APPLE;
+                    break;
+                default:
+                    authProvider = User.AuthProvider.EMAIL;
+                    break;
+            }
             
-            if (user == null) {
-                // Create new user from Firebase auth
-                user = new User();
-                user.setEmail(email);
-                user.setFirstName(firstName);
-                user.setLastName(lastName);
-                user.setPhone(phone);
-                user.setGoogleId(firebaseUid); // Store Firebase UID
-                
-                // Map provider to AuthProvider enum
-                switch (provider.toLowerCase()) {
-                    case "google.com":
-                        user.setAuthProvider(User.AuthProvider.GOOGLE);
-                        break;
-                    case "facebook.com":
-                        user.setAuthProvider(User.AuthProvider.FACEBOOK);
-                        break;
-                    case "apple.com":
-                        user.setAuthProvider(User.AuthProvider.APPLE);
-                        break;
-                    default:
-                        user.setAuthProvider(User.AuthProvider.EMAIL);
-                        break;
-                }
-                
-                user.setRole(User.Role.CUSTOMER);
-                user.setIsVerified(true); // Firebase users are pre-verified
-                user.setGdprConsent(true);
-                user.setGdprConsentDate(LocalDateTime.now());
-                
-                user = userRepository.save(user);
-            } else {
-                // Update existing user with Firebase info if not already set
-                if (user.getGoogleId() == null) {
-                    user.setGoogleId(firebaseUid);
-                    user = userRepository.save(user);
-                }
+            // Known and already linked: nothing to write. Otherwise create the user, or store
+            // the Firebase UID on the existing account, in one statement.
+            User user = userCache.peek(email).orElse(null);
+            if (user == null || user.getGoogleId() == null) {
+                user = userCache.provision(email, firstName, lastName, phone, firebaseUid, authProvider, false);
             }
             
             // Generate JWT token for our backend
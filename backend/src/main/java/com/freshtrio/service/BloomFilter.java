@@ -0,0 +1,65 @@
+package com.freshtrio.service;
+
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A fixed-size Bloom filter over UUIDs. mightContain never returns false for a UUID
+ * that was added, and returns true for one that was not with roughly the configured
+ * false-positive rate while no more than the expected number of UUIDs have been added.
+ *
+ * Bits live in an AtomicLongArray so a lookup on any thread sees every completed add.
+ * Entries cannot be removed; TokenDenylist builds a fresh filter instead.
+ */
+final class BloomFilter {
+
+    private final AtomicLongArray words;
+    private final long bits;
+    private final int hashes;
+
+    BloomFilter(int expectedInsertions, double falsePositiveRate) {
+        int n = Math.max(1, expectedInsertions);
+        // Optimal sizing: m = -n ln p / (ln 2)^2 bits and k = (m / n) ln 2 hash functions
+        long optimalBits = (long) Math.ceil(-n * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        int wordCount = (int) Math.max(1, (optimalBits + 63) / 64);
+        words = new AtomicLongArray(wordCount);
+        bits = (long) wordCount * 64;
+        hashes = Math.max(1, (int) Math.round((double) bits / n * Math.log(2)));
+    }
+
+    void add(UUID value) {
+        long h1 = mix(value.getLeastSignificantBits());
+        long h2 = mix(value.getMostSignificantBits()) | 1;
+        for (int i = 0; i < hashes; i++) {
+            long bit = Math.floorMod(h1 + i * h2, bits);
+            long mask = 1L << bit;
+            words.accumulateAndGet((int) (bit >>> 6), mask, (word, m) -> word | m);
+        }
+    }
+
+    boolean mightContain(UUID value) {
+        long h1 = mix(value.getLeastSignificantBits());
+        long h2 = mix(value.getMostSignificantBits()) | 1;
+        for (int i = 0; i < hashes; i++) {
+            long bit = Math.floorMod(h1 + i * h2, bits);
+            if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    long sizeInBytes() {
+        return (long) words.length() * Long.BYTES;
+    }
+
+    // MurmurHash3's 64-bit finalizer; spreads UUIDs that are not random in every bit
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
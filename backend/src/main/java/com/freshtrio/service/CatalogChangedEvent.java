@@ -0,0 +1,8 @@
+package com.freshtrio.service;
+
+/**
+ * Published after a product or category write has been persisted, for derived
+ * read models that are rebuilt in the background rather than updated inline.
+ */
+public record CatalogChangedEvent(Object source) {
+}
@@ -0,0 +1,153 @@
+package com.freshtrio.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.freshtrio.dto.CategorySummary;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * The home screen's responses, rendered ahead of time: the category list and the first
+ * page of every category, as JSON bytes and gzipped JSON bytes.
+ *
+ * Rebuilt on a single background thread after catalog writes, like the suggestion trie.
+ * Each snapshot records the catalog version read before its data was loaded, and is only
+ * handed out while that is still the current version, so a request never gets a body
+ * older than the ETag the catalog interceptor gave it.
+ */
+@Service
+public class CatalogSnapshotService {
+
+    // Spring Data's default page size, which is what a request without paging parameters gets
+    public static final int PAGE_SIZE = 20;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private CategoryService categoryService;
+
+    @Autowired
+    private CatalogVersion catalogVersion;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${app.http.catalog.snapshot:true}")
+    private boolean enabled;
+
+    private final ExecutorService rebuildExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "catalog-snapshot");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicBoolean rebuildPending = new AtomicBoolean();
+    private volatile Snapshot snapshot;
+
+    /**
+     * The rendered category list, or null when the snapshot is missing or behind the catalog.
+     */
+    public Rendered categories() {
+        Snapshot current = currentSnapshot();
+        return current != null ? current.categories() : null;
+    }
+
+    /**
+     * The rendered first page (PAGE_SIZE products, default order) of a category, "all" or
+     * null for every category. Null when not in a current snapshot.
+     */
+    public Rendered firstPage(String category) {
+        Snapshot current = currentSnapshot();
+        return current != null ? current.firstPages().get(category == null ? CategoryService.ALL : category) : null;
+    }
+
+    private Snapshot currentSnapshot() {
+        Snapshot current = snapshot;
+        return current != null && current.version() == catalogVersion.current() ? current : null;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        requestRebuild();
+    }
+
+    @EventListener
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        requestRebuild();
+    }
+
+    /**
+     * Schedules a rebuild unless one is already queued; the queued rebuild will read
+     * the catalog after this write, so it covers it.
+     */
+    public void requestRebuild() {
+        if (enabled && rebuildPending.compareAndSet(false, true)) {
+            rebuildExecutor.execute(() -> {
+                rebuildPending.set(false);
+                try {
+                    rebuild();
+                } catch (Exception e) {
+                    System.err.println("Failed to rebuild catalog snapshot: " + e.getMessage());
+                }
+            });
+        }
+    }
+
+    void rebuild() throws IOException {
+        // Read first: a write during the rebuild moves the version on and retires this snapshot
+        long version = catalogVersion.current();
+        List<CategorySummary> categories = categoryService.getCategories();
+        Map<String, Rendered> firstPages = new HashMap<>();
+        for (CategorySummary category : categories) {
+            firstPages.put(category.name(),
+                    render(productService.getAllProducts(category.name(), PageRequest.of(0, PAGE_SIZE))));
+        }
+        snapshot = new Snapshot(version, render(categories), Map.copyOf(firstPages));
+    }
+
+    private Rendered render(Object body) throws IOException {
+        // The application's mapper, so the bytes match what the controllers would write
+        byte[] json = objectMapper.writeValueAsBytes(body);
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(json.length / 4 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(buffer) {
+            {
+                // Compressed once per catalog change, so the slowest level costs nothing per request
+                def.setLevel(Deflater.BEST_COMPRESSION);
+            }
+        }) {
+            gzip.write(json);
+        }
+        byte[] gzipped = buffer.toByteArray();
+        return new Rendered(json, gzipped.length < json.length ? gzipped : null);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        rebuildExecutor.shutdownNow();
+    }
+
+    /**
+     * A response body in identity and gzip encodings; gzip is null when it would not be
+     * smaller. The arrays are shared between requests and must not be modified.
+     */
+    public record Rendered(byte[] identity, byte[] gzip) {
+    }
+
+    private record Snapshot(long version, Rendered categories, Map<String, Rendered> firstPages) {
+    }
+}
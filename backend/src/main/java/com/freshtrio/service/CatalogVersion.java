@@ -0,0 +1,47 @@
+package com.freshtrio.service;
+
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Monotonic version of the product catalog, bumped on every write through ProductService.
+ *
+ * Used as the ETag of the catalog endpoints, so a conditional GET can be answered
+ * with 304 without touching the repository. The counter is seeded with the startup
+ * time so ETags issued before a restart never match afterwards.
+ */
+@Component
+public class CatalogVersion {
+
+    private final AtomicLong version = new AtomicLong(System.currentTimeMillis());
+
+    public long current() {
+        return version.get();
+    }
+
+    public long bump() {
+        return version.incrementAndGet();
+    }
+
+    public String etag() {
+        return etag(null);
+    }
+
+    /**
+     * ETag of one representation of the catalog, e.g. "cbor"; null means JSON. The
+     * formats are different bytes, so they must not share a strong validator.
+     */
+    public String etag(String representation) {
+        return etag(version.get(), representation);
+    }
+
+    /**
+     * ETag of a representation built from the given catalog version, for views such as
+     * the suggestion trie that are rebuilt after a write and may lag the current one.
+     */
+    public static String etag(long version, String representation) {
+        String suffix = representation == null ? "" : "-" + representation;
+        return "\"catalog-" + version + suffix + "\"";
+    }
+}
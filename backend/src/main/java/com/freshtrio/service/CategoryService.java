@@ -0,0 +1,109 @@
+package com.freshtrio.service;
+
+import com.freshtrio.dto.CategorySummary;
+import com.freshtrio.entity.Category;
+import com.freshtrio.repository.CategoryRepository;
+import com.freshtrio.repository.ProductRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Serves the category list from an immutable in-memory snapshot.
+ *
+ * The snapshot joins the categories table (display name, sort order) with the
+ * active-product count per category. It is rebuilt only when a category is saved or
+ * a product write changes category membership, so reads never hit the database.
+ */
+@Service
+public class CategoryService {
+
+    public static final String ALL = "all";
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CatalogVersion catalogVersion;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    private volatile List<CategorySummary> snapshot;
+
+    public List<CategorySummary> getCategories() {
+        List<CategorySummary> current = snapshot;
+        return current != null ? current : refresh();
+    }
+
+    public Category saveCategory(Category category) {
+        Category saved = categoryRepository.save(category);
+        refresh();
+        // Category names and order are part of the catalog responses and their ETag;
+        // bumped once the new snapshot is in place so the new ETag never labels the old one
+        catalogVersion.bump();
+        eventPublisher.publishEvent(new CatalogChangedEvent(this));
+        return saved;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        refresh();
+    }
+
+    /**
+     * Rebuilds the snapshot. Synchronized so concurrent writes publish snapshots in
+     * order; readers keep seeing the previous snapshot until the new one is swapped in.
+     */
+    public synchronized List<CategorySummary> refresh() {
+        Map<String, Long> counts = new HashMap<>();
+        long totalActive = 0;
+        for (ProductRepository.CategoryCount count : productRepository.countActiveProductsByCategory()) {
+            counts.put(count.getCategory(), count.getProductCount());
+            totalActive += count.getProductCount();
+        }
+
+        List<CategorySummary> categories = new ArrayList<>();
+        Set<String> known = new HashSet<>();
+        for (Category category : categoryRepository.findAllByOrderBySortOrderAscNameAsc()) {
+            known.add(category.getName());
+            if (!Boolean.TRUE.equals(category.getIsActive())) {
+                continue;
+            }
+            long productCount = ALL.equals(category.getName()) ? totalActive : counts.getOrDefault(category.getName(), 0L);
+            // Empty categories are hidden, matching the old DISTINCT-over-products listing
+            if (productCount == 0 && !ALL.equals(category.getName())) {
+                continue;
+            }
+            categories.add(new CategorySummary(category.getName(), category.getDisplayName(), category.getImageUrl(),
+                    category.getSortOrder() != null ? category.getSortOrder() : 0, productCount));
+        }
+
+        if (!known.contains(ALL)) {
+            categories.add(0, new CategorySummary(ALL, "All Products", null, 0, totalActive));
+        }
+        // Products may use a category that has no row in the categories table yet
+        for (String name : new TreeSet<>(counts.keySet())) {
+            if (!known.contains(name)) {
+                categories.add(new CategorySummary(name, name, null, Integer.MAX_VALUE, counts.get(name)));
+            }
+        }
+
+        List<CategorySummary> rebuilt = List.copyOf(categories);
+        snapshot = rebuilt;
+        return rebuilt;
+    }
+}
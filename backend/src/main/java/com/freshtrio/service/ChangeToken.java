@@ -0,0 +1,28 @@
+package com.freshtrio.service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Delta sync position: the (updated_at, id) of the last change a client received,
+ * handed out as an opaque URL-safe string like ProductCursor.
+ */
+public record ChangeToken(LocalDateTime updatedAt, UUID id) {
+
+    public String encode() {
+        String raw = updatedAt + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static ChangeToken decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|", 2);
+            return new ChangeToken(LocalDateTime.parse(parts[0]), UUID.fromString(parts[1]));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid sync token", e);
+        }
+    }
+}
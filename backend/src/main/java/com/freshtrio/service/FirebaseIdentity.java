@@ -0,0 +1,37 @@
+package com.freshtrio.service;
+
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * The caller identity carried by a verified Firebase ID token. Built once per
+ * verification, so the login flow reads every field without verifying again.
+ */
+public record FirebaseIdentity(String uid, String email, String name, String phone, String provider,
+                               Instant expiresAt) {
+
+    static FirebaseIdentity fromClaims(Map<String, Object> claims) {
+        Object exp = claims.get("exp");
+        return new FirebaseIdentity(
+                (String) claims.get("sub"),
+                (String) claims.get("email"),
+                (String) claims.get("name"),
+                (String) claims.get("phone_number"),
+                providerFrom(claims),
+                exp instanceof Number seconds ? Instant.ofEpochSecond(seconds.longValue()) : null);
+    }
+
+    /**
+     * The first sign-in provider listed under firebase.identities, e.g. "google.com",
+     * or "email" when there is none.
+     */
+    static String providerFrom(Map<String, Object> claims) {
+        if (claims.get("firebase") instanceof Map<?, ?> firebase
+                && firebase.get("identities") instanceof Map<?, ?> identities) {
+            for (Object provider : identities.keySet()) {
+                return (String) provider;
+            }
+        }
+        return "email";
+    }
+}
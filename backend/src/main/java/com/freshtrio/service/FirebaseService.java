@@ -1,21 +1,106 @@
 package com.freshtrio.service;
 
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import com.google.firebase.FirebaseApp;
 import com.google.firebase.auth.FirebaseAuth;
 import com.google.firebase.auth.FirebaseAuthException;
 import com.google.firebase.auth.FirebaseToken;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
 @Service
 public class FirebaseService {
-    
+
+    @Value("${app.firebase.token-cache.max-size:10000}")
+    private long tokenCacheMaxSize;
+
+    private FirebaseTokenVerifier verifier = idToken -> verifyIdToken(idToken).getClaims();
+
+    // Identities by SHA-256 of the ID token, kept until the token expires. A pending
+    // entry is shared by every concurrent login presenting the same token.
+    private AsyncCache<ByteBuffer, FirebaseIdentity> identities;
+
+    @PostConstruct
+    public void init() {
+        identities = Caffeine.newBuilder()
+                .maximumSize(tokenCacheMaxSize)
+                .expireAfter(new Expiry<ByteBuffer, FirebaseIdentity>() {
+                    @Override
+                    public long expireAfterCreate(ByteBuffer key, FirebaseIdentity identity, long currentTime) {
+                        return identity.expiresAt() == null ? 0
+                                : Math.max(0, Duration.between(Instant.now(), identity.expiresAt()).toNanos());
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(ByteBuffer key, FirebaseIdentity identity, long currentTime,
+                                                  long currentDuration) {
+                        return currentDuration;
+                    }
+
+                    @Override
+                    public long expireAfterRead(ByteBuffer key, FirebaseIdentity identity, long currentTime,
+                                                long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .buildAsync();
+    }
+
+    /**
+     * Verifies an ID token once and returns everything the login flow needs from it.
+     * Concurrent calls with the same token wait for a single verification, and the
+     * result is reused until the token expires; a failed verification is not kept.
+     */
+    public FirebaseIdentity verify(String idToken) throws FirebaseAuthException {
+        ByteBuffer key = digest(idToken);
+        CompletableFuture<FirebaseIdentity> pending = new CompletableFuture<>();
+        CompletableFuture<FirebaseIdentity> future = identities.get(key, (k, executor) -> pending);
+        if (future == pending) {
+            // Verified outside the map's lock; other callers wait on the future instead
+            try {
+                pending.complete(FirebaseIdentity.fromClaims(verifier.verify(idToken)));
+            } catch (Throwable e) {
+                // Anything, Errors included, must release the callers waiting on this future,
+                // and a failure is never kept, so the next attempt verifies again
+                pending.completeExceptionally(e);
+                identities.asMap().remove(key, pending);
+            }
+        }
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof FirebaseAuthException authException) {
+                throw authException;
+            }
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        }
+    }
+
     public FirebaseToken verifyIdToken(String idToken) throws FirebaseAuthException {
         try {
             // Ensure Firebase is initialized
             if (FirebaseApp.getApps().isEmpty()) {
                 throw new RuntimeException("Firebase Admin SDK is not properly initialized. Please configure service account credentials.");
             }
-            
+
             return FirebaseAuth.getInstance().verifyIdToken(idToken);
         } catch (FirebaseAuthException e) {
             System.err.println("Failed to verify Firebase ID token: " + e.getMessage());
@@ -25,43 +110,35 @@ public class FirebaseService {
             throw new RuntimeException("Unable to verify Firebase token: " + e.getMessage(), e);
         }
     }
-    
+
+    // The single-field helpers read from verify(), so they share its one verification per token
+
     public String getUidFromToken(String idToken) throws FirebaseAuthException {
-        FirebaseToken decodedToken = verifyIdToken(idToken);
-        return decodedToken.getUid();
+        return verify(idToken).uid();
     }
-    
+
     public String getEmailFromToken(String idToken) throws FirebaseAuthException {
-        FirebaseToken decodedToken = verifyIdToken(idToken);
-        return decodedToken.getEmail();
+        return verify(idToken).email();
     }
-    
+
     public String getNameFromToken(String idToken) throws FirebaseAuthException {
-        FirebaseToken decodedToken = verifyIdToken(idToken);
-        return decodedToken.getName();
+        return verify(idToken).name();
     }
-    
+
     public String getPhoneFromToken(String idToken) throws FirebaseAuthException {
-        FirebaseToken decodedToken = verifyIdToken(idToken);
-        return (String) decodedToken.getClaims().get("phone_number");
+        return verify(idToken).phone();
     }
-    
+
     public String getProviderFromToken(String idToken) throws FirebaseAuthException {
-        FirebaseToken decodedToken = verifyIdToken(idToken);
-        Object firebaseObj = decodedToken.getClaims().get("firebase");
-        if (firebaseObj instanceof java.util.Map) {
-            @SuppressWarnings("unchecked")
-            java.util.Map<String, Object> firebase = (java.util.Map<String, Object>) firebaseObj;
-            Object identitiesObj = firebase.get("identities");
-            if (identitiesObj instanceof java.util.Map) {
-                @SuppressWarnings("unchecked")
-                java.util.Map<String, Object> identities = (java.util.Map<String, Object>) identitiesObj;
-                // Return the first provider found
-                for (String provider : identities.keySet()) {
-                    return provider;
-                }
-            }
+        return verify(idToken).provider();
+    }
+
+    private static ByteBuffer digest(String idToken) {
+        try {
+            return ByteBuffer.wrap(MessageDigest.getInstance("SHA-256").digest(idToken.getBytes(StandardCharsets.US_ASCII)));
+        } catch (NoSuchAlgorithmException e) {
+            // Every JRE ships SHA-256
+            throw new IllegalStateException(e);
         }
-        return "email"; // Default fallback
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,15 @@
+package com.freshtrio.service;
+
+import com.google.firebase.auth.FirebaseAuthException;
+
+import java.util.Map;
+
+/**
+ * Checks a Firebase ID token's signature and lifetime and returns its claims. The
+ * Admin SDK does this in production; tests substitute a local stand-in.
+ */
+@FunctionalInterface
+public interface FirebaseTokenVerifier {
+
+    Map<String, Object> verify(String idToken) throws FirebaseAuthException;
+}
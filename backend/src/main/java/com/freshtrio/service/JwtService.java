@@ -1,13 +1,25 @@
 package com.freshtrio.service;
 
 import com.freshtrio.entity.User;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.oauth2.jwt.*;
 import org.springframework.stereotype.Service;
 
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
+import java.util.UUID;
 
 @Service
 public class JwtService {
@@ -21,53 +33,116 @@ public class JwtService {
     @Autowired
     private JwsHeader jwsHeader;
 
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private TokenDenylist tokenDenylist;
+
     @Value("${jwt.expiration:86400}") // 24 hours in seconds
     private long jwtExpirationInSeconds;
 
+    @Value("${app.jwt.cache.max-size:10000}")
+    private long cacheMaxSize;
+
+    // Verified tokens by SHA-256 of the token text, each kept until the token expires
+    private Cache<ByteBuffer, Jwt> verifiedTokens;
+
+    @PostConstruct
+    public void init() {
+        verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(cacheMaxSize)
+                .expireAfter(new Expiry<ByteBuffer, Jwt>() {
+                    @Override
+                    public long expireAfterCreate(ByteBuffer key, Jwt jwt, long currentTime) {
+                        return Math.max(0, Duration.between(Instant.now(), jwt.getExpiresAt()).toNanos());
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(ByteBuffer key, Jwt jwt, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+
+                    @Override
+                    public long expireAfterRead(ByteBuffer key, Jwt jwt, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, verifiedTokens, "verifiedJwts");
+    }
+
     public String generateToken(User user) {
         Instant now = Instant.now();
         Instant expiration = now.plus(jwtExpirationInSeconds, ChronoUnit.SECONDS);
 
-        JwtClaimsSet claims = JwtClaimsSet.builder()
+        JwtClaimsSet.Builder claims = JwtClaimsSet.builder()
+                .id(UUID.randomUUID().toString())
                 .issuer("freshtrio-api")
                 .issuedAt(now)
                 .expiresAt(expiration)
                 .subject(user.getEmail())
-                .claim("role", user.getRole().name())
-                .claim("googleid", user.getGoogleId())
-                .build();
+                .claim("role", user.getRole().name());
+        // The builder rejects null claim values, and email accounts have no Google id
+        if (user.getGoogleId() != null) {
+            claims.claim("googleid", user.getGoogleId());
+        }
 
-        return jwtEncoder.encode(JwtEncoderParameters.from(jwsHeader, claims)).getTokenValue();
+        return jwtEncoder.encode(JwtEncoderParameters.from(jwsHeader, claims.build())).getTokenValue();
     }
 
-    public String extractUsername(String token) {
-        // Remove Bearer prefix if present
+    /**
+     * Verifies a token, with or without the "Bearer " prefix, and returns all of its
+     * claims. A token already verified is answered from the cache with one digest and
+     * one lookup; the signature is checked and the JSON parsed only on first sight.
+     * Throws JwtException when the token is malformed, forged, expired or revoked.
+     */
+    public Jwt parse(String token) {
         if (token.startsWith("Bearer ")) {
             token = token.substring(7);
         }
-        
-        Jwt jwt = jwtDecoder.decode(token);
-        return jwt.getSubject();
+        ByteBuffer key = digest(token);
+        Jwt jwt = verifiedTokens.getIfPresent(key);
+        if (jwt == null) {
+            jwt = jwtDecoder.decode(token);
+            // Only tokens that will still be valid a moment from now are worth keeping
+            if (jwt.getExpiresAt() != null && jwt.getExpiresAt().isAfter(Instant.now())) {
+                verifiedTokens.put(key, jwt);
+            }
+        }
+        UUID jti = jti(jwt);
+        if (jti != null && tokenDenylist.isRevoked(jti)) {
+            throw new BadJwtException("Token has been revoked");
+        }
+        return jwt;
     }
 
-    public String extractRole(String token) {
-        // Remove Bearer prefix if present
-        if (token.startsWith("Bearer ")) {
-            token = token.substring(7);
+    /**
+     * Revokes a token until it expires. Returns false when there is nothing to revoke:
+     * the token is already invalid, or predates jti and will simply run out.
+     */
+    public boolean revoke(String token) {
+        Jwt jwt = parse(token);
+        UUID jti = jti(jwt);
+        if (jti == null || jwt.getExpiresAt() == null) {
+            return false;
         }
-        
-        Jwt jwt = jwtDecoder.decode(token);
-        return jwt.getClaimAsString("role");
+        tokenDenylist.revoke(jti, jwt.getExpiresAt());
+        return true;
+    }
+
+    public String extractUsername(String token) {
+        return parse(token).getSubject();
+    }
+
+    public String extractRole(String token) {
+        return parse(token).getClaimAsString("role");
     }
 
     public boolean isTokenValid(String token) {
         try {
-            // Remove Bearer prefix if present
-            if (token.startsWith("Bearer ")) {
-                token = token.substring(7);
-            }
-            
-            Jwt jwt = jwtDecoder.decode(token);
+            Jwt jwt = parse(token);
             return !jwt.getExpiresAt().isBefore(Instant.now());
         } catch (JwtException e) {
             return false;
@@ -76,15 +151,32 @@ public class JwtService {
 
     public boolean isTokenExpired(String token) {
         try {
-            // Remove Bearer prefix if present
-            if (token.startsWith("Bearer ")) {
-                token = token.substring(7);
-            }
-            
-            Jwt jwt = jwtDecoder.decode(token);
+            Jwt jwt = parse(token);
             return jwt.getExpiresAt().isBefore(Instant.now());
         } catch (JwtException e) {
             return true;
         }
     }
-}
\ No newline at end of file
+
+    private static UUID jti(Jwt jwt) {
+        String id = jwt.getId();
+        if (id == null) {
+            return null;
+        }
+        try {
+            return UUID.fromString(id);
+        } catch (IllegalArgumentException e) {
+            // Not one of ours; tokens are only ever issued with a UUID jti
+            return null;
+        }
+    }
+
+    private static ByteBuffer digest(String token) {
+        try {
+            return ByteBuffer.wrap(MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII)));
+        } catch (NoSuchAlgorithmException e) {
+            // Every JRE ships SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+}
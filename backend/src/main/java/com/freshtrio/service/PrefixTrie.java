@@ -0,0 +1,194 @@
+package com.freshtrio.service;
+
+import com.freshtrio.dto.Suggestion;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.TreeMap;
+
+/**
+ * Immutable prefix trie packed into parallel arrays.
+ *
+ * Node i has the edge character labels[i]; its children occupy the contiguous range
+ * [childStart[i], childEnd[i]) sorted by label, so a lookup is one binary search per
+ * typed character. Every node also stores its best suggestions, precomputed at build
+ * time, so answering a prefix never walks the subtree below it.
+ */
+final class PrefixTrie {
+
+    static final PrefixTrie EMPTY = new Builder(0).build();
+
+    private final char[] labels;
+    private final int[] childStart;
+    private final int[] childEnd;
+    private final int[] topStart;
+    private final int[] topEnd;
+    private final int[] topEntries;
+    private final Suggestion[] suggestions;
+
+    private PrefixTrie(char[] labels, int[] childStart, int[] childEnd, int[] topStart, int[] topEnd,
+                       int[] topEntries, Suggestion[] suggestions) {
+        this.labels = labels;
+        this.childStart = childStart;
+        this.childEnd = childEnd;
+        this.topStart = topStart;
+        this.topEnd = topEnd;
+        this.topEntries = topEntries;
+        this.suggestions = suggestions;
+    }
+
+    List<Suggestion> suggest(String prefix, int limit) {
+        String key = normalize(prefix);
+        if (key.isEmpty()) {
+            return List.of();
+        }
+        int node = 0;
+        for (int i = 0; i < key.length() && node >= 0; i++) {
+            node = child(node, key.charAt(i));
+        }
+        if (node < 0) {
+            return List.of();
+        }
+        int count = Math.min(limit, topEnd[node] - topStart[node]);
+        List<Suggestion> result = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            result.add(suggestions[topEntries[topStart[node] + i]]);
+        }
+        return result;
+    }
+
+    int nodeCount() {
+        return labels.length;
+    }
+
+    private int child(int node, char c) {
+        int low = childStart[node];
+        int high = childEnd[node] - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (labels[mid] < c) {
+                low = mid + 1;
+            } else if (labels[mid] > c) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    static String normalize(String text) {
+        return text == null ? "" : text.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Collects keys in a temporary pointer-based trie and flattens it breadth-first.
+     * Suggestions must be added best first; their insertion order is their rank.
+     */
+    static final class Builder {
+
+        private final int topN;
+        private final MutableNode root = new MutableNode('\0');
+        private final List<Suggestion> suggestions = new ArrayList<>();
+
+        Builder(int topN) {
+            this.topN = topN;
+        }
+
+        /**
+         * Adds a suggestion reachable through its full text and through the start of
+         * each later word, so "eye" also suggests "Rib Eye Steak".
+         */
+        Builder add(Suggestion suggestion) {
+            int rank = suggestions.size();
+            suggestions.add(suggestion);
+            String key = normalize(suggestion.text());
+            for (int i = 0; i < key.length(); i++) {
+                if (i == 0 || key.charAt(i - 1) == ' ') {
+                    insert(key.substring(i), rank);
+                }
+            }
+            return this;
+        }
+
+        private void insert(String key, int rank) {
+            MutableNode node = root;
+            for (int i = 0; i < key.length(); i++) {
+                node = node.children.computeIfAbsent(key.charAt(i), MutableNode::new);
+                node.addRank(rank, topN);
+            }
+        }
+
+        PrefixTrie build() {
+            List<MutableNode> order = new ArrayList<>();
+            order.add(root);
+            // Breadth-first numbering keeps each node's children contiguous
+            List<int[]> ranges = new ArrayList<>();
+            for (int i = 0; i < order.size(); i++) {
+                MutableNode node = order.get(i);
+                int start = order.size();
+                order.addAll(node.children.values());
+                ranges.add(new int[]{start, order.size()});
+            }
+
+            int size = order.size();
+            char[] labels = new char[size];
+            int[] childStart = new int[size];
+            int[] childEnd = new int[size];
+            int[] topStart = new int[size];
+            int[] topEnd = new int[size];
+            int totalTop = 0;
+            for (MutableNode node : order) {
+                totalTop += node.rankCount;
+            }
+            int[] topEntries = new int[totalTop];
+            int offset = 0;
+            for (int i = 0; i < size; i++) {
+                MutableNode node = order.get(i);
+                labels[i] = node.label;
+                childStart[i] = ranges.get(i)[0];
+                childEnd[i] = ranges.get(i)[1];
+                topStart[i] = offset;
+                System.arraycopy(node.ranks, 0, topEntries, offset, node.rankCount);
+                offset += node.rankCount;
+                topEnd[i] = offset;
+            }
+            return new PrefixTrie(labels, childStart, childEnd, topStart, topEnd, topEntries,
+                    suggestions.toArray(new Suggestion[0]));
+        }
+    }
+
+    private static final class MutableNode {
+        private final char label;
+        private final TreeMap<Character, MutableNode> children = new TreeMap<>();
+        private int[] ranks = new int[0];
+        private int rankCount;
+
+        MutableNode(char label) {
+            this.label = label;
+        }
+
+        /**
+         * Keeps the topN best (lowest) distinct ranks seen under this node, sorted.
+         */
+        void addRank(int rank, int topN) {
+            int position = Arrays.binarySearch(ranks, 0, rankCount, rank);
+            if (position >= 0) {
+                return;
+            }
+            int insertAt = -position - 1;
+            if (insertAt >= topN) {
+                return;
+            }
+            if (rankCount == ranks.length && ranks.length < topN) {
+                ranks = Arrays.copyOf(ranks, Math.min(topN, Math.max(4, ranks.length * 2)));
+            }
+            int moved = Math.min(rankCount, topN - 1) - insertAt;
+            System.arraycopy(ranks, insertAt, ranks, insertAt + 1, moved);
+            ranks[insertAt] = rank;
+            rankCount = Math.min(rankCount + 1, topN);
+        }
+    }
+}
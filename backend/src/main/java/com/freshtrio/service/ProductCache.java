@@ -0,0 +1,133 @@
+package com.freshtrio.service;
+
+import com.freshtrio.dto.ProductSummary;
+import com.freshtrio.entity.Product;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Bounded read-through cache for the product catalog.
+ *
+ * Holds products by id and listing pages per category; the category list is
+ * served by CategoryService's snapshot.
+ * Hit/miss/eviction statistics are bound to the meter registry so they show up
+ * under /actuator/metrics as cache.gets, cache.evictions, etc.
+ */
+@Component
+public class ProductCache {
+
+    public static final String ALL_CATEGORIES = "all";
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${app.cache.products.max-size:5000}")
+    private long productsMaxSize;
+
+    @Value("${app.cache.products.ttl:10m}")
+    private Duration productsTtl;
+
+    @Value("${app.cache.product-pages.max-size:1000}")
+    private long pagesMaxSize;
+
+    @Value("${app.cache.product-pages.ttl:5m}")
+    private Duration pagesTtl;
+
+    private Cache<UUID, Product> products;
+    private Cache<PageKey, Page<ProductSummary>> pages;
+
+    private Counter productInvalidations;
+    private Counter pageInvalidations;
+
+    @PostConstruct
+    public void init() {
+        products = Caffeine.newBuilder()
+                .maximumSize(productsMaxSize)
+                .expireAfterWrite(productsTtl)
+                .recordStats()
+                .build();
+        pages = Caffeine.newBuilder()
+                .maximumSize(pagesMaxSize)
+                .expireAfterWrite(pagesTtl)
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, products, "products");
+        CaffeineCacheMetrics.monitor(meterRegistry, pages, "productPages");
+
+        productInvalidations = invalidationCounter("products");
+        pageInvalidations = invalidationCounter("productPages");
+    }
+
+    public Product getProduct(UUID id, Function<UUID, Product> loader) {
+        // A null from the loader is not cached, so unknown ids always reach the repository
+        return products.get(id, loader);
+    }
+
+    /**
+     * Returns a cached listing page, or loads it. Unpaged requests bypass the cache
+     * since they are unbounded in size.
+     */
+    public Page<ProductSummary> getPage(String category, Pageable pageable, Supplier<Page<ProductSummary>> loader) {
+        if (pageable.isUnpaged()) {
+            return loader.get();
+        }
+        return pages.get(PageKey.of(category, pageable), key -> loader.get());
+    }
+
+    public void evictProduct(UUID id) {
+        if (id != null) {
+            products.invalidate(id);
+            productInvalidations.increment();
+        }
+    }
+
+    /**
+     * Evicts the listing pages of the given categories plus the "all" listing,
+     * which every active product appears in.
+     */
+    public void evictPages(Collection<String> affectedCategories) {
+        int removed = 0;
+        for (Iterator<PageKey> it = pages.asMap().keySet().iterator(); it.hasNext(); ) {
+            PageKey key = it.next();
+            if (key.category().equals(ALL_CATEGORIES) || affectedCategories.contains(key.category())) {
+                it.remove();
+                removed++;
+            }
+        }
+        pageInvalidations.increment(removed);
+    }
+
+    private Counter invalidationCounter(String cacheName) {
+        return Counter.builder("cache.invalidations")
+                .description("Entries removed explicitly after a catalog write")
+                .tag("cache", cacheName)
+                .register(meterRegistry);
+    }
+
+    record PageKey(String category, int page, int size, String sort) {
+
+        static PageKey of(String category, Pageable pageable) {
+            String normalized = category == null ? ALL_CATEGORIES : category;
+            return new PageKey(normalized, pageable.getPageNumber(), pageable.getPageSize(),
+                    Objects.toString(pageable.getSort()));
+        }
+    }
+}
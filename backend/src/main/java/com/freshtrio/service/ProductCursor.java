@@ -0,0 +1,54 @@
+package com.freshtrio.service;
+
+import com.freshtrio.dto.ProductSummary;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Continuation token for keyset pagination. Carries the sort order and the sort key
+ * of the last row returned, (created_at, id) for NEWEST or (name, id) for NAME,
+ * and is handed to clients as an opaque URL-safe string.
+ */
+public record ProductCursor(Order order, String key, UUID id) {
+
+    public enum Order {
+        NEWEST, NAME
+    }
+
+    public static ProductCursor after(Order order, ProductSummary last) {
+        String key = order == Order.NEWEST ? last.getCreatedAt().toString() : last.getName();
+        return new ProductCursor(order, key, last.getId());
+    }
+
+    public String encode() {
+        // The key goes last because product names may contain the separator
+        String raw = order.name() + "|" + id + "|" + key;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static ProductCursor decode(String token, Order expectedOrder) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|", 3);
+            ProductCursor cursor = new ProductCursor(Order.valueOf(parts[0]), parts[2], UUID.fromString(parts[1]));
+            if (cursor.order() != expectedOrder) {
+                throw new IllegalArgumentException("Cursor was issued for a different sort order");
+            }
+            if (cursor.order() == Order.NEWEST) {
+                cursor.createdAt(); // validate eagerly
+            }
+            return cursor;
+        } catch (IllegalArgumentException e) {
+            throw e;
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+    }
+
+    public LocalDateTime createdAt() {
+        return LocalDateTime.parse(key);
+    }
+}
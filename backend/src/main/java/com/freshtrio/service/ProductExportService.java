@@ -0,0 +1,185 @@
+package com.freshtrio.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.freshtrio.repository.ProductExportRepository;
+import com.freshtrio.repository.ProductExportRepository.ExportedProduct;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Writes the catalog to an output stream row by row, straight off a database cursor.
+ * Memory use does not grow with the catalog. The CSV columns are ones the bulk import
+ * understands, so an export can be edited and imported again.
+ */
+@Service
+public class ProductExportService {
+
+    public enum Format { CSV, NDJSON }
+
+    private static final String CSV_HEADER = "id,supplier_id,supplier_name,name,description,category,price,unit,"
+            + "image_url,active,created_at,updated_at";
+
+    // The first row is flushed at once, later ones in groups rather than one flush per row
+    private static final int FLUSH_EVERY = 100;
+
+    @Autowired
+    private ProductExportRepository exportRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private TransactionTemplate readOnlyTransaction;
+
+    @PostConstruct
+    public void init() {
+        readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+    }
+
+    public void export(Format format, UUID supplierId, boolean includeInactive, OutputStream out) throws IOException {
+        try {
+            if (format == Format.CSV) {
+                exportCsv(supplierId, includeInactive, out);
+            } else {
+                exportNdjson(supplierId, includeInactive, out);
+            }
+        } catch (UncheckedIOException e) {
+            // Usually the client went away mid-download; the cursor's transaction is already rolled back
+            throw e.getCause();
+        }
+    }
+
+    private void exportCsv(UUID supplierId, boolean includeInactive, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        writer.write(CSV_HEADER);
+        writer.write("\r\n");
+        // The header goes out before the query runs, so the download starts immediately
+        writer.flush();
+
+        int[] rows = {0};
+        readOnlyTransaction.executeWithoutResult(status ->
+                exportRepository.forEach(supplierId, includeInactive, product -> {
+                    try {
+                        writeCsvRow(writer, product);
+                        if (++rows[0] % FLUSH_EVERY == 1) {
+                            writer.flush();
+                        }
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }));
+        writer.flush();
+    }
+
+    private void exportNdjson(UUID supplierId, boolean includeInactive, OutputStream out) throws IOException {
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(out);
+        // The servlet container owns the response stream
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        generator.setRootValueSeparator(new SerializedString("\n"));
+
+        int[] rows = {0};
+        readOnlyTransaction.executeWithoutResult(status ->
+                exportRepository.forEach(supplierId, includeInactive, product -> {
+                    try {
+                        writeJsonRow(generator, product);
+                        if (++rows[0] % FLUSH_EVERY == 1) {
+                            generator.flush();
+                        }
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }));
+        if (rows[0] > 0) {
+            generator.writeRaw('\n');
+        }
+        generator.close();
+    }
+
+    private void writeCsvRow(Writer writer, ExportedProduct product) throws IOException {
+        writer.write(product.id().toString());
+        writer.write(',');
+        writer.write(product.supplierId().toString());
+        writer.write(',');
+        writeCsvField(writer, product.supplierName());
+        writer.write(',');
+        writeCsvField(writer, product.name());
+        writer.write(',');
+        writeCsvField(writer, product.description());
+        writer.write(',');
+        writeCsvField(writer, product.category());
+        writer.write(',');
+        writeCsvField(writer, product.price() != null ? product.price().toPlainString() : null);
+        writer.write(',');
+        writeCsvField(writer, product.unit());
+        writer.write(',');
+        writeCsvField(writer, product.imageUrl());
+        writer.write(',');
+        writer.write(Boolean.toString(product.active()));
+        writer.write(',');
+        writeCsvField(writer, Objects.toString(product.createdAt(), null));
+        writer.write(',');
+        writeCsvField(writer, Objects.toString(product.updatedAt(), null));
+        writer.write("\r\n");
+    }
+
+    static void writeCsvField(Writer writer, String value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        boolean quote = false;
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quote) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+
+    private void writeJsonRow(JsonGenerator generator, ExportedProduct product) throws IOException {
+        generator.writeStartObject();
+        generator.writeStringField("id", product.id().toString());
+        generator.writeStringField("supplierId", product.supplierId().toString());
+        writeOptional(generator, "supplierName", product.supplierName());
+        generator.writeStringField("name", product.name());
+        writeOptional(generator, "description", product.description());
+        writeOptional(generator, "category", product.category());
+        if (product.price() != null) {
+            generator.writeNumberField("price", product.price());
+        }
+        writeOptional(generator, "unit", product.unit());
+        writeOptional(generator, "imageUrl", product.imageUrl());
+        generator.writeBooleanField("active", product.active());
+        writeOptional(generator, "createdAt", Objects.toString(product.createdAt(), null));
+        writeOptional(generator, "updatedAt", Objects.toString(product.updatedAt(), null));
+        generator.writeEndObject();
+    }
+
+    private void writeOptional(JsonGenerator generator, String field, String value) throws IOException {
+        if (value != null) {
+            generator.writeStringField(field, value);
+        }
+    }
+}
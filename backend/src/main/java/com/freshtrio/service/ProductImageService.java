@@ -0,0 +1,380 @@
+package com.freshtrio.service;
+
+import com.freshtrio.dto.ProductImageUpload;
+import com.freshtrio.repository.ProductRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.util.FileSystemUtils;
+import org.springframework.web.multipart.MultipartFile;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Product image uploads and their resized variants.
+ *
+ * The multipart body is spooled to disk by the servlet container and moved into
+ * {upload dir}/products/{productId}/{imageId}/, so the upload never sits in heap.
+ * Variants are rendered on a small fixed pool with a bounded queue; when the queue is
+ * full the upload is refused rather than piling up decoded images in memory. Once the
+ * variants exist the product's imageUrl is switched to the detail variant and older
+ * images of the product are removed.
+ *
+ * Every upload gets a new imageId, so a variant URL never changes content and can be
+ * cached for a year. Clients derive the other variants from imageUrl by file name.
+ * Image ids are time-ordered (UUID version 7), so when uploads for one product overlap
+ * the latest one wins however the workers finish: imageUrl only moves forward, with a
+ * compare-and-set, and only images older than the one set are removed.
+ */
+@Service
+public class ProductImageService {
+
+    public static final String PRODUCTS_DIR = "products";
+
+    static final List<Variant> VARIANTS = List.of(
+            new Variant("thumb", 160, 0.80f),
+            new Variant("list", 480, 0.82f),
+            new Variant("detail", 1080, 0.85f),
+            // Low-quality placeholder, a few hundred bytes, shown blurred while the real image loads
+            new Variant("lqip", 24, 0.40f));
+
+    private static final int LARGEST_EDGE = VARIANTS.stream().mapToInt(Variant::maxEdge).max().orElseThrow();
+
+    // Larger images would need hundreds of MB of heap to decode
+    private static final long MAX_PIXELS = 40_000_000L;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${app.upload.dir:/tmp/uploads}")
+    private String uploadDir;
+
+    @Value("${app.upload.base-url:/uploads}")
+    private String baseUrl;
+
+    @Value("${app.upload.max-size:10485760}")
+    private long maxSize;
+
+    @Value("${app.upload.image-workers:2}")
+    private int workers;
+
+    @Value("${app.upload.image-queue-capacity:20}")
+    private int queueCapacity;
+
+    private ExecutorService executor;
+
+    @PostConstruct
+    public void init() throws IOException {
+        Files.createDirectories(root().resolve(PRODUCTS_DIR));
+        AtomicInteger threads = new AtomicInteger();
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "image-worker-" + threads.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        executor = ExecutorServiceMetrics.monitor(meterRegistry, pool, "imageProcessing");
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Stores an uploaded image and queues its variants. Throws IllegalArgumentException
+     * for files that are too large or not JPEG/PNG, and IllegalStateException when the
+     * processing queue is full.
+     */
+    public ProductImageUpload upload(UUID productId, MultipartFile file) throws IOException {
+        if (file.isEmpty() || file.getSize() > maxSize) {
+            throw new IllegalArgumentException("Image must be between 1 byte and " + maxSize + " bytes");
+        }
+        String extension;
+        try (InputStream in = file.getInputStream()) {
+            extension = sniffExtension(in.readNBytes(8));
+        }
+        if (extension == null) {
+            throw new IllegalArgumentException("Only JPEG and PNG images are supported");
+        }
+
+        UUID imageId = newImageId();
+        Path dir = imageDir(productId, imageId);
+        Files.createDirectories(dir);
+        Path original = dir.resolve("original." + extension);
+        // The container already spooled the part to a temp file; this moves or copies it without buffering
+        file.transferTo(original.toFile());
+
+        try {
+            executor.execute(() -> process(productId, imageId, original));
+        } catch (RejectedExecutionException e) {
+            FileSystemUtils.deleteRecursively(dir);
+            throw new IllegalStateException("Image processing is busy, try again shortly");
+        }
+        return new ProductImageUpload(imageId, variantUrls(productId, imageId));
+    }
+
+    void process(UUID productId, UUID imageId, Path original) {
+        Path dir = original.getParent();
+        try {
+            renderVariants(original, dir);
+            if (publish(productId, imageId)) {
+                deleteOlderImages(productId, imageId);
+            } else {
+                FileSystemUtils.deleteRecursively(dir);
+            }
+        } catch (Exception e) {
+            System.err.println("Failed to process image " + imageId + " for product " + productId + ": " + e.getMessage());
+            try {
+                FileSystemUtils.deleteRecursively(dir);
+            } catch (IOException ignored) {
+                // Left for manual cleanup
+            }
+        }
+    }
+
+    /**
+     * Points the product's imageUrl at this image unless the product is gone or already
+     * shows a later upload. Returns whether it did.
+     */
+    private boolean publish(UUID productId, UUID imageId) {
+        String imageUrl = variantUrls(productId, imageId).get("detail");
+        while (true) {
+            ProductRepository.ImageSlot slot = productRepository.findImageSlot(productId).orElse(null);
+            if (slot == null) {
+                return false;
+            }
+            UUID current = imageIdOf(productId, slot.getImageUrl());
+            if (current != null && compareUploadOrder(current, imageId) > 0) {
+                return false;
+            }
+            String previous = slot.getImageUrl() == null ? "" : slot.getImageUrl();
+            if (productRepository.replaceImageUrl(productId, previous, imageUrl) == 1) {
+                Set<String> categories = slot.getCategory() == null ? Set.of() : Set.of(slot.getCategory());
+                productService.evictAfterBulkWrite(List.of(productId), categories, false);
+                return true;
+            }
+            // Another upload switched the image in between; compare against that one
+        }
+    }
+
+    /**
+     * Decodes the original once, subsampled while decoding when it is far larger than
+     * the biggest variant, and writes every variant as a progressive JPEG. Each file is
+     * written under a temporary name and moved into place, so a variant URL never
+     * serves a partial file.
+     */
+    void renderVariants(Path original, Path dir) throws IOException {
+        BufferedImage decoded = decode(original, LARGEST_EDGE);
+        BufferedImage source = decoded.getType() == BufferedImage.TYPE_INT_RGB
+                ? decoded : draw(decoded, decoded.getWidth(), decoded.getHeight());
+        for (Variant variant : VARIANTS) {
+            BufferedImage resized = resize(source, variant.maxEdge());
+            Path temp = dir.resolve(variant.name() + ".jpg.tmp");
+            writeJpeg(resized, temp, variant.quality());
+            Files.move(temp, dir.resolve(variant.name() + ".jpg"), StandardCopyOption.ATOMIC_MOVE,
+                    StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private BufferedImage decode(Path original, int largestEdge) throws IOException {
+        try (ImageInputStream input = ImageIO.createImageInputStream(original.toFile())) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) {
+                throw new IOException("Unreadable image");
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                if ((long) width * height > MAX_PIXELS) {
+                    throw new IOException("Image is too large: " + width + "x" + height);
+                }
+                // Decode at no less than twice the largest variant so the final downscale stays sharp
+                int subsampling = Math.max(1, Math.max(width, height) / (largestEdge * 2));
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    /**
+     * Scales an RGB image to fit maxEdge, halving repeatedly before the last step; a
+     * single bilinear step from a much larger image skips pixels and looks jagged.
+     */
+    static BufferedImage resize(BufferedImage source, int maxEdge) {
+        double scale = Math.min(1.0, (double) maxEdge / Math.max(source.getWidth(), source.getHeight()));
+        int targetWidth = Math.max(1, (int) Math.round(source.getWidth() * scale));
+        int targetHeight = Math.max(1, (int) Math.round(source.getHeight() * scale));
+
+        BufferedImage current = source;
+        while (current.getWidth() / 2 >= targetWidth && current.getHeight() / 2 >= targetHeight) {
+            current = draw(current, current.getWidth() / 2, current.getHeight() / 2);
+        }
+        if (current.getWidth() != targetWidth || current.getHeight() != targetHeight) {
+            current = draw(current, targetWidth, targetHeight);
+        }
+        return current;
+    }
+
+    // Also flattens transparency onto white, since the variants are JPEG
+    private static BufferedImage draw(BufferedImage source, int width, int height) {
+        BufferedImage target = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = target.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            graphics.setColor(Color.WHITE);
+            graphics.fillRect(0, 0, width, height);
+            graphics.drawImage(source, 0, 0, width, height, null);
+        } finally {
+            graphics.dispose();
+        }
+        return target;
+    }
+
+    private static void writeJpeg(BufferedImage image, Path target, float quality) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        try (ImageOutputStream output = ImageIO.createImageOutputStream(target.toFile())) {
+            writer.setOutput(output);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(quality);
+            param.setProgressiveMode(ImageWriteParam.MODE_DEFAULT);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+    }
+
+    // Newer images are left alone: they are still processing, and remove this one if they win
+    private void deleteOlderImages(UUID productId, UUID keep) throws IOException {
+        Path productDir = root().resolve(PRODUCTS_DIR).resolve(productId.toString());
+        try (DirectoryStream<Path> images = Files.newDirectoryStream(productDir)) {
+            for (Path image : images) {
+                UUID imageId = parseImageId(image.getFileName().toString());
+                if (imageId != null && compareUploadOrder(imageId, keep) < 0) {
+                    FileSystemUtils.deleteRecursively(image);
+                }
+            }
+        }
+    }
+
+    /**
+     * A UUID version 7: the upload time in milliseconds in the top 48 bits, then random
+     * bits, so ids sort by upload time.
+     */
+    static UUID newImageId() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long mostSignificant = (System.currentTimeMillis() << 16) | 0x7000L | (random.nextLong() & 0x0FFFL);
+        long leastSignificant = (random.nextLong() & 0x3FFFFFFFFFFFFFFFL) | 0x8000000000000000L;
+        return new UUID(mostSignificant, leastSignificant);
+    }
+
+    /**
+     * Orders image ids by upload time. Random ids from before ids were time-ordered sort
+     * ahead of every time-ordered one; ties fall back to the whole id.
+     */
+    static int compareUploadOrder(UUID a, UUID b) {
+        int byTime = Long.compare(uploadedAt(a), uploadedAt(b));
+        return byTime != 0 ? byTime : a.compareTo(b);
+    }
+
+    private static long uploadedAt(UUID imageId) {
+        return imageId.version() == 7 ? imageId.getMostSignificantBits() >>> 16 : 0L;
+    }
+
+    // The image id in one of this service's URLs for the product, or null for any other URL
+    private UUID imageIdOf(UUID productId, String imageUrl) {
+        String prefix = baseUrl + "/" + PRODUCTS_DIR + "/" + productId + "/";
+        if (imageUrl == null || !imageUrl.startsWith(prefix)) {
+            return null;
+        }
+        int end = imageUrl.indexOf('/', prefix.length());
+        return end < 0 ? null : parseImageId(imageUrl.substring(prefix.length(), end));
+    }
+
+    private static UUID parseImageId(String text) {
+        try {
+            return UUID.fromString(text);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    static String sniffExtension(byte[] header) {
+        if (header.length >= 3 && (header[0] & 0xFF) == 0xFF && (header[1] & 0xFF) == 0xD8 && (header[2] & 0xFF) == 0xFF) {
+            return "jpg";
+        }
+        if (header.length >= 8 && (header[0] & 0xFF) == 0x89 && header[1] == 'P' && header[2] == 'N' && header[3] == 'G'
+                && header[4] == '\r' && header[5] == '\n' && header[6] == 0x1A && header[7] == '\n') {
+            return "png";
+        }
+        return null;
+    }
+
+    private Map<String, String> variantUrls(UUID productId, UUID imageId) {
+        String prefix = baseUrl + "/" + PRODUCTS_DIR + "/" + productId + "/" + imageId + "/";
+        Map<String, String> urls = new LinkedHashMap<>();
+        for (Variant variant : VARIANTS) {
+            urls.put(variant.name(), prefix + variant.name() + ".jpg");
+        }
+        return urls;
+    }
+
+    private Path imageDir(UUID productId, UUID imageId) {
+        return root().resolve(PRODUCTS_DIR).resolve(productId.toString()).resolve(imageId.toString());
+    }
+
+    public Path root() {
+        return Paths.get(uploadDir).toAbsolutePath().normalize();
+    }
+
+    record Variant(String name, int maxEdge, float quality) {
+    }
+}
@@ -0,0 +1,222 @@
+package com.freshtrio.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Pull parser for supplier price lists, reading one record at a time so an upload of
+ * any length is never held in memory.
+ *
+ * CSV needs a header row; quoted fields may contain commas, doubled quotes and line
+ * breaks. NDJSON is one JSON object per line. Column and property names are matched
+ * loosely ("image_url", "imageUrl" and "Image URL" are the same field). A record that
+ * cannot be parsed comes back with an error instead of fields, and reading continues
+ * with the next one, except for records over MAX_RECORD_CHARS which end the stream.
+ */
+final class ProductImportReader implements Closeable {
+
+    static final int MAX_RECORD_CHARS = 64 * 1024;
+
+    /**
+     * One source record. line is where the record starts, counting from 1.
+     */
+    record RawRecord(long line, Map<String, String> fields, String error) {
+    }
+
+    private final Reader reader;
+    private final ProductImportService.Format format;
+    private final ObjectMapper objectMapper;
+    private List<String> header;
+    private long line = 1;
+    private boolean done;
+    private int pushback = -1;
+
+    ProductImportReader(Reader reader, ProductImportService.Format format, ObjectMapper objectMapper) {
+        this.reader = reader;
+        this.format = format;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Returns the next non-blank record, or null at the end of the input.
+     */
+    RawRecord next() throws IOException {
+        while (!done) {
+            RawRecord record = format == ProductImportService.Format.CSV ? nextCsv() : nextJson();
+            if (record != null) {
+                return record;
+            }
+        }
+        return null;
+    }
+
+    private RawRecord nextCsv() throws IOException {
+        if (header == null) {
+            List<String> names = readCsvRecord();
+            if (names == null) {
+                return null;
+            }
+            header = new ArrayList<>(names.size());
+            for (String name : names) {
+                header.add(normalizeKey(name));
+            }
+            return null;
+        }
+        long start = line;
+        List<String> values;
+        try {
+            values = readCsvRecord();
+        } catch (MalformedRecordException e) {
+            return new RawRecord(start, null, e.getMessage());
+        }
+        if (values == null || (values.size() == 1 && values.get(0).isBlank())) {
+            return null;
+        }
+        if (values.size() > header.size()) {
+            return new RawRecord(start, null, "Expected " + header.size() + " columns but found " + values.size());
+        }
+        Map<String, String> fields = new HashMap<>();
+        for (int i = 0; i < values.size(); i++) {
+            fields.put(header.get(i), values.get(i));
+        }
+        return new RawRecord(start, fields, null);
+    }
+
+    private RawRecord nextJson() throws IOException {
+        long start = line;
+        String text;
+        try {
+            text = readLine();
+        } catch (MalformedRecordException e) {
+            return new RawRecord(start, null, e.getMessage());
+        }
+        if (text == null || text.isBlank()) {
+            return null;
+        }
+        JsonNode node;
+        try {
+            node = objectMapper.readTree(text);
+        } catch (IOException e) {
+            return new RawRecord(start, null, "Invalid JSON");
+        }
+        if (!node.isObject()) {
+            return new RawRecord(start, null, "Expected a JSON object");
+        }
+        Map<String, String> fields = new HashMap<>();
+        for (Iterator<Map.Entry<String, JsonNode>> it = node.fields(); it.hasNext(); ) {
+            Map.Entry<String, JsonNode> field = it.next();
+            JsonNode value = field.getValue();
+            if (value.isContainerNode()) {
+                return new RawRecord(start, null, "Field '" + field.getKey() + "' must be a plain value");
+            }
+            fields.put(normalizeKey(field.getKey()), value.isNull() ? null : value.asText());
+        }
+        return new RawRecord(start, fields, null);
+    }
+
+    /**
+     * Reads one CSV record, or returns null at the end of the input.
+     */
+    private List<String> readCsvRecord() throws IOException {
+        List<String> values = new ArrayList<>();
+        StringBuilder value = new StringBuilder();
+        boolean quoted = false;
+        boolean read = false;
+        int length = 0;
+        int c;
+        while ((c = read()) != -1) {
+            read = true;
+            if (++length > MAX_RECORD_CHARS) {
+                done = true;
+                throw new MalformedRecordException("Record exceeds " + MAX_RECORD_CHARS + " characters");
+            }
+            if (c == '\n') {
+                line++;
+            }
+            if (quoted) {
+                if (c != '"') {
+                    value.append((char) c);
+                } else if ((c = read()) == '"') {
+                    value.append('"');
+                } else {
+                    quoted = false;
+                    pushback = c;
+                }
+            } else if (c == '"' && value.length() == 0) {
+                quoted = true;
+            } else if (c == ',') {
+                values.add(value.toString().trim());
+                value.setLength(0);
+            } else if (c == '\n') {
+                values.add(value.toString().trim());
+                return values;
+            } else if (c != '\r') {
+                value.append((char) c);
+            }
+        }
+        done = true;
+        if (quoted) {
+            throw new MalformedRecordException("Unterminated quoted field");
+        }
+        if (!read) {
+            return null;
+        }
+        values.add(value.toString().trim());
+        return values;
+    }
+
+    private String readLine() throws IOException {
+        StringBuilder text = new StringBuilder();
+        int c;
+        while ((c = read()) != -1) {
+            if (c == '\n') {
+                line++;
+                return text.toString();
+            }
+            if (text.length() == MAX_RECORD_CHARS) {
+                done = true;
+                throw new MalformedRecordException("Record exceeds " + MAX_RECORD_CHARS + " characters");
+            }
+            if (c != '\r') {
+                text.append((char) c);
+            }
+        }
+        done = true;
+        return text.length() == 0 ? null : text.toString();
+    }
+
+    private int read() throws IOException {
+        if (pushback != -1) {
+            int c = pushback;
+            pushback = -1;
+            return c;
+        }
+        return reader.read();
+    }
+
+    static String normalizeKey(String key) {
+        String normalized = key.toLowerCase(Locale.ROOT).replaceAll("[^a-z0-9]", "");
+        return normalized.equals("isactive") ? "active" : normalized;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    private static final class MalformedRecordException extends IOException {
+        MalformedRecordException(String message) {
+            super(message);
+        }
+    }
+}
@@ -0,0 +1,230 @@
+package com.freshtrio.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.freshtrio.dto.ImportReport;
+import com.freshtrio.dto.ProductImportRow;
+import com.freshtrio.repository.ProductImportRepository;
+import com.freshtrio.repository.ProductImportRepository.ExistingProduct;
+import com.freshtrio.repository.ProductImportRepository.UpsertedProduct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Bulk upsert of a supplier's price list, matched to existing products by supplier + name.
+ *
+ * The upload is parsed as a stream and written in chunks of app.import.chunk-size rows,
+ * each chunk in its own transaction as one statement. Caches are invalidated once per
+ * committed chunk. A failing chunk is rolled back and reported without stopping the
+ * import, so earlier and later chunks still apply.
+ */
+@Service
+public class ProductImportService {
+
+    public enum Format { CSV, NDJSON }
+
+    @Autowired
+    private ProductImportRepository importRepository;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${app.import.chunk-size:500}")
+    private int chunkSize;
+
+    @Value("${app.import.max-errors:1000}")
+    private int maxErrors;
+
+    public ImportReport importProducts(UUID supplierId, InputStream input, Format format) throws IOException {
+        if (!importRepository.supplierExists(supplierId)) {
+            throw new IllegalArgumentException("Supplier not found: " + supplierId);
+        }
+        ImportReport report = new ImportReport();
+        // Keyed by name so a repeated name within a chunk becomes one write, last line wins
+        Map<String, ProductImportRow> chunk = new LinkedHashMap<>();
+        int chunkRows = 0;
+
+        try (ProductImportReader reader = new ProductImportReader(
+                new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8)), format, objectMapper)) {
+            ProductImportReader.RawRecord record;
+            while ((record = reader.next()) != null) {
+                report.setRowsRead(report.getRowsRead() + 1);
+                if (record.error() != null) {
+                    reportError(report, record.line(), record.error());
+                    continue;
+                }
+                try {
+                    ProductImportRow row = toRow(record);
+                    chunk.put(row.name(), row);
+                    chunkRows++;
+                } catch (IllegalArgumentException e) {
+                    reportError(report, record.line(), e.getMessage());
+                    continue;
+                }
+                if (chunkRows >= chunkSize) {
+                    writeChunk(supplierId, chunk, chunkRows, report);
+                    chunk.clear();
+                    chunkRows = 0;
+                }
+            }
+        }
+        writeChunk(supplierId, chunk, chunkRows, report);
+
+        System.out.println("Product import for supplier " + supplierId + ": " + report.getRowsRead() + " rows, "
+                + report.getInserted() + " inserted, " + report.getUpdated() + " updated, "
+                + report.getFailed() + " failed");
+        return report;
+    }
+
+    private void writeChunk(UUID supplierId, Map<String, ProductImportRow> chunk, int chunkRows, ImportReport report) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        ChunkResult result;
+        try {
+            result = transactionTemplate.execute(status -> upsertChunk(supplierId, chunk));
+        } catch (DataAccessException e) {
+            String message = "Not imported, batch failed: " + e.getMostSpecificCause().getMessage();
+            for (ProductImportRow row : chunk.values()) {
+                reportError(report, row.line(), message);
+            }
+            // Rows superseded by a later line with the same name failed with it
+            report.setFailed(report.getFailed() + chunkRows - chunk.size());
+            return;
+        }
+        report.setInserted(report.getInserted() + result.inserted());
+        // A superseded row counts as an update, as if the lines had been applied in order
+        report.setUpdated(report.getUpdated() + chunkRows - result.inserted());
+        productService.evictAfterBulkWrite(result.productIds(), result.affectedCategories(), result.membershipChanged());
+    }
+
+    private ChunkResult upsertChunk(UUID supplierId, Map<String, ProductImportRow> chunk) {
+        // Only read for the previous category and visibility; ids and counts come from the write
+        Map<String, ExistingProduct> existing = importRepository.findExisting(supplierId, chunk.keySet());
+        List<UpsertedProduct> written = importRepository.upsert(supplierId, new ArrayList<>(chunk.values()));
+        List<UUID> productIds = new ArrayList<>(written.size());
+        Set<String> affectedCategories = new HashSet<>();
+        boolean membershipChanged = false;
+        int inserted = 0;
+
+        for (UpsertedProduct product : written) {
+            productIds.add(product.id());
+            if (product.category() != null) {
+                affectedCategories.add(product.category());
+            }
+            if (product.inserted()) {
+                inserted++;
+                membershipChanged |= product.active();
+                continue;
+            }
+            ExistingProduct previous = existing.get(product.name());
+            if (previous == null) {
+                // Inserted by another writer since the read, so its earlier state is unknown
+                membershipChanged = true;
+                continue;
+            }
+            if (previous.category() != null) {
+                affectedCategories.add(previous.category());
+            }
+            membershipChanged |= previous.active() != product.active()
+                    || !Objects.equals(previous.category(), product.category());
+        }
+        return new ChunkResult(inserted, productIds, affectedCategories, membershipChanged);
+    }
+
+    private ProductImportRow toRow(ProductImportReader.RawRecord record) {
+        Map<String, String> fields = record.fields();
+        String name = optional(fields, "name", 255);
+        if (name == null) {
+            throw new IllegalArgumentException("name is required");
+        }
+        return new ProductImportRow(
+                record.line(),
+                UUID.randomUUID(),
+                name,
+                optional(fields, "description", Integer.MAX_VALUE),
+                optional(fields, "category", 100),
+                parsePrice(fields.get("price")),
+                optional(fields, "unit", 20),
+                optional(fields, "imageurl", 500),
+                parseActive(fields.get("active")));
+    }
+
+    private String optional(Map<String, String> fields, String key, int maxLength) {
+        String value = fields.get(key);
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        value = value.trim();
+        if (value.length() > maxLength) {
+            throw new IllegalArgumentException(key + " exceeds " + maxLength + " characters");
+        }
+        return value;
+    }
+
+    private BigDecimal parsePrice(String value) {
+        if (value == null || value.isBlank()) {
+            throw new IllegalArgumentException("price is required");
+        }
+        BigDecimal price;
+        try {
+            price = new BigDecimal(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("price is not a number: " + value);
+        }
+        // products.price is DECIMAL(10, 2)
+        BigDecimal stripped = price.stripTrailingZeros();
+        if (price.signum() < 0 || stripped.scale() > 2 || stripped.precision() - stripped.scale() > 8) {
+            throw new IllegalArgumentException("price must be between 0 and 99999999.99 with at most 2 decimals");
+        }
+        return price.setScale(2);
+    }
+
+    private boolean parseActive(String value) {
+        if (value == null || value.isBlank()) {
+            return true;
+        }
+        return switch (value.trim().toLowerCase(Locale.ROOT)) {
+            case "true", "yes", "1" -> true;
+            case "false", "no", "0" -> false;
+            default -> throw new IllegalArgumentException("active must be true or false: " + value);
+        };
+    }
+
+    private void reportError(ImportReport report, long line, String message) {
+        report.setFailed(report.getFailed() + 1);
+        if (report.getErrors().size() < maxErrors) {
+            report.getErrors().add(new ImportReport.RowError(line, message));
+        } else {
+            report.setErrorsTruncated(true);
+        }
+    }
+
+    private record ChunkResult(int inserted, List<UUID> productIds, Set<String> affectedCategories,
+                               boolean membershipChanged) {
+    }
+}
@@ -0,0 +1,268 @@
+package com.freshtrio.service;
+
+import com.freshtrio.dto.ProductSummary;
+import com.freshtrio.dto.ProductSummaryRow;
+import com.freshtrio.repository.ProductRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-process, typo-tolerant product search, enabled with app.search.engine=memory.
+ *
+ * Names and descriptions are normalized to lowercase letters and digits with all
+ * separators removed, so "rib eye" and "ribeye" share trigrams, and are indexed as
+ * trigram posting lists. A product matches when at least min-similarity of the query's
+ * trigrams occur in its name or description, which tolerates typos such as "salmn".
+ * The index is built at startup and kept current by ProductService on every write.
+ */
+@Component
+@ConditionalOnProperty(name = "app.search.engine", havingValue = "memory")
+public class ProductSearchIndex {
+
+    private static final int NAME = 0;
+    private static final int DESCRIPTION = 1;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Value("${app.search.memory.min-similarity:0.6}")
+    private double minSimilarity;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<UUID, Integer> docByProduct = new HashMap<>();
+    private TrigramPostings postings = new TrigramPostings();
+    private IndexedProduct[] docs = new IndexedProduct[256];
+    private int docCount;
+    private int deadCount;
+    private volatile boolean ready;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        rebuild();
+    }
+
+    public void rebuild() {
+        List<ProductSummary> active = productRepository.findActiveSummaries();
+        lock.writeLock().lock();
+        try {
+            reset();
+            for (ProductSummary product : active) {
+                addDocument(new IndexedProduct(product));
+            }
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        System.out.println("Product search index built: " + active.size() + " products, "
+                + postings.trigramCount() + " trigrams");
+    }
+
+    /**
+     * Re-reads one product after a write and replaces its document. Inactive or
+     * missing products are dropped from the index.
+     */
+    public void refresh(UUID productId) {
+        Optional<ProductSummary> product = productRepository.findActiveSummaryById(productId);
+        replace(List.of(productId), product.map(List::of).orElse(List.of()));
+    }
+
+    /**
+     * Bulk variant of refresh(UUID) for imports: one query and one write-lock
+     * section for the whole batch.
+     */
+    public void refresh(Collection<UUID> productIds) {
+        if (productIds.isEmpty()) {
+            return;
+        }
+        replace(productIds, productRepository.findActiveSummariesByIds(productIds));
+    }
+
+    private void replace(Collection<UUID> productIds, List<ProductSummary> live) {
+        lock.writeLock().lock();
+        try {
+            for (UUID productId : productIds) {
+                removeDocument(productId);
+            }
+            for (ProductSummary product : live) {
+                addDocument(new IndexedProduct(product));
+            }
+            // Removed documents linger in posting lists; reclaim them once they dominate
+            if (deadCount > 64 && deadCount * 4 > docCount) {
+                compact();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns matches ranked by trigram similarity, name matches first. Returns null
+     * when the index cannot answer, i.e. before the first build or for queries shorter
+     * than one trigram, so the caller can fall back to the database search.
+     */
+    public Page<ProductSummary> search(String query, String category, Pageable pageable) {
+        String normalizedQuery = normalize(query);
+        long[] queryGrams = distinctGrams(normalizedQuery);
+        if (!ready || queryGrams.length == 0) {
+            return null;
+        }
+        String categoryFilter = category == null || category.equals("all") ? null : category;
+        int needed = (int) Math.ceil(queryGrams.length * minSimilarity);
+
+        List<Hit> hits = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            int[] nameHits = countHits(queryGrams, NAME);
+            int[] descriptionHits = countHits(queryGrams, DESCRIPTION);
+            for (int doc = 0; doc < docCount; doc++) {
+                IndexedProduct product = docs[doc];
+                if (product == null || (nameHits[doc] < needed && descriptionHits[doc] < needed)) {
+                    continue;
+                }
+                if (categoryFilter != null && !categoryFilter.equals(product.getCategory())) {
+                    continue;
+                }
+                double score = (double) nameHits[doc] / queryGrams.length
+                        + 0.5 * descriptionHits[doc] / queryGrams.length
+                        + (product.normalizedName.contains(normalizedQuery) ? 1.0 : 0.0);
+                hits.add(new Hit(product, score));
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        hits.sort(Comparator.comparingDouble(Hit::score).reversed()
+                .thenComparing(hit -> hit.product().getName()));
+        List<ProductSummary> content = new ArrayList<>();
+        int from = pageable.isPaged() ? (int) Math.min(pageable.getOffset(), hits.size()) : 0;
+        int to = pageable.isPaged() ? Math.min(from + pageable.getPageSize(), hits.size()) : hits.size();
+        for (Hit hit : hits.subList(from, to)) {
+            content.add(hit.product());
+        }
+        return new PageImpl<>(content, pageable, hits.size());
+    }
+
+    private int[] countHits(long[] queryGrams, int field) {
+        int[] hits = new int[docCount];
+        for (long gram : queryGrams) {
+            int slot = postings.slotOf(TrigramPostings.key(field, gram));
+            if (slot < 0) {
+                continue;
+            }
+            int[] list = postings.postings(slot);
+            int size = postings.size(slot);
+            for (int i = 0; i < size; i++) {
+                hits[list[i]]++;
+            }
+        }
+        return hits;
+    }
+
+    private void addDocument(IndexedProduct product) {
+        if (docCount == docs.length) {
+            docs = Arrays.copyOf(docs, docs.length * 2);
+        }
+        int doc = docCount++;
+        docs[doc] = product;
+        docByProduct.put(product.getId(), doc);
+        for (long gram : distinctGrams(product.normalizedName)) {
+            postings.add(TrigramPostings.key(NAME, gram), doc);
+        }
+        for (long gram : distinctGrams(normalize(product.getDescription()))) {
+            postings.add(TrigramPostings.key(DESCRIPTION, gram), doc);
+        }
+    }
+
+    private void removeDocument(UUID productId) {
+        Integer doc = docByProduct.remove(productId);
+        if (doc != null) {
+            docs[doc] = null;
+            deadCount++;
+        }
+    }
+
+    private void compact() {
+        IndexedProduct[] live = Arrays.copyOf(docs, docCount);
+        reset();
+        for (IndexedProduct product : live) {
+            if (product != null) {
+                addDocument(product);
+            }
+        }
+    }
+
+    private void reset() {
+        postings = new TrigramPostings();
+        docs = new IndexedProduct[256];
+        docByProduct.clear();
+        docCount = 0;
+        deadCount = 0;
+    }
+
+    static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        StringBuilder normalized = new StringBuilder(text.length());
+        String lower = text.toLowerCase(Locale.ROOT);
+        for (int i = 0; i < lower.length(); i++) {
+            char c = lower.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                normalized.append(c);
+            }
+        }
+        return normalized.toString();
+    }
+
+    static long[] distinctGrams(String normalized) {
+        if (normalized.length() < 3) {
+            return new long[0];
+        }
+        long[] grams = new long[normalized.length() - 2];
+        for (int i = 0; i < grams.length; i++) {
+            grams[i] = TrigramPostings.gram(normalized.charAt(i), normalized.charAt(i + 1), normalized.charAt(i + 2));
+        }
+        Arrays.sort(grams);
+        int distinct = 0;
+        for (int i = 0; i < grams.length; i++) {
+            if (i == 0 || grams[i] != grams[i - 1]) {
+                grams[distinct++] = grams[i];
+            }
+        }
+        return Arrays.copyOf(grams, distinct);
+    }
+
+    private record Hit(IndexedProduct product, double score) {
+    }
+
+    /**
+     * Detached copy of a listing row with its name pre-normalized for scoring.
+     */
+    static final class IndexedProduct extends ProductSummaryRow {
+        private final String normalizedName;
+
+        IndexedProduct(ProductSummary source) {
+            super(source);
+            this.normalizedName = normalize(source.getName());
+        }
+    }
+}
@@ -1,69 +1,366 @@
 package com.freshtrio.service;
 
+import com.freshtrio.dto.CursorPage;
+import com.freshtrio.dto.FacetedSearchResult;
+import com.freshtrio.dto.ProductBatch;
+import com.freshtrio.dto.ProductChange;
+import com.freshtrio.dto.ProductChanges;
+import com.freshtrio.dto.ProductSearchFilter;
+import com.freshtrio.dto.ProductSummary;
 import com.freshtrio.entity.Product;
+import com.freshtrio.repository.ProductFacetRepository;
 import com.freshtrio.repository.ProductRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 
+import java.math.BigDecimal;
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 
 @Service
 public class ProductService {
+
+    public static final int MAX_CURSOR_PAGE_SIZE = 100;
+    public static final int MAX_BATCH_SIZE = 250;
+    public static final int MAX_CHANGES_PAGE_SIZE = 1000;
     
     @Autowired
     private ProductRepository productRepository;
+
+    @Autowired
+    private ProductCache productCache;
+
+    @Autowired
+    private CatalogVersion catalogVersion;
+
+    @Autowired
+    private CategoryService categoryService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    // Only present with app.search.engine=memory
+    @Autowired(required = false)
+    private ProductSearchIndex searchIndex;
+
+    @Autowired
+    private ProductFacetRepository facetRepository;
+
+    @Value("${app.search.facets.price-bands:10,20,30,50}")
+    private BigDecimal[] priceBands;
+
+    @Value("${app.sync.settle-time:10s}")
+    private Duration syncSettleTime;
+
+    @Value("${app.search.full-text:true}")
+    private boolean fullTextSearchEnabled;
+
+    @Value("${app.search.min-query-length:3}")
+    private int minQueryLength;
     
-    public Page<Product> getAllProducts(String category, Pageable pageable) {
-        if (category == null || category.equals("all")) {
-            return productRepository.findByIsActiveTrue(pageable);
-        } else {
-            return productRepository.findByCategoryAndIsActiveTrue(category, pageable);
-        }
+    public Page<ProductSummary> getAllProducts(String category, Pageable pageable) {
+        return productCache.getPage(category, pageable, () -> {
+            String categoryFilter = category == null || category.equals("all") ? null : category;
+            return productRepository.findSummaries(categoryFilter, pageable);
+        });
     }
 
+    /**
+     * The cached instance is shared between requests: it is loaded with its supplier
+     * already fetched, so it carries no lazy proxy, and callers must not modify it.
+     */
     public Optional<Product> getProductById(UUID id) {
-        return productRepository.findById(id);
+        return Optional.ofNullable(productCache.getProduct(id, key -> productRepository.findDetailById(key).orElse(null)));
     }
 
-    public List<String> getCategories() {
-        List<String> categories = new ArrayList<>();
-        categories.add("all");
-        categories.addAll(productRepository.findDistinctCategories());
-        return categories;
+    /**
+     * Resolves many products in one query, e.g. every line of a cart. Results follow the
+     * request order with duplicate ids collapsed; unknown and inactive ids are reported
+     * separately. A second query runs only when some ids were not found active.
+     */
+    public ProductBatch getProductsByIds(List<UUID> ids) {
+        Set<UUID> requested = new LinkedHashSet<>(ids);
+        if (requested.size() > MAX_BATCH_SIZE) {
+            throw new IllegalArgumentException("At most " + MAX_BATCH_SIZE + " ids per request");
+        }
+        if (requested.isEmpty()) {
+            return new ProductBatch(List.of(), List.of(), List.of());
+        }
+
+        Map<UUID, ProductSummary> found = new HashMap<>();
+        for (ProductSummary product : productRepository.findActiveSummariesByIds(requested)) {
+            found.put(product.getId(), product);
+        }
+        List<ProductSummary> products = new ArrayList<>(found.size());
+        List<UUID> notFound = new ArrayList<>();
+        for (UUID id : requested) {
+            ProductSummary product = found.get(id);
+            if (product != null) {
+                products.add(product);
+            } else {
+                notFound.add(id);
+            }
+        }
+        if (notFound.isEmpty()) {
+            return new ProductBatch(products, List.of(), List.of());
+        }
+
+        Set<UUID> inactiveIds = new HashSet<>(productRepository.findInactiveIds(notFound));
+        List<UUID> missing = new ArrayList<>();
+        List<UUID> inactive = new ArrayList<>();
+        for (UUID id : notFound) {
+            if (inactiveIds.contains(id)) {
+                inactive.add(id);
+            } else {
+                missing.add(id);
+            }
+        }
+        return new ProductBatch(products, missing, inactive);
     }
 
-    public Page<Product> searchProducts(String query, Pageable pageable) {
-        return productRepository.searchProducts(query, pageable);
+    public Page<ProductSummary> searchProducts(String query, Pageable pageable) {
+        Page<ProductSummary> indexed = searchIndex != null ? searchIndex.search(query, null, pageable) : null;
+        if (indexed != null) {
+            return indexed;
+        }
+        String tsQuery = toPrefixTsQuery(query);
+        if (tsQuery == null) {
+            return productRepository.searchProducts(query, pageable);
+        }
+        return productRepository.fullTextSearch(tsQuery, rankedPageable(pageable));
     }
     
-    public Page<Product> searchProductsByCategory(String query, String category, Pageable pageable) {
+    public Page<ProductSummary> searchProductsByCategory(String query, String category, Pageable pageable) {
         if (category == null || category.equals("all")) {
             return searchProducts(query, pageable);
-        } else {
+        }
+        Page<ProductSummary> indexed = searchIndex != null ? searchIndex.search(query, category, pageable) : null;
+        if (indexed != null) {
+            return indexed;
+        }
+        String tsQuery = toPrefixTsQuery(query);
+        if (tsQuery == null) {
             return productRepository.searchProductsByCategory(query, category, pageable);
         }
+        return productRepository.fullTextSearchByCategory(tsQuery, category, rankedPageable(pageable));
+    }
+    
+    /**
+     * Search with facet counts for the product list screen: one query for the page and
+     * one grouped query for every facet and the total, instead of a request per chip.
+     * The text query is optional, so this also serves plain filtered browsing.
+     */
+    public FacetedSearchResult facetedSearch(ProductSearchFilter filter, Pageable pageable) {
+        if (filter.category() != null && filter.category().equals("all")) {
+            filter = new ProductSearchFilter(filter.query(), null, filter.minPrice(), filter.maxPrice(), filter.supplierId());
+        }
+        String tsQuery = toPrefixTsQuery(filter.query());
+        Pageable page = pageable.isPaged() ? pageable : PageRequest.of(0, 20);
+
+        ProductFacetRepository.FacetCounts facets = facetRepository.countFacets(filter, tsQuery, priceBands);
+        // Nothing to fetch when nothing matches or the page starts past the last match
+        List<ProductSummary> content = page.getOffset() >= facets.total() ? List.of()
+                : facetRepository.findPage(filter, tsQuery, page.getOffset(), page.getPageSize());
+        return new FacetedSearchResult(new PageImpl<>(content, page, facets.total()),
+                facets.categories(), facets.priceBands(), facets.suppliers());
+    }
+
+    /**
+     * Keyset-paginated listing. Unlike getAllProducts this never issues a COUNT and
+     * costs the same on any page, since each slice seeks from the previous cursor.
+     */
+    public CursorPage<ProductSummary> scrollProducts(String category, ProductCursor.Order order, String cursor, int size) {
+        String categoryFilter = category == null || category.equals("all") ? null : category;
+        ProductCursor after = cursor == null ? null : ProductCursor.decode(cursor, order);
+        int limit = clampCursorPageSize(size);
+        Pageable fetch = PageRequest.of(0, limit + 1);
+
+        List<ProductSummary> rows;
+        if (order == ProductCursor.Order.NAME) {
+            rows = after == null
+                    ? productRepository.findOrderedByName(categoryFilter, fetch)
+                    : productRepository.findOrderedByNameAfter(categoryFilter, after.key(), after.id(), fetch);
+        } else {
+            rows = after == null
+                    ? productRepository.findNewestFirst(categoryFilter, fetch)
+                    : productRepository.findNewestFirstAfter(categoryFilter, after.createdAt(), after.id(), fetch);
+        }
+        return toCursorPage(rows, limit, order);
+    }
+
+    /**
+     * Keyset-paginated search ordered by name. Uses the full-text index when the query
+     * is long enough, like searchProducts, and the LIKE search otherwise.
+     */
+    public CursorPage<ProductSummary> scrollSearch(String query, String cursor, int size) {
+        ProductCursor after = cursor == null ? null : ProductCursor.decode(cursor, ProductCursor.Order.NAME);
+        int limit = clampCursorPageSize(size);
+        Pageable fetch = PageRequest.of(0, limit + 1);
+        String tsQuery = toPrefixTsQuery(query);
+
+        List<ProductSummary> rows;
+        if (tsQuery != null) {
+            rows = after == null
+                    ? productRepository.fullTextSearchByName(tsQuery, fetch)
+                    : productRepository.fullTextSearchByNameAfter(tsQuery, after.key(), after.id(), fetch);
+        } else {
+            rows = after == null
+                    ? productRepository.searchProductsByName(query, fetch)
+                    : productRepository.searchProductsByNameAfter(query, after.key(), after.id(), fetch);
+        }
+        return toCursorPage(rows, limit, ProductCursor.Order.NAME);
+    }
+    
+    /**
+     * Delta sync: products created, updated or deactivated after the given token, oldest
+     * change first. Without a token this is a full download of the active catalog.
+     *
+     * Changes younger than app.sync.settle-time are held back until the next sync, so a
+     * row stamped just before the horizon but committed just after it is not skipped.
+     */
+    public ProductChanges getChanges(String since, int size) {
+        ChangeToken after = since == null ? null : ChangeToken.decode(since);
+        int limit = Math.max(1, Math.min(size, MAX_CHANGES_PAGE_SIZE));
+        Pageable fetch = PageRequest.of(0, limit + 1);
+        long settleSeconds = syncSettleTime.toSeconds();
+
+        List<ProductChange> rows = after == null
+                ? productRepository.findChanges(settleSeconds, fetch)
+                : productRepository.findChangesAfter(after.updatedAt(), after.id(), settleSeconds, fetch);
+        boolean hasMore = rows.size() > limit;
+        List<ProductChange> changes = hasMore ? rows.subList(0, limit) : rows;
+        if (changes.isEmpty()) {
+            // Nothing new: the client keeps its position
+            return new ProductChanges(changes, since, false);
+        }
+        ProductChange last = changes.get(changes.size() - 1);
+        return new ProductChanges(changes, new ChangeToken(last.getUpdatedAt(), last.getId()).encode(), hasMore);
     }
     
     // Admin methods for managing products
     public Product saveProduct(Product product) {
-        return productRepository.save(product);
+        Product previous = product.getId() == null ? null : productRepository.findById(product.getId()).orElse(null);
+        String previousCategory = previous != null ? previous.getCategory() : null;
+        Boolean previouslyActive = previous != null ? previous.getIsActive() : null;
+
+        Product saved = productRepository.save(product);
+        evictAfterWrite(saved, previousCategory, previouslyActive);
+        return saved;
     }
     
     public void deleteProduct(UUID id) {
         Optional<Product> product = productRepository.findById(id);
         if (product.isPresent()) {
             Product p = product.get();
+            Boolean previouslyActive = p.getIsActive();
             p.setIsActive(false); // Soft delete
             productRepository.save(p);
+            evictAfterWrite(p, p.getCategory(), previouslyActive);
         }
     }
     
     public List<Product> getAllProductsIncludingInactive() {
         return productRepository.findAll();
     }
-}
\ No newline at end of file
+
+    /**
+     * Builds a to_tsquery expression that ANDs the query terms and prefix-matches the last
+     * one, so "rib ey" matches "ribeye steak" while the user is still typing. Returns null
+     * when full-text search is disabled or the query is too short, in which case callers
+     * fall back to the LIKE search.
+     */
+    String toPrefixTsQuery(String query) {
+        if (!fullTextSearchEnabled || query == null || query.trim().length() < minQueryLength) {
+            return null;
+        }
+        // Only letters and digits reach to_tsquery, so user input can't inject tsquery operators
+        String[] terms = query.toLowerCase().split("[^\\p{L}\\p{N}]+");
+        StringBuilder tsQuery = new StringBuilder();
+        for (String term : terms) {
+            if (term.isEmpty()) {
+                continue;
+            }
+            if (tsQuery.length() > 0) {
+                tsQuery.append(" & ");
+            }
+            tsQuery.append(term);
+        }
+        return tsQuery.length() == 0 ? null : tsQuery.append(":*").toString();
+    }
+
+    private int clampCursorPageSize(int size) {
+        return Math.max(1, Math.min(size, MAX_CURSOR_PAGE_SIZE));
+    }
+
+    // One extra row is fetched to learn whether another slice exists without counting
+    private CursorPage<ProductSummary> toCursorPage(List<ProductSummary> rows, int limit, ProductCursor.Order order) {
+        boolean hasNext = rows.size() > limit;
+        List<ProductSummary> content = hasNext ? rows.subList(0, limit) : rows;
+        String nextCursor = hasNext ? ProductCursor.after(order, content.get(content.size() - 1)).encode() : null;
+        return new CursorPage<>(content, nextCursor, hasNext);
+    }
+
+    // Results are ordered by ts_rank in the query itself; a client sort would override relevance
+    private Pageable rankedPageable(Pageable pageable) {
+        return pageable.isPaged() ? PageRequest.of(pageable.getPageNumber(), pageable.getPageSize()) : pageable;
+    }
+
+    /**
+     * Evicts only the cache entries a write can affect: the product itself, the
+     * listing pages of its old and new category, and the category snapshot when
+     * category membership may have changed. previouslyActive is null for new products.
+     * Also bumps the catalog version so outstanding ETags stop matching.
+     */
+    private void evictAfterWrite(Product saved, String previousCategory, Boolean previouslyActive) {
+        Set<String> affectedCategories = new HashSet<>();
+        if (saved.getCategory() != null) {
+            affectedCategories.add(saved.getCategory());
+        }
+        if (previousCategory != null) {
+            affectedCategories.add(previousCategory);
+        }
+        boolean membershipChanged = previouslyActive == null
+                || !Objects.equals(previouslyActive, saved.getIsActive())
+                || !Objects.equals(previousCategory, saved.getCategory());
+        evictAfterBulkWrite(List.of(saved.getId()), affectedCategories, membershipChanged);
+    }
+
+    /**
+     * Invalidation for a batch of writes, applied once for the whole batch: evicts the
+     * given products and the listing pages of the affected categories, rebuilds the
+     * category snapshot only when membership may have changed, then bumps the catalog
+     * version. The bump comes last, so a client handed the new ETag can no longer be
+     * served anything cached from before the write.
+     */
+    public void evictAfterBulkWrite(Collection<UUID> productIds, Set<String> affectedCategories, boolean membershipChanged) {
+        for (UUID productId : productIds) {
+            productCache.evictProduct(productId);
+        }
+        if (searchIndex != null) {
+            searchIndex.refresh(productIds);
+        }
+        productCache.evictPages(affectedCategories);
+
+        if (membershipChanged) {
+            categoryService.refresh();
+        }
+        catalogVersion.bump();
+        eventPublisher.publishEvent(new CatalogChangedEvent(this));
+    }
+}
@@ -0,0 +1,112 @@
+package com.freshtrio.service;
+
+import com.freshtrio.dto.CategorySummary;
+import com.freshtrio.dto.ProductSummary;
+import com.freshtrio.dto.Suggestion;
+import com.freshtrio.repository.ProductRepository;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Autocomplete for the search box, served from an immutable PrefixTrie.
+ *
+ * The trie holds category display names (ranked by product count) ahead of active
+ * product names. It is rebuilt on a single background thread after catalog writes and
+ * swapped in atomically; bursts of writes collapse into one rebuild. Each trie records
+ * the catalog version read before its data was loaded, which the suggest endpoint uses
+ * as its ETag, so a response is never labelled newer than the trie behind it.
+ */
+@Service
+public class SuggestService {
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CategoryService categoryService;
+
+    @Autowired
+    private CatalogVersion catalogVersion;
+
+    @Value("${app.suggest.max-results:10}")
+    private int maxResults;
+
+    private final ExecutorService rebuildExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "suggest-rebuild");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicBoolean rebuildPending = new AtomicBoolean();
+    private volatile Index index = new Index(0, PrefixTrie.EMPTY);
+
+    public List<Suggestion> suggest(String prefix, int limit) {
+        return index.trie().suggest(prefix, Math.max(1, Math.min(limit, maxResults)));
+    }
+
+    /**
+     * The catalog version the current trie was built from; 0 before the first build.
+     */
+    public long version() {
+        return index.version();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        requestRebuild();
+    }
+
+    @EventListener
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        requestRebuild();
+    }
+
+    /**
+     * Schedules a rebuild unless one is already queued; the queued rebuild will read
+     * the catalog after this write, so it covers it.
+     */
+    public void requestRebuild() {
+        if (rebuildPending.compareAndSet(false, true)) {
+            rebuildExecutor.execute(() -> {
+                rebuildPending.set(false);
+                try {
+                    rebuild();
+                } catch (Exception e) {
+                    System.err.println("Failed to rebuild suggestion trie: " + e.getMessage());
+                }
+            });
+        }
+    }
+
+    void rebuild() {
+        // Read first: a write during the rebuild leaves this trie's version behind the catalog's
+        long version = catalogVersion.current();
+        PrefixTrie.Builder builder = new PrefixTrie.Builder(maxResults);
+        // Insertion order is rank: busiest categories first, then products alphabetically
+        categoryService.getCategories().stream()
+                .filter(category -> !CategoryService.ALL.equals(category.name()))
+                .sorted(Comparator.comparingLong(CategorySummary::productCount).reversed())
+                .forEach(category -> builder.add(Suggestion.category(category.displayName(), category.name())));
+        productRepository.findActiveSummaries().stream()
+                .sorted(Comparator.comparing(ProductSummary::getName, String.CASE_INSENSITIVE_ORDER))
+                .forEach(product -> builder.add(Suggestion.product(product.getName(), product.getCategory(), product.getId())));
+        index = new Index(version, builder.build());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        rebuildExecutor.shutdownNow();
+    }
+
+    private record Index(long version, PrefixTrie trie) {
+    }
+}
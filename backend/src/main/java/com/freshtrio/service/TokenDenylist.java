@@ -0,0 +1,195 @@
+package com.freshtrio.service;
+
+import com.freshtrio.entity.RevokedToken;
+import com.freshtrio.repository.RevokedTokenRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Access tokens revoked before their expiry, by jti.
+ *
+ * Every authenticated request asks isRevoked, so the check never touches the database:
+ * a Bloom filter answers "not revoked" for almost every token with a few bit reads,
+ * and only its rare positives fall through to an in-memory map. Each entry expires
+ * when its token would have. The revoked_tokens table is the durable copy; it is
+ * loaded at startup and re-read periodically, which also picks up logouts handled
+ * by other instances, and expired rows are deleted at the same time.
+ */
+@Service
+public class TokenDenylist {
+
+    // Rough heap cost of one map entry: Caffeine's expiring node, the UUID key and the Instant value
+    static final long ESTIMATED_ENTRY_BYTES = 160;
+
+    @Autowired
+    private RevokedTokenRepository revokedTokenRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${app.jwt.denylist.expected-revocations:100000}")
+    private int expectedRevocations;
+
+    @Value("${app.jwt.denylist.false-positive-rate:0.01}")
+    private double falsePositiveRate;
+
+    @Value("${app.jwt.denylist.sync-interval:1m}")
+    private Duration syncInterval;
+
+    private final Object lock = new Object();
+    private Cache<UUID, Instant> revoked;
+    private volatile BloomFilter filter;
+    private Counter revocations;
+    private Counter rejections;
+    private Timer persistTime;
+    private ScheduledExecutorService syncExecutor;
+
+    @PostConstruct
+    public void init() {
+        revoked = Caffeine.newBuilder()
+                .expireAfter(new Expiry<UUID, Instant>() {
+                    @Override
+                    public long expireAfterCreate(UUID jti, Instant expiresAt, long currentTime) {
+                        return Math.max(0, Duration.between(Instant.now(), expiresAt).toNanos());
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(UUID jti, Instant expiresAt, long currentTime, long currentDuration) {
+                        return expireAfterCreate(jti, expiresAt, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(UUID jti, Instant expiresAt, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
+        filter = new BloomFilter(expectedRevocations, falsePositiveRate);
+
+        revocations = Counter.builder("auth.tokens.revoked")
+                .description("Access tokens revoked at logout")
+                .register(meterRegistry);
+        rejections = Counter.builder("auth.tokens.rejected")
+                .description("Requests rejected because their token was revoked")
+                .register(meterRegistry);
+        persistTime = Timer.builder("auth.tokens.revoke.persist")
+                .description("Time to record a revocation in the database")
+                .register(meterRegistry);
+        Gauge.builder("auth.denylist.size", this, TokenDenylist::size)
+                .description("Revoked tokens that have not expired yet")
+                .register(meterRegistry);
+        Gauge.builder("auth.denylist.memory", this, TokenDenylist::estimatedBytes)
+                .description("Estimated heap held by the denylist and its Bloom filter")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("auth.denylist.memory.per.token", this,
+                        denylist -> denylist.size() == 0 ? 0 : (double) denylist.estimatedBytes() / denylist.size())
+                .description("Estimated heap per revoked token, including the filter's share")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+
+        sync();
+        syncExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "token-denylist-sync");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long intervalMillis = syncInterval.toMillis();
+        syncExecutor.scheduleWithFixedDelay(this::sync, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (syncExecutor != null) {
+            syncExecutor.shutdownNow();
+        }
+    }
+
+    /**
+     * Revokes the token with this jti until it expires. Takes effect on this instance
+     * immediately, even if the database write fails.
+     */
+    public void revoke(UUID jti, Instant expiresAt) {
+        if (!expiresAt.isAfter(Instant.now())) {
+            return;
+        }
+        remember(List.of(new RevokedToken(jti, expiresAt)));
+        revocations.increment();
+        try {
+            persistTime.record(() -> {
+                revokedTokenRepository.save(new RevokedToken(jti, expiresAt));
+            });
+        } catch (DataAccessException e) {
+            System.err.println("Failed to persist token revocation " + jti + ": " + e.getMessage());
+        }
+    }
+
+    public boolean isRevoked(UUID jti) {
+        if (!filter.mightContain(jti)) {
+            return false;
+        }
+        if (revoked.getIfPresent(jti) == null) {
+            return false;
+        }
+        rejections.increment();
+        return true;
+    }
+
+    public long size() {
+        return revoked.estimatedSize();
+    }
+
+    long estimatedBytes() {
+        return filter.sizeInBytes() + size() * ESTIMATED_ENTRY_BYTES;
+    }
+
+    /**
+     * Deletes expired rows, loads revocations recorded by any instance, and rebuilds
+     * the filter so the bits of expired tokens stop producing positives.
+     */
+    void sync() {
+        try {
+            Instant now = Instant.now();
+            revokedTokenRepository.deleteExpired(now);
+            remember(revokedTokenRepository.findByExpiresAtAfter(now));
+        } catch (RuntimeException e) {
+            // Keep going on what is in memory; a scheduled task that throws is never run again
+            System.err.println("Failed to sync token denylist: " + e.getMessage());
+        }
+        synchronized (lock) {
+            revoked.cleanUp();
+            BloomFilter rebuilt = new BloomFilter(Math.max(expectedRevocations, (int) size()), falsePositiveRate);
+            revoked.asMap().keySet().forEach(rebuilt::add);
+            filter = rebuilt;
+        }
+    }
+
+    private void remember(List<RevokedToken> tokens) {
+        // Held while adding so a concurrent rebuild cannot swap in a filter that misses these
+        synchronized (lock) {
+            for (RevokedToken token : tokens) {
+                revoked.put(token.getJti(), token.getExpiresAt());
+                filter.add(token.getJti());
+            }
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.freshtrio.service;
+
+import java.util.Arrays;
+
+/**
+ * Trigram to document-number posting lists, stored in primitive arrays.
+ *
+ * Keys live in an open-addressing long table; each slot owns a growable int[] of
+ * document numbers in insertion order. Nothing is boxed, so a catalog of tens of
+ * thousands of products costs a few int arrays rather than millions of Integers.
+ * Not thread-safe; ProductSearchIndex guards it with a read/write lock.
+ */
+final class TrigramPostings {
+
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private long[] keys = new long[INITIAL_CAPACITY];
+    private int[][] postings = new int[INITIAL_CAPACITY][];
+    private int[] sizes = new int[INITIAL_CAPACITY];
+    private int used;
+
+    /**
+     * Packs three chars into the low 48 bits of a long.
+     */
+    static long gram(char c0, char c1, char c2) {
+        return ((long) c0 << 32) | ((long) c1 << 16) | c2;
+    }
+
+    /**
+     * Tags a gram with the field it came from; the result is never zero.
+     */
+    static long key(int field, long gram) {
+        return ((long) (field + 1) << 48) | gram;
+    }
+
+    void add(long key, int doc) {
+        if ((used + 1) * 2 > keys.length) {
+            resize(keys.length * 2);
+        }
+        int slot = probe(keys, key);
+        if (keys[slot] == 0) {
+            keys[slot] = key;
+            postings[slot] = new int[4];
+            used++;
+        } else if (sizes[slot] == postings[slot].length) {
+            postings[slot] = Arrays.copyOf(postings[slot], sizes[slot] * 2);
+        }
+        postings[slot][sizes[slot]++] = doc;
+    }
+
+    /**
+     * Returns the slot holding the key, or -1 when no document contains it.
+     */
+    int slotOf(long key) {
+        int slot = probe(keys, key);
+        return keys[slot] == 0 ? -1 : slot;
+    }
+
+    int[] postings(int slot) {
+        return postings[slot];
+    }
+
+    int size(int slot) {
+        return sizes[slot];
+    }
+
+    int trigramCount() {
+        return used;
+    }
+
+    private static int probe(long[] table, long key) {
+        int mask = table.length - 1;
+        int slot = (int) (mix(key) & mask);
+        while (table[slot] != 0 && table[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private static long mix(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return h ^ (h >>> 32);
+    }
+
+    private void resize(int capacity) {
+        long[] oldKeys = keys;
+        int[][] oldPostings = postings;
+        int[] oldSizes = sizes;
+        keys = new long[capacity];
+        postings = new int[capacity][];
+        sizes = new int[capacity];
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != 0) {
+                int slot = probe(keys, oldKeys[i]);
+                keys[slot] = oldKeys[i];
+                postings[slot] = oldPostings[i];
+                sizes[slot] = oldSizes[i];
+            }
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package com.freshtrio.service;
+
+import com.freshtrio.entity.User;
+import com.freshtrio.repository.UserRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Bounded near cache in front of UserRepository for the auth flows.
+ *
+ * Users are held by email and by id. A lookup that finds nobody is cached as well,
+ * for a much shorter time, so repeated registrations and refreshes for an unknown
+ * email do not each reach the database. Every write goes through save, which puts
+ * the saved user under both keys; a failed write evicts instead, since the caller
+ * may already have changed the cached instance.
+ *
+ * Writes made elsewhere (another instance, or UserRepository directly) are seen once
+ * the entry expires, so the TTLs bound how stale a profile can be.
+ */
+@Component
+public class UserCache {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${app.cache.users.max-size:10000}")
+    private long maxSize;
+
+    @Value("${app.cache.users.ttl:5m}")
+    private Duration ttl;
+
+    @Value("${app.cache.users.negative-ttl:30s}")
+    private Duration negativeTtl;
+
+    private Cache<String, Optional<User>> byEmail;
+    private Cache<UUID, User> byId;
+
+    @PostConstruct
+    public void init() {
+        byEmail = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new Expiry<String, Optional<User>>() {
+                    @Override
+                    public long expireAfterCreate(String email, Optional<User> user, long currentTime) {
+                        return (user.isPresent() ? ttl : negativeTtl).toNanos();
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String email, Optional<User> user, long currentTime,
+                                                  long currentDuration) {
+                        return expireAfterCreate(email, user, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(String email, Optional<User> user, long currentTime,
+                                                long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+        byId = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, byEmail, "usersByEmail");
+        CaffeineCacheMetrics.monitor(meterRegistry, byId, "usersById");
+    }
+
+    public Optional<User> findByEmail(String email) {
+        return byEmail.get(email, key -> {
+            Optional<User> user = userRepository.findByEmail(key);
+            user.filter(found -> found.getId() != null).ifPresent(found -> byId.put(found.getId(), found));
+            return user;
+        });
+    }
+
+    public Optional<User> findById(UUID id) {
+        // Unknown ids are not cached; ids come from tokens we issued, so misses are rare
+        User user = byId.get(id, key -> userRepository.findById(key).orElse(null));
+        if (user != null) {
+            byEmail.put(user.getEmail(), Optional.of(user));
+        }
+        return Optional.ofNullable(user);
+    }
+
+    /**
+     * Returns the user only if already cached; never queries. Negative entries read as
+     * empty too, since the caller is about to write anyway.
+     */
+    public Optional<User> peek(String email) {
+        Optional<User> cached = byEmail.getIfPresent(email);
+        return cached == null ? Optional.empty() : cached;
+    }
+
+    /**
+     * Creates or links a user signing in through an external provider with a single
+     * upsert (see UserRepository.provisionExternalUser) and caches the returned row.
+     */
+    public User provision(String email, String firstName, String lastName, String phone, String externalId,
+                          User.AuthProvider authProvider, boolean relinkProvider) {
+        User user;
+        try {
+            user = userRepository.provisionExternalUser(email, firstName, lastName, phone, externalId,
+                    authProvider.name(), relinkProvider);
+        } catch (RuntimeException e) {
+            byEmail.invalidate(email);
+            throw e;
+        }
+        put(user);
+        return user;
+    }
+
+    /**
+     * Saves through the repository and caches the result, replacing any negative
+     * entry for the email.
+     */
+    public User save(User user) {
+        User saved;
+        try {
+            saved = userRepository.save(user);
+        } catch (RuntimeException e) {
+            evict(user);
+            throw e;
+        }
+        if (saved != null) {
+            put(saved);
+        }
+        return saved;
+    }
+
+    public void evict(User user) {
+        if (user.getEmail() != null) {
+            byEmail.invalidate(user.getEmail());
+        }
+        if (user.getId() != null) {
+            byId.invalidate(user.getId());
+        }
+    }
+
+    public void invalidateAll() {
+        byEmail.invalidateAll();
+        byId.invalidateAll();
+    }
+
+    private void put(User user) {
+        if (user.getEmail() != null) {
+            byEmail.put(user.getEmail(), Optional.of(user));
+        }
+        if (user.getId() != null) {
+            byId.put(user.getId(), user);
+        }
+    }
+}
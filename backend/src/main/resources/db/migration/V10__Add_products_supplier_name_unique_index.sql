@@ -0,0 +1,15 @@
+-- Bulk imports upsert products by supplier + name (INSERT ... ON CONFLICT), which needs a unique index.
+-- Existing duplicates are kept (orders may reference them) but renamed and deactivated,
+-- leaving the most recently updated row as the one imports match.
+UPDATE products p
+SET name = left(p.name, 200) || ' (duplicate ' || p.id || ')',
+    is_active = false
+FROM products newer
+WHERE p.supplier_id = newer.supplier_id
+  AND p.name = newer.name
+  AND (coalesce(p.updated_at, '-infinity'), p.id) < (coalesce(newer.updated_at, '-infinity'), newer.id);
+
+CREATE UNIQUE INDEX idx_products_supplier_name ON products(supplier_id, name);
+
+-- The unique index leads with supplier_id, so the single-column index is redundant
+DROP INDEX IF EXISTS idx_products_supplier_id;
@@ -0,0 +1,19 @@
+-- Delta sync (GET /api/products/changes) pages through products by (updated_at, id)
+UPDATE products SET updated_at = COALESCE(created_at, CURRENT_TIMESTAMP) WHERE updated_at IS NULL;
+ALTER TABLE products ALTER COLUMN updated_at SET DEFAULT CURRENT_TIMESTAMP;
+ALTER TABLE products ALTER COLUMN updated_at SET NOT NULL;
+
+CREATE INDEX idx_products_updated_at ON products(updated_at, id);
+
+-- Stamp every insert and update, whichever code path writes the row. clock_timestamp() rather than
+-- now() so a row is stamped when it is written, not when its (possibly long) transaction began.
+CREATE OR REPLACE FUNCTION set_products_updated_at() RETURNS trigger AS $$
+BEGIN
+    NEW.updated_at = clock_timestamp();
+    RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER trg_products_updated_at
+    BEFORE INSERT OR UPDATE ON products
+    FOR EACH ROW EXECUTE FUNCTION set_products_updated_at();
@@ -0,0 +1,8 @@
+-- Access tokens revoked at logout, by their jti. Rows are only needed until the token would
+-- have expired anyway; TokenDenylist deletes them after that and keeps the rest in memory.
+CREATE TABLE revoked_tokens (
+    jti UUID PRIMARY KEY,
+    expires_at TIMESTAMP WITH TIME ZONE NOT NULL
+);
+
+CREATE INDEX idx_revoked_tokens_expires_at ON revoked_tokens(expires_at);
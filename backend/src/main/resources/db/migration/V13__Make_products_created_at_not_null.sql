@@ -0,0 +1,3 @@
+-- Keyset pagination (newest first) seeks on (created_at, id), which needs a value on every row
+UPDATE products SET created_at = COALESCE(updated_at, CURRENT_TIMESTAMP) WHERE created_at IS NULL;
+ALTER TABLE products ALTER COLUMN created_at SET NOT NULL;
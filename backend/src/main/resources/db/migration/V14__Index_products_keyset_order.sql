@@ -0,0 +1,8 @@
+-- Keyset pagination seeks with (created_at, id) < (?, ?) and (name, id) > (?, ?). With the id in the
+-- index the whole row comparison is one index range, not a scan filtered on id
+CREATE INDEX idx_products_created_at_id ON products(created_at DESC, id DESC);
+CREATE INDEX idx_products_name_id ON products(name, id);
+
+-- Both are covered by the composite indexes above
+DROP INDEX idx_products_created_at;
+DROP INDEX idx_products_name;
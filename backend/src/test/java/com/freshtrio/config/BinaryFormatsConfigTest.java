@@ -0,0 +1,44 @@
+package com.freshtrio.config;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.freshtrio.dto.CategorySummary;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BinaryFormatsConfigTest {
+
+    private final BinaryFormatsConfig config = new BinaryFormatsConfig();
+
+    @Test
+    void binaryFormat_ShouldFollowQualityThenOrder() {
+        // Act & Assert
+        assertNull(BinaryFormatsConfig.binaryFormat(null));
+        assertNull(BinaryFormatsConfig.binaryFormat("*/*"));
+        assertNull(BinaryFormatsConfig.binaryFormat("application/json, application/cbor"));
+        assertEquals("cbor", BinaryFormatsConfig.binaryFormat("application/cbor, application/json"));
+        assertEquals("cbor", BinaryFormatsConfig.binaryFormat("application/json;q=0.5, application/cbor"));
+        assertEquals("smile", BinaryFormatsConfig.binaryFormat("application/x-jackson-smile, */*;q=0.1"));
+        assertNull(BinaryFormatsConfig.binaryFormat("application/cbor;q=0, application/json"));
+    }
+
+    @Test
+    void converters_ShouldEncodeSameDocumentAsJson() throws Exception {
+        // Arrange
+        CategorySummary category = new CategorySummary("beef", "Beef", null, 1, 3);
+        ObjectMapper json = new Jackson2ObjectMapperBuilder().build();
+        ObjectMapper cbor = config.cborHttpMessageConverter(new Jackson2ObjectMapperBuilder()).getObjectMapper();
+        ObjectMapper smile = config.smileHttpMessageConverter(new Jackson2ObjectMapperBuilder()).getObjectMapper();
+
+        // Act
+        JsonNode expected = json.readTree(json.writeValueAsBytes(category));
+        JsonNode fromCbor = cbor.readTree(cbor.writeValueAsBytes(category));
+        JsonNode fromSmile = smile.readTree(smile.writeValueAsBytes(category));
+
+        // Assert
+        assertEquals(expected, fromCbor);
+        assertEquals(expected, fromSmile);
+    }
+}
@@ -0,0 +1,77 @@
+package com.freshtrio.config;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class BulkheadDataSourceTest {
+
+    private DataSource target;
+    private BulkheadDataSource bulkhead;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        target = mock(DataSource.class);
+        when(target.getConnection()).thenAnswer(invocation -> mock(Connection.class));
+        bulkhead = new BulkheadDataSource(target, 1, Duration.ofMillis(50));
+    }
+
+    @Test
+    void getConnection_ShouldTimeOut_WhenAllPermitsHeld() throws SQLException {
+        // Arrange
+        Connection held = bulkhead.getConnection();
+
+        // Act & Assert
+        assertThrows(SQLTransientConnectionException.class, () -> bulkhead.getConnection());
+        assertEquals(0, bulkhead.getAvailablePermits());
+        held.close();
+    }
+
+    @Test
+    void close_ShouldReturnPermitOnce() throws SQLException {
+        // Arrange
+        Connection connection = bulkhead.getConnection();
+
+        // Act
+        connection.close();
+        connection.close();
+
+        // Assert
+        assertEquals(1, bulkhead.getAvailablePermits());
+        assertNotNull(bulkhead.getConnection());
+    }
+
+    @Test
+    void getConnection_ShouldReturnPermit_WhenTargetFails() throws SQLException {
+        // Arrange
+        when(target.getConnection()).thenThrow(new SQLException("database down"));
+
+        // Act & Assert
+        assertThrows(SQLException.class, () -> bulkhead.getConnection());
+        assertEquals(1, bulkhead.getAvailablePermits());
+    }
+
+    @Test
+    void connection_ShouldDelegateOtherCalls() throws SQLException {
+        // Arrange
+        Connection pooled = mock(Connection.class);
+        when(target.getConnection()).thenReturn(pooled);
+        Connection connection = bulkhead.getConnection();
+
+        // Act
+        connection.setAutoCommit(false);
+        connection.close();
+
+        // Assert
+        verify(pooled).setAutoCommit(false);
+        verify(pooled).close();
+    }
+}
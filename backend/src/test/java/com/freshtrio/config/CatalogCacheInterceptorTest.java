@@ -0,0 +1,140 @@
+package com.freshtrio.config;
+
+import com.freshtrio.service.CatalogVersion;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.CacheControl;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CatalogCacheInterceptorTest {
+
+    private CatalogVersion catalogVersion;
+    private CatalogCacheInterceptor interceptor;
+
+    @BeforeEach
+    void setUp() {
+        catalogVersion = new CatalogVersion();
+        interceptor = new CatalogCacheInterceptor(catalogVersion,
+                CacheControl.maxAge(Duration.ofSeconds(60)).staleWhileRevalidate(Duration.ofSeconds(300)).cachePublic());
+    }
+
+    @Test
+    void preHandle_ShouldSetEtagAndCacheControl_WhenNoValidatorSent() {
+        // Arrange
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/products");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // Act
+        boolean proceed = interceptor.preHandle(request, response, null);
+
+        // Assert
+        assertTrue(proceed);
+        assertEquals(catalogVersion.etag(), response.getHeader("ETag"));
+        assertEquals("max-age=60, public, stale-while-revalidate=300", response.getHeader("Cache-Control"));
+    }
+
+    @Test
+    void preHandle_ShouldReturnNotModified_WhenEtagMatches() {
+        // Arrange
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/products/categories");
+        request.addHeader("If-None-Match", catalogVersion.etag());
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // Act
+        boolean proceed = interceptor.preHandle(request, response, null);
+
+        // Assert
+        assertFalse(proceed);
+        assertEquals(304, response.getStatus());
+    }
+
+    @Test
+    void preHandle_ShouldProceed_WhenCatalogChangedSinceEtag() {
+        // Arrange
+        String staleEtag = catalogVersion.etag();
+        catalogVersion.bump();
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/products");
+        request.addHeader("If-None-Match", staleEtag);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // Act
+        boolean proceed = interceptor.preHandle(request, response, null);
+
+        // Assert
+        assertTrue(proceed);
+        assertEquals(catalogVersion.etag(), response.getHeader("ETag"));
+    }
+
+    @Test
+    void preHandle_ShouldNotMatchJsonEtag_WhenCborRequested() {
+        // Arrange
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/products");
+        request.addHeader("Accept", "application/cbor");
+        request.addHeader("If-None-Match", catalogVersion.etag());
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // Act
+        boolean proceed = interceptor.preHandle(request, response, null);
+
+        // Assert
+        assertTrue(proceed);
+        assertEquals(catalogVersion.etag("cbor"), response.getHeader("ETag"));
+        assertEquals("Accept", response.getHeader("Vary"));
+    }
+
+    @Test
+    void preHandle_ShouldUseViewVersion_WhenViewLagsCatalog() {
+        // Arrange - a view built before the latest write
+        long builtFrom = catalogVersion.current();
+        catalogVersion.bump();
+        CatalogCacheInterceptor lagging = new CatalogCacheInterceptor(() -> builtFrom,
+                CacheControl.maxAge(Duration.ofSeconds(60)).cachePublic());
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/products/suggest");
+        request.addHeader("If-None-Match", catalogVersion.etag());
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // Act
+        boolean proceed = lagging.preHandle(request, response, null);
+
+        // Assert
+        assertTrue(proceed);
+        assertEquals(CatalogVersion.etag(builtFrom, null), response.getHeader("ETag"));
+    }
+
+    @Test
+    void preHandle_ShouldSendNoStoreWithoutEtag_WhenViewNotBuiltYet() {
+        // Arrange - a view that reports version 0 until its first build
+        CatalogCacheInterceptor unbuilt = new CatalogCacheInterceptor(() -> 0L,
+                CacheControl.maxAge(Duration.ofSeconds(60)).cachePublic());
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/products/suggest");
+        request.addHeader("If-None-Match", CatalogVersion.etag(0, null));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // Act
+        boolean proceed = unbuilt.preHandle(request, response, null);
+
+        // Assert
+        assertTrue(proceed);
+        assertEquals("no-store", response.getHeader("Cache-Control"));
+        assertNull(response.getHeader("ETag"));
+    }
+
+    @Test
+    void preHandle_ShouldIgnoreWrites() {
+        // Arrange
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/products/import");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // Act
+        boolean proceed = interceptor.preHandle(request, response, null);
+
+        // Assert
+        assertTrue(proceed);
+        assertNull(response.getHeader("Cache-Control"));
+    }
+}
@@ -0,0 +1,139 @@
+package com.freshtrio.config;
+
+import com.freshtrio.service.CatalogSnapshotService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class CatalogSnapshotInterceptorTest {
+
+    private static final byte[] JSON = "{\"content\":[]}".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] GZIP = {31, -117, 8, 0};
+
+    private CatalogSnapshotService snapshotService;
+    private CatalogSnapshotInterceptor interceptor;
+
+    @BeforeEach
+    void setUp() {
+        snapshotService = mock(CatalogSnapshotService.class);
+        when(snapshotService.firstPage(any())).thenReturn(new CatalogSnapshotService.Rendered(JSON, GZIP));
+        interceptor = new CatalogSnapshotInterceptor(snapshotService);
+    }
+
+    @Test
+    void preHandle_ShouldWriteGzippedSnapshot_WhenClientAcceptsGzip() throws Exception {
+        // Arrange
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/products");
+        request.setParameter("category", "beef");
+        request.addHeader("Accept-Encoding", "gzip, deflate, br");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // Act
+        boolean proceed = interceptor.preHandle(request, response, null);
+
+        // Assert
+        assertFalse(proceed);
+        assertArrayEquals(GZIP, response.getContentAsByteArray());
+        assertEquals("gzip", response.getHeader("Content-Encoding"));
+        assertEquals("Accept-Encoding", response.getHeader("Vary"));
+        assertEquals("application/json", response.getContentType());
+        verify(snapshotService).firstPage("beef");
+    }
+
+    @Test
+    void preHandle_ShouldWriteIdentitySnapshot_WhenGzipNotAccepted() throws Exception {
+        // Arrange
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/products");
+        request.addHeader("Accept-Encoding", "gzip;q=0");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // Act
+        boolean proceed = interceptor.preHandle(request, response, null);
+
+        // Assert
+        assertFalse(proceed);
+        assertArrayEquals(JSON, response.getContentAsByteArray());
+        assertNull(response.getHeader("Content-Encoding"));
+        verify(snapshotService).firstPage(null);
+    }
+
+    @Test
+    void preHandle_ShouldProceed_WhenPagingParametersSent() throws Exception {
+        // Arrange
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/products");
+        request.setParameter("page", "1");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // Act
+        boolean proceed = interceptor.preHandle(request, response, null);
+
+        // Assert
+        assertTrue(proceed);
+        verifyNoInteractions(snapshotService);
+    }
+
+    @Test
+    void preHandle_ShouldProceed_WhenClientDoesNotAcceptJson() throws Exception {
+        // Arrange
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/products");
+        request.addHeader("Accept", "application/cbor");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // Act
+        boolean proceed = interceptor.preHandle(request, response, null);
+
+        // Assert
+        assertTrue(proceed);
+        assertEquals(0, response.getContentAsByteArray().length);
+    }
+
+    @Test
+    void preHandle_ShouldProceed_WhenBinaryFormatPreferredOverJson() throws Exception {
+        // Arrange
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/products");
+        request.addHeader("Accept", "application/cbor, application/json;q=0.5");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // Act
+        boolean proceed = interceptor.preHandle(request, response, null);
+
+        // Assert - the controller answers in CBOR, matching the "-cbor" ETag already set
+        assertTrue(proceed);
+        assertEquals(0, response.getContentAsByteArray().length);
+    }
+
+    @Test
+    void preHandle_ShouldWriteSnapshot_WhenJsonPreferredOverBinaryFormat() throws Exception {
+        // Arrange
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/products");
+        request.addHeader("Accept", "application/json, application/cbor;q=0.5");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // Act
+        boolean proceed = interceptor.preHandle(request, response, null);
+
+        // Assert
+        assertFalse(proceed);
+        assertArrayEquals(JSON, response.getContentAsByteArray());
+    }
+
+    @Test
+    void preHandle_ShouldProceed_WhenSnapshotNotCurrent() throws Exception {
+        // Arrange
+        when(snapshotService.categories()).thenReturn(null);
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/products/categories");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // Act
+        boolean proceed = interceptor.preHandle(request, response, null);
+
+        // Assert
+        assertTrue(proceed);
+    }
+}
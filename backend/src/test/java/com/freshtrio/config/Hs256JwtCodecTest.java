@@ -0,0 +1,206 @@
+package com.freshtrio.config;
+
+import com.nimbusds.jose.jwk.source.ImmutableSecret;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.oauth2.jose.jws.MacAlgorithm;
+import org.springframework.security.oauth2.jwt.*;
+
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Property tests: random claim sets, including awkward strings, must encode to exactly
+ * the token Nimbus produces, and every token must decode to the same Jwt (or fail the
+ * same way) under both decoders.
+ */
+class Hs256JwtCodecTest {
+
+    private static final byte[] SECRET = "testSecretKeyThatIsAtLeast32CharactersLongForTesting123456789".getBytes();
+    private static final int RUNS = 2000;
+
+    private final SecretKeySpec key = new SecretKeySpec(SECRET, "HmacSHA256");
+    private final JwtEncoder nimbusEncoder = new NimbusJwtEncoder(new ImmutableSecret<>(key));
+    private final JwtDecoder nimbusDecoder = NimbusJwtDecoder.withSecretKey(key).macAlgorithm(MacAlgorithm.HS256).build();
+    private final JwtEncoder encoder = new Hs256JwtEncoder(SECRET, nimbusEncoder);
+    private final JwtDecoder decoder = new Hs256JwtDecoder(SECRET, nimbusDecoder);
+    private final JwsHeader header = JwsHeader.with(MacAlgorithm.HS256).build();
+
+    @Test
+    void encode_ShouldMatchNimbusByteForByte() {
+        Random random = new Random(42);
+        for (int run = 0; run < RUNS; run++) {
+            // Arrange
+            JwtEncoderParameters parameters = JwtEncoderParameters.from(header, randomClaims(random));
+
+            // Act
+            Jwt fast = encoder.encode(parameters);
+            Jwt nimbus = nimbusEncoder.encode(parameters);
+
+            // Assert
+            assertEquals(nimbus.getTokenValue(), fast.getTokenValue(), "run " + run);
+            assertEquals(nimbus.getClaims(), fast.getClaims());
+            assertEquals(nimbus.getHeaders(), fast.getHeaders());
+        }
+    }
+
+    @Test
+    void decode_ShouldMatchNimbus_ForIssuedTokens() {
+        Random random = new Random(7);
+        for (int run = 0; run < RUNS; run++) {
+            // Arrange
+            String token = encoder.encode(JwtEncoderParameters.from(header, randomClaims(random))).getTokenValue();
+
+            // Act
+            JwtException nimbusFailure = null;
+            Jwt nimbus = null;
+            try {
+                nimbus = nimbusDecoder.decode(token);
+            } catch (JwtException e) {
+                nimbusFailure = e;
+            }
+
+            // Assert
+            if (nimbusFailure != null) {
+                // e.g. an issuer with a colon that is not a valid URI
+                JwtException fastFailure = assertThrows(JwtException.class, () -> decoder.decode(token), "run " + run);
+                assertEquals(nimbusFailure.getClass(), fastFailure.getClass());
+                assertEquals(nimbusFailure.getMessage(), fastFailure.getMessage());
+                continue;
+            }
+            Jwt fast = decoder.decode(token);
+            assertEquals(nimbus.getTokenValue(), fast.getTokenValue());
+            assertEquals(nimbus.getHeaders(), fast.getHeaders());
+            assertEquals(nimbus.getClaims(), fast.getClaims(), "run " + run);
+            assertEquals(nimbus.getExpiresAt(), fast.getExpiresAt());
+        }
+    }
+
+    @Test
+    void decode_ShouldRejectWhatNimbusRejects() {
+        Random random = new Random(99);
+        for (int run = 0; run < RUNS; run++) {
+            // Arrange
+            String token = encoder.encode(JwtEncoderParameters.from(header, randomClaims(random))).getTokenValue();
+            char[] chars = token.toCharArray();
+            int position = random.nextInt(chars.length);
+            chars[position] = chars[position] == 'A' ? 'B' : 'A';
+            String tampered = new String(chars);
+
+            // Act
+            Class<?> fast = failure(() -> decoder.decode(tampered));
+            Class<?> nimbus = failure(() -> nimbusDecoder.decode(tampered));
+
+            // Assert
+            assertEquals(nimbus, fast, "tampered at " + position + ": " + tampered);
+        }
+    }
+
+    @Test
+    void decode_ShouldRejectForeignAlgorithmsAndExpiredTokens() {
+        // Arrange
+        String payload = encode("{\"sub\":\"a@example.com\",\"exp\":" + Instant.now().plusSeconds(60).getEpochSecond() + "}");
+        String none = encode("{\"alg\":\"none\"}") + "." + payload + ".";
+        String hs512 = encode("{\"alg\":\"HS512\"}") + "." + payload + ".c2lnbmF0dXJl";
+        String expired = encoder.encode(JwtEncoderParameters.from(header, JwtClaimsSet.builder()
+                .subject("a@example.com")
+                .issuedAt(Instant.now().minusSeconds(7200))
+                .expiresAt(Instant.now().minusSeconds(3600))
+                .build())).getTokenValue();
+
+        // Act & Assert
+        assertThrows(BadJwtException.class, () -> decoder.decode(none));
+        assertThrows(BadJwtException.class, () -> decoder.decode(hs512));
+        assertThrows(BadJwtException.class, () -> decoder.decode("not-a-token"));
+        JwtValidationException fast = assertThrows(JwtValidationException.class, () -> decoder.decode(expired));
+        JwtValidationException nimbus = assertThrows(JwtValidationException.class, () -> nimbusDecoder.decode(expired));
+        assertEquals(nimbus.getMessage(), fast.getMessage());
+    }
+
+    @Test
+    void encode_ShouldDelegateToNimbus_WhenClaimsOutsideFixedSet() {
+        // Arrange
+        JwtClaimsSet claims = JwtClaimsSet.builder()
+                .subject("a@example.com")
+                .audience(List.of("mobile"))
+                .claim("scope", "orders")
+                .expiresAt(Instant.now().plusSeconds(60))
+                .build();
+        JwtEncoderParameters parameters = JwtEncoderParameters.from(header, claims);
+
+        // Act
+        String token = encoder.encode(parameters).getTokenValue();
+
+        // Assert
+        assertEquals(nimbusEncoder.encode(parameters).getTokenValue(), token);
+        assertEquals(nimbusDecoder.decode(token).getClaims(), decoder.decode(token).getClaims());
+    }
+
+    private static JwtClaimsSet randomClaims(Random random) {
+        // Millisecond timestamps, so the truncation to seconds is exercised too
+        Instant issuedAt = Instant.now().minusMillis(random.nextInt(3_600_000));
+        JwtClaimsSet.Builder claims = JwtClaimsSet.builder()
+                .issuedAt(issuedAt)
+                .expiresAt(issuedAt.plusMillis(86_400_000L + random.nextInt(86_400_000)));
+        if (random.nextInt(10) > 0) {
+            claims.issuer(switch (random.nextInt(4)) {
+                case 0 -> "freshtrio-api";
+                case 1 -> "https://api.freshtrio.example";
+                default -> randomString(random);
+            });
+        }
+        if (random.nextInt(10) > 0) {
+            claims.subject(randomString(random) + "@example.com");
+        }
+        if (random.nextInt(10) > 0) {
+            claims.id(UUID.randomUUID().toString());
+        }
+        if (random.nextInt(10) > 0) {
+            claims.claim("role", random.nextBoolean() ? "CUSTOMER" : randomString(random));
+        }
+        if (random.nextBoolean()) {
+            claims.claim("googleid", randomString(random));
+        }
+        return claims.build();
+    }
+
+    /**
+     * Mostly ASCII, with quotes, backslashes, control characters, non-Latin text,
+     * supplementary characters and the U+2028/U+2029 separators mixed in.
+     */
+    private static String randomString(Random random) {
+        int length = random.nextInt(24);
+        StringBuilder text = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            switch (random.nextInt(8)) {
+                case 0 -> text.append((char) random.nextInt(0x20));
+                case 1 -> text.append("\"\\/<>&='".charAt(random.nextInt(8)));
+                case 2 -> text.append((char) (0x80 + random.nextInt(0x780)));
+                case 3 -> text.append((char) (0x2028 + random.nextInt(2)));
+                case 4 -> text.append((char) (0x3040 + random.nextInt(0x100)));
+                case 5 -> text.appendCodePoint(0x1F300 + random.nextInt(0x100));
+                default -> text.append((char) (0x20 + random.nextInt(0x5f)));
+            }
+        }
+        return text.toString();
+    }
+
+    private static String encode(String json) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(json.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Class<?> failure(Runnable decode) {
+        try {
+            decode.run();
+            return null;
+        } catch (JwtException e) {
+            return e.getClass();
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.freshtrio.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledForJreRange;
+import org.junit.jupiter.api.condition.JRE;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+
+import javax.sql.DataSource;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+/**
+ * The virtual-thread mode end to end. The enabled cases need a 21+ JVM, which the default
+ * build does not use: run them with mvn -Pjdk21 test (see the jdk21 profile in pom.xml).
+ */
+class VirtualThreadsConfigTest {
+
+    private final ApplicationContextRunner contextRunner = new ApplicationContextRunner()
+            .withUserConfiguration(VirtualThreadsConfig.class)
+            .withBean(MeterRegistry.class, SimpleMeterRegistry::new)
+            .withBean(DataSource.class, () -> mock(DataSource.class))
+            .withPropertyValues("spring.threads.virtual.enabled=true",
+                    "app.virtual-threads.pinned-threshold=5ms");
+
+    @Test
+    @EnabledForJreRange(min = JRE.JAVA_21)
+    void context_ShouldWrapDataSourceAndStartPinnedMonitor_WhenVirtualThreadsEnabled() {
+        // Act & Assert
+        contextRunner.run(context -> {
+            assertInstanceOf(BulkheadDataSource.class, context.getBean(DataSource.class));
+            assertNotNull(context.getBean(PinnedThreadMonitor.class));
+        });
+    }
+
+    @Test
+    void context_ShouldBackOff_WhenVirtualThreadsDisabled() {
+        // Act & Assert
+        contextRunner.withPropertyValues("spring.threads.virtual.enabled=false").run(context -> {
+            assertFalse(context.getBean(DataSource.class) instanceof BulkheadDataSource);
+            assertTrue(context.getBeansOfType(PinnedThreadMonitor.class).isEmpty());
+        });
+    }
+
+    @Test
+    @EnabledForJreRange(min = JRE.JAVA_21)
+    void pinnedThreadMonitor_ShouldCountVirtualThreadBlockedInsideSynchronized() {
+        contextRunner.run(context -> {
+            // Arrange
+            MeterRegistry meterRegistry = context.getBean(MeterRegistry.class);
+            Object lock = new Object();
+            Runnable pinning = () -> {
+                synchronized (lock) {
+                    try {
+                        Thread.sleep(50);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+            };
+
+            // Act - through reflection, as the build compiles against the Java 17 API
+            Thread thread = (Thread) Thread.class.getMethod("startVirtualThread", Runnable.class)
+                    .invoke(null, pinning);
+            thread.join();
+
+            // Assert - JFR streams events in roughly one-second batches
+            long deadline = System.nanoTime() + 10_000_000_000L;
+            while (meterRegistry.counter("jvm.threads.virtual.pinned").count() == 0 && System.nanoTime() < deadline) {
+                Thread.sleep(100);
+            }
+            assertTrue(meterRegistry.counter("jvm.threads.virtual.pinned").count() >= 1);
+        });
+    }
+}
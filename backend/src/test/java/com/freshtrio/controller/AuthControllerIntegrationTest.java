@@ -5,7 +5,9 @@ import com.freshtrio.dto.FirebaseAuthRequest;
 import com.freshtrio.dto.RegisterRequest;
 import com.freshtrio.entity.User;
 import com.freshtrio.repository.UserRepository;
+import com.freshtrio.service.FirebaseIdentity;
 import com.freshtrio.service.FirebaseService;
+import com.freshtrio.service.UserCache;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -21,6 +23,8 @@ import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.context.WebApplicationContext;
 
+import java.time.Instant;
+
 import static org.hamcrest.Matchers.*;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.anyString;
@@ -47,6 +51,9 @@ class AuthControllerIntegrationTest {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private UserCache userCache;
+
     @MockBean
     private FirebaseService firebaseService;
 
@@ -64,6 +71,7 @@ class AuthControllerIntegrationTest {
         
         // Clear database before each test
         userRepository.deleteAll();
+        userCache.invalidateAll();
     }
 
     @Test
@@ -127,11 +135,8 @@ class AuthControllerIntegrationTest {
         request.setIdToken("valid-firebase-token");
 
         // Mock Firebase service responses
-        when(firebaseService.getUidFromToken("valid-firebase-token")).thenReturn("firebase-uid-123");
-        when(firebaseService.getEmailFromToken("valid-firebase-token")).thenReturn("firebase@example.com");
-        when(firebaseService.getNameFromToken("valid-firebase-token")).thenReturn("Firebase User");
-        when(firebaseService.getPhoneFromToken("valid-firebase-token")).thenReturn(null);
-        when(firebaseService.getProviderFromToken("valid-firebase-token")).thenReturn("google.com");
+        when(firebaseService.verify("valid-firebase-token")).thenReturn(
+                new FirebaseIdentity("firebase-uid-123", "firebase@example.com", "Firebase User", null, "google.com", Instant.now().plusSeconds(3600)));
 
         // Act & Assert
         mockMvc.perform(post("/api/auth/firebase")
@@ -152,10 +157,7 @@ class AuthControllerIntegrationTest {
         assertEquals(User.AuthProvider.GOOGLE, users.get(0).getAuthProvider());
 
         // Verify Firebase service was called
-        verify(firebaseService).getUidFromToken("valid-firebase-token");
-        verify(firebaseService).getEmailFromToken("valid-firebase-token");
-        verify(firebaseService).getNameFromToken("valid-firebase-token");
-        verify(firebaseService).getProviderFromToken("valid-firebase-token");
+        verify(firebaseService).verify("valid-firebase-token");
     }
 
     @Test
@@ -165,7 +167,7 @@ class AuthControllerIntegrationTest {
         request.setIdToken("invalid-firebase-token");
 
         // Mock Firebase service to throw exception
-        when(firebaseService.getUidFromToken("invalid-firebase-token"))
+        when(firebaseService.verify("invalid-firebase-token"))
                 .thenThrow(new RuntimeException("Firebase token verification failed"));
 
         // Act & Assert
@@ -196,11 +198,8 @@ class AuthControllerIntegrationTest {
         request.setIdToken("valid-firebase-token");
 
         // Mock Firebase service responses
-        when(firebaseService.getUidFromToken("valid-firebase-token")).thenReturn("firebase-uid-123");
-        when(firebaseService.getEmailFromToken("valid-firebase-token")).thenReturn("existing@example.com");
-        when(firebaseService.getNameFromToken("valid-firebase-token")).thenReturn("Existing User");
-        when(firebaseService.getPhoneFromToken("valid-firebase-token")).thenReturn(null);
-        when(firebaseService.getProviderFromToken("valid-firebase-token")).thenReturn("google.com");
+        when(firebaseService.verify("valid-firebase-token")).thenReturn(
+                new FirebaseIdentity("firebase-uid-123", "existing@example.com", "Existing User", null, "google.com", Instant.now().plusSeconds(3600)));
 
         // Act & Assert
         mockMvc.perform(post("/api/auth/firebase")
@@ -267,11 +266,8 @@ class AuthControllerIntegrationTest {
         request.setIdToken("valid-firebase-token");
 
         // Mock Firebase service responses for different provider
-        when(firebaseService.getUidFromToken("valid-firebase-token")).thenReturn("firebase-uid-123");
-        when(firebaseService.getEmailFromToken("valid-firebase-token")).thenReturn("facebook@example.com");
-        when(firebaseService.getNameFromToken("valid-firebase-token")).thenReturn("Facebook User");
-        when(firebaseService.getPhoneFromToken("valid-firebase-token")).thenReturn(null);
-        when(firebaseService.getProviderFromToken("valid-firebase-token")).thenReturn("facebook.com");
+        when(firebaseService.verify("valid-firebase-token")).thenReturn(
+                new FirebaseIdentity("firebase-uid-123", "facebook@example.com", "Facebook User", null, "facebook.com", Instant.now().plusSeconds(3600)));
 
         // Act & Assert
         mockMvc.perform(post("/api/auth/firebase")
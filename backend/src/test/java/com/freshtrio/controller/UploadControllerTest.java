@@ -0,0 +1,140 @@
+package com.freshtrio.controller;
+
+import com.freshtrio.service.ProductImageService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class UploadControllerTest {
+
+    private static final String CONTENT = "0123456789";
+
+    @Mock
+    private ProductImageService productImageService;
+
+    @InjectMocks
+    private UploadController uploadController;
+
+    @TempDir
+    Path root;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        Path dir = Files.createDirectories(root.resolve("products/p1/i1"));
+        Files.writeString(dir.resolve("thumb.jpg"), CONTENT, StandardCharsets.US_ASCII);
+        lenient().when(productImageService.root()).thenReturn(root);
+    }
+
+    @Test
+    void serve_ShouldSendWholeFileWithCacheHeaders() throws Exception {
+        // Arrange
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/uploads/products/p1/i1/thumb.jpg");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // Act
+        uploadController.serve(request, response);
+
+        // Assert
+        assertEquals(200, response.getStatus());
+        assertEquals(CONTENT, response.getContentAsString());
+        assertEquals("image/jpeg", response.getContentType());
+        assertEquals("public, max-age=31536000, immutable", response.getHeader("Cache-Control"));
+        assertEquals("bytes", response.getHeader("Accept-Ranges"));
+        assertNotNull(response.getHeader("ETag"));
+    }
+
+    @Test
+    void serve_ShouldSendPartialContent_WhenSingleRangeRequested() throws Exception {
+        // Arrange
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/uploads/products/p1/i1/thumb.jpg");
+        request.addHeader("Range", "bytes=2-5");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // Act
+        uploadController.serve(request, response);
+
+        // Assert
+        assertEquals(206, response.getStatus());
+        assertEquals("2345", response.getContentAsString());
+        assertEquals("bytes 2-5/10", response.getHeader("Content-Range"));
+        assertEquals(4, response.getContentLengthLong());
+    }
+
+    @Test
+    void serve_ShouldReturn416_WhenRangeStartsPastEnd() throws Exception {
+        // Arrange
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/uploads/products/p1/i1/thumb.jpg");
+        request.addHeader("Range", "bytes=20-");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // Act
+        uploadController.serve(request, response);
+
+        // Assert
+        assertEquals(416, response.getStatus());
+        assertEquals("bytes */10", response.getHeader("Content-Range"));
+    }
+
+    @Test
+    void serve_ShouldReturnNotModified_WhenEtagMatches() throws Exception {
+        // Arrange
+        MockHttpServletResponse first = new MockHttpServletResponse();
+        uploadController.serve(new MockHttpServletRequest("GET", "/uploads/products/p1/i1/thumb.jpg"), first);
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/uploads/products/p1/i1/thumb.jpg");
+        request.addHeader("If-None-Match", first.getHeader("ETag"));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // Act
+        uploadController.serve(request, response);
+
+        // Assert
+        assertEquals(304, response.getStatus());
+        assertEquals(0, response.getContentAsByteArray().length);
+    }
+
+    @Test
+    void serve_ShouldHandOffToSendfile_WhenContainerSupportsIt() throws Exception {
+        // Arrange
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/uploads/products/p1/i1/thumb.jpg");
+        request.setAttribute(UploadController.SENDFILE_SUPPORTED, Boolean.TRUE);
+        request.addHeader("Range", "bytes=-3");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // Act
+        uploadController.serve(request, response);
+
+        // Assert
+        assertEquals(206, response.getStatus());
+        assertEquals(7L, request.getAttribute(UploadController.SENDFILE_START));
+        assertEquals(10L, request.getAttribute(UploadController.SENDFILE_END));
+        assertEquals(0, response.getContentAsByteArray().length);
+    }
+
+    @Test
+    void serve_ShouldReturn404_WhenPathEscapesUploadDir() throws Exception {
+        // Arrange
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/uploads/products/../../etc/passwd");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // Act
+        uploadController.serve(request, response);
+
+        // Assert
+        assertEquals(404, response.getStatus());
+        verify(productImageService, never()).root();
+    }
+}
@@ -0,0 +1,101 @@
+package com.freshtrio.security;
+
+import com.freshtrio.service.JwtService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.oauth2.jwt.BadJwtException;
+import org.springframework.security.oauth2.jwt.Jwt;
+
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class JwtAuthenticationFilterTest {
+
+    @Mock
+    private JwtService jwtService;
+
+    private JwtAuthenticationFilter filter;
+    private MockHttpServletRequest request;
+    private MockFilterChain chain;
+
+    @BeforeEach
+    void setUp() {
+        filter = new JwtAuthenticationFilter(jwtService);
+        request = new MockHttpServletRequest("GET", "/api/orders");
+        chain = new MockFilterChain();
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void doFilter_ShouldAuthenticateFromClaims_WhenBearerTokenValid() throws Exception {
+        // Arrange
+        request.addHeader("Authorization", "Bearer valid-token");
+        when(jwtService.parse("valid-token")).thenReturn(Jwt.withTokenValue("valid-token")
+                .header("alg", "HS256")
+                .subject("admin@example.com")
+                .claim("role", "ADMIN")
+                .claim("googleid", "firebase-uid")
+                .issuedAt(Instant.now())
+                .expiresAt(Instant.now().plusSeconds(3600))
+                .build());
+
+        // Act
+        filter.doFilter(request, new MockHttpServletResponse(), chain);
+
+        // Assert
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        assertNotNull(authentication);
+        assertTrue(authentication.isAuthenticated());
+        assertEquals(new JwtPrincipal("admin@example.com", "ADMIN", "firebase-uid"), authentication.getPrincipal());
+        assertEquals("admin@example.com", authentication.getName());
+        assertEquals("ROLE_ADMIN", authentication.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority).findFirst().orElseThrow());
+        assertNotNull(chain.getRequest());
+    }
+
+    @Test
+    void doFilter_ShouldLeaveRequestAnonymous_WhenTokenInvalid() throws Exception {
+        // Arrange
+        request.addHeader("Authorization", "Bearer revoked-token");
+        when(jwtService.parse("revoked-token")).thenThrow(new BadJwtException("Token has been revoked"));
+
+        // Act
+        filter.doFilter(request, new MockHttpServletResponse(), chain);
+
+        // Assert
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+        assertNotNull(chain.getRequest());
+    }
+
+    @Test
+    void doFilter_ShouldSkipParsing_WhenNoBearerToken() throws Exception {
+        // Arrange
+        request.addHeader("Authorization", "Basic dXNlcjpwYXNz");
+
+        // Act
+        filter.doFilter(request, new MockHttpServletResponse(), chain);
+
+        // Assert
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+        verify(jwtService, never()).parse(anyString());
+        assertNotNull(chain.getRequest());
+    }
+}
@@ -0,0 +1,148 @@
+package com.freshtrio.security;
+
+import com.freshtrio.service.JwtService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.test.context.junit.jupiter.web.SpringJUnitWebConfig;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.WebApplicationContext;
+import org.springframework.web.servlet.config.annotation.EnableWebMvc;
+
+import java.time.Instant;
+
+import static org.hamcrest.Matchers.oneOf;
+import static org.mockito.Mockito.*;
+import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * The application's filter chain in front of stub endpoints, so the authorization rules
+ * are checked without starting the whole application.
+ */
+@SpringJUnitWebConfig(SecurityConfigTest.Context.class)
+class SecurityConfigTest {
+
+    @Autowired
+    private WebApplicationContext context;
+
+    @MockBean
+    private JwtService jwtService;
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.webAppContextSetup(context).apply(springSecurity()).build();
+    }
+
+    @Test
+    void adminEndpoints_ShouldBeRefused_WhenAnonymous() throws Exception {
+        // Act & Assert
+        mockMvc.perform(get("/api/admin/products/export"))
+                .andExpect(status().is(oneOf(401, 403)));
+        mockMvc.perform(post("/api/admin/products/import"))
+                .andExpect(status().is(oneOf(401, 403)));
+    }
+
+    @Test
+    void adminEndpoints_ShouldBeForbidden_WhenCustomer() throws Exception {
+        // Arrange
+        when(jwtService.parse("customer-token")).thenReturn(token("customer@example.com", "CUSTOMER"));
+
+        // Act & Assert
+        mockMvc.perform(get("/api/admin/products/export").header("Authorization", "Bearer customer-token"))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(post("/api/admin/products/import").header("Authorization", "Bearer customer-token"))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    void adminEndpoints_ShouldBeAllowed_WhenAdmin() throws Exception {
+        // Arrange
+        when(jwtService.parse("admin-token")).thenReturn(token("admin@example.com", "ADMIN"));
+
+        // Act & Assert
+        mockMvc.perform(get("/api/admin/products/export").header("Authorization", "Bearer admin-token"))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void catalogEndpoints_ShouldStayOpen_WhenAnonymous() throws Exception {
+        // Act & Assert
+        mockMvc.perform(get("/api/products")).andExpect(status().isOk());
+    }
+
+    @Test
+    void adminOnlyMethods_ShouldBeForbidden_WhenCustomer_EvenUnderOpenPaths() throws Exception {
+        // Arrange
+        when(jwtService.parse("customer-token")).thenReturn(token("customer@example.com", "CUSTOMER"));
+        when(jwtService.parse("admin-token")).thenReturn(token("admin@example.com", "ADMIN"));
+
+        // Act & Assert - /api/** is open, so only @PreAuthorize stands in the way
+        mockMvc.perform(get("/api/stub/admin-only")).andExpect(status().is(oneOf(401, 403)));
+        mockMvc.perform(get("/api/stub/admin-only").header("Authorization", "Bearer customer-token"))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(get("/api/stub/admin-only").header("Authorization", "Bearer admin-token"))
+                .andExpect(status().isOk());
+    }
+
+    private static Jwt token(String subject, String role) {
+        return Jwt.withTokenValue("token")
+                .header("alg", "HS256")
+                .subject(subject)
+                .claim("role", role)
+                .issuedAt(Instant.now())
+                .expiresAt(Instant.now().plusSeconds(3600))
+                .build();
+    }
+
+    @Configuration
+    @EnableWebMvc
+    @EnableWebSecurity
+    @Import(SecurityConfig.class)
+    static class Context {
+
+        @Bean
+        StubController stubController() {
+            return new StubController();
+        }
+    }
+
+    @RestController
+    static class StubController {
+
+        @GetMapping("/api/admin/products/export")
+        String export() {
+            return "ok";
+        }
+
+        @PostMapping("/api/admin/products/import")
+        String importProducts() {
+            return "ok";
+        }
+
+        @GetMapping("/api/products")
+        String products() {
+            return "ok";
+        }
+
+        @GetMapping("/api/stub/admin-only")
+        @PreAuthorize("hasRole('ADMIN')")
+        String adminOnly() {
+            return "ok";
+        }
+    }
+}
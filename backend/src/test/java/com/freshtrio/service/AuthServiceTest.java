@@ -6,19 +6,25 @@ import com.freshtrio.dto.RegisterRequest;
 import com.freshtrio.entity.User;
 import com.freshtrio.repository.UserRepository;
 import com.google.firebase.auth.FirebaseAuthException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.oauth2.jwt.BadJwtException;
+import org.springframework.test.util.ReflectionTestUtils;
 
+import java.time.Duration;
+import java.time.Instant;
 import java.time.LocalDateTime;
 import java.util.Optional;
 import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.*;
 
@@ -41,6 +47,16 @@ class AuthServiceTest {
 
     @BeforeEach
     void setUp() {
+        // A real near cache over the mocked repository, so lookups and saves still reach it
+        UserCache userCache = new UserCache();
+        ReflectionTestUtils.setField(userCache, "userRepository", userRepository);
+        ReflectionTestUtils.setField(userCache, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(userCache, "maxSize", 100L);
+        ReflectionTestUtils.setField(userCache, "ttl", Duration.ofMinutes(5));
+        ReflectionTestUtils.setField(userCache, "negativeTtl", Duration.ofSeconds(30));
+        userCache.init();
+        ReflectionTestUtils.setField(authService, "userCache", userCache);
+
         testUser = new User();
         testUser.setId(UUID.randomUUID());
         testUser.setEmail("test@example.com");
@@ -100,14 +116,9 @@ class AuthServiceTest {
         FirebaseAuthRequest request = new FirebaseAuthRequest();
         request.setIdToken("mock-firebase-token");
 
-        when(firebaseService.getUidFromToken(request.getIdToken())).thenReturn("firebase-uid");
-        when(firebaseService.getEmailFromToken(request.getIdToken())).thenReturn("firebase@example.com");
-        when(firebaseService.getNameFromToken(request.getIdToken())).thenReturn("Firebase User");
-        when(firebaseService.getPhoneFromToken(request.getIdToken())).thenReturn(null);
-        when(firebaseService.getProviderFromToken(request.getIdToken())).thenReturn("google.com");
+        when(firebaseService.verify(request.getIdToken())).thenReturn(
+                new FirebaseIdentity("firebase-uid", "firebase@example.com", "Firebase User", null, "google.com", Instant.now().plusSeconds(3600)));
 
-        when(userRepository.findByEmail("firebase@example.com")).thenReturn(Optional.empty());
-        
         User newUser = new User();
         newUser.setId(UUID.randomUUID());
         newUser.setEmail("firebase@example.com");
@@ -117,7 +128,8 @@ class AuthServiceTest {
         newUser.setAuthProvider(User.AuthProvider.GOOGLE);
         newUser.setRole(User.Role.CUSTOMER);
         
-        when(userRepository.save(any(User.class))).thenReturn(newUser);
+        when(userRepository.provisionExternalUser("firebase@example.com", "Firebase", "User", null,
+                "firebase-uid", "GOOGLE", false)).thenReturn(newUser);
         when(jwtService.generateToken(any(User.class))).thenReturn("mock-jwt-token");
 
         // Act
@@ -129,10 +141,11 @@ class AuthServiceTest {
         assertNotNull(response.getUser());
         assertEquals("firebase@example.com", response.getUser().getEmail());
 
-        verify(firebaseService).getUidFromToken(request.getIdToken());
-        verify(firebaseService).getEmailFromToken(request.getIdToken());
-        verify(userRepository).findByEmail("firebase@example.com");
-        verify(userRepository).save(any(User.class));
+        verify(firebaseService).verify(request.getIdToken());
+        verify(userRepository).provisionExternalUser("firebase@example.com", "Firebase", "User", null,
+                "firebase-uid", "GOOGLE", false);
+        verify(userRepository, never()).findByEmail(anyString());
+        verify(userRepository, never()).save(any(User.class));
         verify(jwtService).generateToken(newUser);
     }
 
@@ -142,19 +155,18 @@ class AuthServiceTest {
         FirebaseAuthRequest request = new FirebaseAuthRequest();
         request.setIdToken("mock-firebase-token");
 
+        // The row the upsert returns once it has linked the Firebase UID to the account
         User existingUser = new User();
         existingUser.setId(UUID.randomUUID());
         existingUser.setEmail("existing@example.com");
-        existingUser.setGoogleId(null);
+        existingUser.setGoogleId("firebase-uid");
+        existingUser.setRole(User.Role.CUSTOMER);
 
-        when(firebaseService.getUidFromToken(request.getIdToken())).thenReturn("firebase-uid");
-        when(firebaseService.getEmailFromToken(request.getIdToken())).thenReturn("existing@example.com");
-        when(firebaseService.getNameFromToken(request.getIdToken())).thenReturn("Existing User");
-        when(firebaseService.getPhoneFromToken(request.getIdToken())).thenReturn(null);
-        when(firebaseService.getProviderFromToken(request.getIdToken())).thenReturn("google.com");
+        when(firebaseService.verify(request.getIdToken())).thenReturn(
+                new FirebaseIdentity("firebase-uid", "existing@example.com", "Existing User", null, "google.com", Instant.now().plusSeconds(3600)));
 
-        when(userRepository.findByEmail("existing@example.com")).thenReturn(Optional.of(existingUser));
-        when(userRepository.save(any(User.class))).thenReturn(existingUser);
+        when(userRepository.provisionExternalUser("existing@example.com", "Existing", "User", null,
+                "firebase-uid", "GOOGLE", false)).thenReturn(existingUser);
         when(jwtService.generateToken(any(User.class))).thenReturn("mock-jwt-token");
 
         // Act
@@ -163,8 +175,31 @@ class AuthServiceTest {
         // Assert
         assertNotNull(response);
         assertEquals("mock-jwt-token", response.getAccessToken());
-        verify(userRepository).save(existingUser);
-        assertEquals("firebase-uid", existingUser.getGoogleId());
+        assertEquals(existingUser.getId(), response.getUser().getId());
+        verify(userRepository, never()).save(any(User.class));
+    }
+
+    @Test
+    void firebaseAuth_ShouldSkipDatabase_WhenLinkedUserCached() throws FirebaseAuthException {
+        // Arrange
+        FirebaseAuthRequest request = new FirebaseAuthRequest();
+        request.setIdToken("mock-firebase-token");
+        testUser.setGoogleId("firebase-uid");
+
+        when(firebaseService.verify(request.getIdToken())).thenReturn(
+                new FirebaseIdentity("firebase-uid", "test@example.com", "John Doe", null, "google.com", Instant.now().plusSeconds(3600)));
+        when(userRepository.provisionExternalUser("test@example.com", "John", "Doe", null,
+                "firebase-uid", "GOOGLE", false)).thenReturn(testUser);
+        when(jwtService.generateToken(any(User.class))).thenReturn("mock-jwt-token");
+
+        // Act
+        authService.firebaseAuth(request);
+        AuthResponse second = authService.firebaseAuth(request);
+
+        // Assert
+        assertEquals("mock-jwt-token", second.getAccessToken());
+        verify(userRepository, times(1)).provisionExternalUser(anyString(), anyString(), anyString(), any(),
+                anyString(), anyString(), anyBoolean());
     }
 
     @Test
@@ -175,15 +210,17 @@ class AuthServiceTest {
 
         FirebaseAuthException mockException = mock(FirebaseAuthException.class);
         when(mockException.getMessage()).thenReturn("Invalid token");
-        when(firebaseService.getUidFromToken(request.getIdToken())).thenThrow(mockException);
+        when(firebaseService.verify(request.getIdToken())).thenThrow(mockException);
 
         // Act & Assert
         RuntimeException exception = assertThrows(RuntimeException.class, 
             () -> authService.firebaseAuth(request));
         
         assertTrue(exception.getMessage().contains("Firebase token verification failed"));
-        verify(firebaseService).getUidFromToken(request.getIdToken());
+        verify(firebaseService).verify(request.getIdToken());
         verify(userRepository, never()).save(any(User.class));
+        verify(userRepository, never()).provisionExternalUser(anyString(), anyString(), anyString(), any(),
+                anyString(), anyString(), anyBoolean());
     }
 
     @Test
@@ -227,4 +264,24 @@ class AuthServiceTest {
         // Act & Assert
         assertDoesNotThrow(() -> authService.logout("any-token"));
     }
+
+    @Test
+    void logout_ShouldRevokeToken_WhenTokenProvided() {
+        // Act
+        authService.logout("Bearer valid-token");
+
+        // Assert
+        verify(jwtService).revoke("Bearer valid-token");
+    }
+
+    @Test
+    void logout_ShouldIgnoreInvalidOrMissingToken() {
+        // Arrange
+        when(jwtService.revoke("Bearer bad-token")).thenThrow(new BadJwtException("Invalid signature"));
+
+        // Act & Assert
+        assertDoesNotThrow(() -> authService.logout("Bearer bad-token"));
+        assertDoesNotThrow(() -> authService.logout(null));
+        verify(jwtService, never()).revoke(null);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,102 @@
+package com.freshtrio.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.freshtrio.dto.CategorySummary;
+import com.freshtrio.dto.ProductSummary;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CatalogSnapshotServiceTest {
+
+    @Mock
+    private ProductService productService;
+
+    @Mock
+    private CategoryService categoryService;
+
+    @InjectMocks
+    private CatalogSnapshotService catalogSnapshotService;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final CatalogVersion catalogVersion = new CatalogVersion();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(catalogSnapshotService, "objectMapper", objectMapper);
+        ReflectionTestUtils.setField(catalogSnapshotService, "catalogVersion", catalogVersion);
+    }
+
+    @Test
+    void rebuild_ShouldRenderCategoriesAndFirstPagesAsJsonAndGzip() throws Exception {
+        // Arrange
+        List<CategorySummary> categories = List.of(
+                new CategorySummary("all", "All Products", null, 0, 0),
+                new CategorySummary("beef", "Beef", null, 1, 0));
+        Page<ProductSummary> empty = new PageImpl<>(List.of(), PageRequest.of(0, CatalogSnapshotService.PAGE_SIZE), 0);
+        when(categoryService.getCategories()).thenReturn(categories);
+        when(productService.getAllProducts(any(), eq(PageRequest.of(0, CatalogSnapshotService.PAGE_SIZE)))).thenReturn(empty);
+
+        // Act
+        catalogSnapshotService.rebuild();
+
+        // Assert
+        CatalogSnapshotService.Rendered rendered = catalogSnapshotService.categories();
+        assertArrayEquals(objectMapper.writeValueAsBytes(categories), rendered.identity());
+        if (rendered.gzip() != null) {
+            assertArrayEquals(rendered.identity(), new GZIPInputStream(new ByteArrayInputStream(rendered.gzip())).readAllBytes());
+        }
+        assertArrayEquals(objectMapper.writeValueAsBytes(empty), catalogSnapshotService.firstPage("beef").identity());
+        assertSame(catalogSnapshotService.firstPage("all"), catalogSnapshotService.firstPage(null));
+        assertNull(catalogSnapshotService.firstPage("lamb"));
+    }
+
+    @Test
+    void rebuild_ShouldGzipLargeResponses() throws Exception {
+        // Arrange
+        List<CategorySummary> categories = Collections.nCopies(50, new CategorySummary("beef", "Beef", null, 1, 3));
+        when(categoryService.getCategories()).thenReturn(categories);
+        when(productService.getAllProducts(any(), any()))
+                .thenReturn(new PageImpl<>(List.of(), PageRequest.of(0, CatalogSnapshotService.PAGE_SIZE), 0));
+
+        // Act
+        catalogSnapshotService.rebuild();
+
+        // Assert
+        CatalogSnapshotService.Rendered rendered = catalogSnapshotService.categories();
+        assertTrue(rendered.gzip().length < rendered.identity().length);
+        assertArrayEquals(rendered.identity(), new GZIPInputStream(new ByteArrayInputStream(rendered.gzip())).readAllBytes());
+    }
+
+    @Test
+    void categories_ShouldReturnNull_OnceCatalogVersionMovesOn() throws Exception {
+        // Arrange
+        when(categoryService.getCategories()).thenReturn(List.of());
+        catalogSnapshotService.rebuild();
+
+        // Act
+        catalogVersion.bump();
+
+        // Assert
+        assertNull(catalogSnapshotService.categories());
+        assertNull(catalogSnapshotService.firstPage(null));
+    }
+}
@@ -0,0 +1,112 @@
+package com.freshtrio.service;
+
+import com.freshtrio.dto.CategorySummary;
+import com.freshtrio.entity.Category;
+import com.freshtrio.repository.CategoryRepository;
+import com.freshtrio.repository.ProductRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CategoryServiceTest {
+
+    @Mock
+    private CategoryRepository categoryRepository;
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private CatalogVersion catalogVersion;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @InjectMocks
+    private CategoryService categoryService;
+
+    @Test
+    void getCategories_ShouldJoinCategoryRowsWithActiveProductCounts() {
+        // Arrange
+        when(categoryRepository.findAllByOrderBySortOrderAscNameAsc()).thenReturn(List.of(
+                category("all", "All Products", 0, true),
+                category("beef", "Beef", 1, true),
+                category("chicken", "Chicken", 2, true),
+                category("pork", "Pork", 3, false)));
+        when(productRepository.countActiveProductsByCategory()).thenReturn(List.of(
+                count("beef", 3), count("pork", 2), count("game", 1)));
+
+        // Act
+        List<CategorySummary> categories = categoryService.getCategories();
+
+        // Assert - empty and inactive categories are hidden, unknown ones are appended
+        assertEquals(List.of(
+                new CategorySummary("all", "All Products", null, 0, 6),
+                new CategorySummary("beef", "Beef", null, 1, 3),
+                new CategorySummary("game", "game", null, Integer.MAX_VALUE, 1)), categories);
+    }
+
+    @Test
+    void getCategories_ShouldServeSnapshot_WithoutFurtherQueries() {
+        // Arrange
+        when(categoryRepository.findAllByOrderBySortOrderAscNameAsc()).thenReturn(List.of());
+        when(productRepository.countActiveProductsByCategory()).thenReturn(List.of(count("beef", 1)));
+
+        // Act
+        categoryService.getCategories();
+        categoryService.getCategories();
+        categoryService.getCategories();
+
+        // Assert
+        verify(productRepository, times(1)).countActiveProductsByCategory();
+        verify(categoryRepository, times(1)).findAllByOrderBySortOrderAscNameAsc();
+    }
+
+    @Test
+    void saveCategory_ShouldRebuildSnapshot() {
+        // Arrange
+        Category beef = category("beef", "Prime Beef", 1, true);
+        when(categoryRepository.save(beef)).thenReturn(beef);
+        when(categoryRepository.findAllByOrderBySortOrderAscNameAsc()).thenReturn(List.of(beef));
+        when(productRepository.countActiveProductsByCategory()).thenReturn(List.of(count("beef", 4)));
+
+        // Act
+        categoryService.saveCategory(beef);
+
+        // Assert
+        assertEquals("Prime Beef", categoryService.getCategories().get(1).displayName());
+        InOrder order = inOrder(productRepository, catalogVersion, eventPublisher);
+        order.verify(productRepository, times(1)).countActiveProductsByCategory();
+        order.verify(catalogVersion).bump();
+        order.verify(eventPublisher).publishEvent(any(CatalogChangedEvent.class));
+    }
+
+    private Category category(String name, String displayName, int sortOrder, boolean active) {
+        return Category.builder().name(name).displayName(displayName).sortOrder(sortOrder).isActive(active).build();
+    }
+
+    private ProductRepository.CategoryCount count(String category, long productCount) {
+        return new ProductRepository.CategoryCount() {
+            @Override
+            public String getCategory() {
+                return category;
+            }
+
+            @Override
+            public long getProductCount() {
+                return productCount;
+            }
+        };
+    }
+}
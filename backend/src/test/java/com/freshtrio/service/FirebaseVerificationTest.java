@@ -0,0 +1,179 @@
+package com.freshtrio.service;
+
+import com.google.firebase.auth.FirebaseAuthException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+class FirebaseVerificationTest {
+
+    private static final String TOKEN = "firebase-id-token";
+
+    private FirebaseService firebaseService;
+    private final AtomicInteger verifications = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        firebaseService = new FirebaseService();
+        ReflectionTestUtils.setField(firebaseService, "tokenCacheMaxSize", 100L);
+        firebaseService.init();
+    }
+
+    @Test
+    void verify_ShouldReadEveryFieldFromOneVerification() throws FirebaseAuthException {
+        // Arrange
+        Map<String, Object> claims = claims(Instant.now().plusSeconds(3600));
+        claims.put("phone_number", "+441234567890");
+        claims.put("firebase", Map.of("identities", Map.of("facebook.com", List.of("123"))));
+        useVerifier(idToken -> {
+            verifications.incrementAndGet();
+            return claims;
+        });
+
+        // Act
+        FirebaseIdentity identity = firebaseService.verify(TOKEN);
+
+        // Assert
+        assertEquals("firebase-uid", identity.uid());
+        assertEquals("firebase@example.com", identity.email());
+        assertEquals("Firebase User", identity.name());
+        assertEquals("+441234567890", identity.phone());
+        assertEquals("facebook.com", identity.provider());
+        assertEquals(1, verifications.get());
+    }
+
+    @Test
+    void verify_ShouldVerifyOnce_WhenSameTokenPresentedConcurrently() throws Exception {
+        // Arrange
+        CountDownLatch release = new CountDownLatch(1);
+        useVerifier(idToken -> {
+            verifications.incrementAndGet();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return claims(Instant.now().plusSeconds(3600));
+        });
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+
+        // Act
+        List<Future<FirebaseIdentity>> results = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            results.add(executor.submit(() -> firebaseService.verify(TOKEN)));
+        }
+        Thread.sleep(100);
+        release.countDown();
+
+        // Assert
+        for (Future<FirebaseIdentity> result : results) {
+            assertEquals("firebase-uid", result.get(5, TimeUnit.SECONDS).uid());
+        }
+        executor.shutdown();
+        assertEquals(1, verifications.get());
+    }
+
+    @Test
+    void verify_ShouldVerifyAgain_WhenTokenAlreadyExpired() throws FirebaseAuthException {
+        // Arrange
+        useVerifier(idToken -> {
+            verifications.incrementAndGet();
+            return claims(Instant.now().minusSeconds(60));
+        });
+
+        // Act
+        firebaseService.verify(TOKEN);
+        firebaseService.verify(TOKEN);
+
+        // Assert
+        assertEquals(2, verifications.get());
+    }
+
+    @Test
+    void verify_ShouldRethrowAndNotCache_WhenVerificationFails() throws FirebaseAuthException {
+        // Arrange
+        FirebaseAuthException failure = mock(FirebaseAuthException.class);
+        useVerifier(idToken -> {
+            if (verifications.incrementAndGet() == 1) {
+                throw failure;
+            }
+            return claims(Instant.now().plusSeconds(3600));
+        });
+
+        // Act
+        FirebaseAuthException thrown = assertThrows(FirebaseAuthException.class, () -> firebaseService.verify(TOKEN));
+        FirebaseIdentity identity = firebaseService.verify(TOKEN);
+
+        // Assert
+        assertSame(failure, thrown);
+        assertEquals("firebase-uid", identity.uid());
+        assertEquals(2, verifications.get());
+    }
+
+    @Test
+    void verify_ShouldReleaseWaitersAndRetry_WhenVerificationThrowsError() {
+        // Arrange
+        useVerifier(idToken -> {
+            if (verifications.incrementAndGet() == 1) {
+                throw new StackOverflowError();
+            }
+            return claims(Instant.now().plusSeconds(3600));
+        });
+
+        // Act & Assert - a stuck future would make the second call block forever
+        assertTimeoutPreemptively(Duration.ofSeconds(5), () -> {
+            assertThrows(StackOverflowError.class, () -> firebaseService.verify(TOKEN));
+            assertEquals("firebase-uid", firebaseService.verify(TOKEN).uid());
+        });
+        assertEquals(2, verifications.get());
+    }
+
+    @Test
+    void getFieldHelpers_ShouldShareOneVerification() throws FirebaseAuthException {
+        // Arrange
+        useVerifier(idToken -> {
+            verifications.incrementAndGet();
+            return claims(Instant.now().plusSeconds(3600));
+        });
+
+        // Act
+        String uid = firebaseService.getUidFromToken(TOKEN);
+        String email = firebaseService.getEmailFromToken(TOKEN);
+        String provider = firebaseService.getProviderFromToken(TOKEN);
+
+        // Assert
+        assertEquals("firebase-uid", uid);
+        assertEquals("firebase@example.com", email);
+        assertNotNull(provider);
+        assertEquals(1, verifications.get());
+    }
+
+    private void useVerifier(FirebaseTokenVerifier verifier) {
+        ReflectionTestUtils.setField(firebaseService, "verifier", verifier);
+    }
+
+    private static Map<String, Object> claims(Instant expiresAt) {
+        Map<String, Object> claims = new HashMap<>();
+        claims.put("sub", "firebase-uid");
+        claims.put("email", "firebase@example.com");
+        claims.put("name", "Firebase User");
+        claims.put("exp", expiresAt.getEpochSecond());
+        return claims;
+    }
+}
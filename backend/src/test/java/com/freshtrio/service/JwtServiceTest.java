@@ -1,17 +1,21 @@
 package com.freshtrio.service;
 
 import com.freshtrio.entity.User;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.oauth2.jose.jws.MacAlgorithm;
 import org.springframework.security.oauth2.jwt.*;
 import org.springframework.test.util.ReflectionTestUtils;
 
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
+import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -27,6 +31,9 @@ class JwtServiceTest {
     @Mock
     private JwtDecoder jwtDecoder;
 
+    @Mock
+    private TokenDenylist tokenDenylist;
+
     @InjectMocks
     private JwtService jwtService;
 
@@ -38,6 +45,10 @@ class JwtServiceTest {
     void setUp() {
         // Set JWT expiration to 24 hours for testing
         ReflectionTestUtils.setField(jwtService, "jwtExpirationInSeconds", 86400L);
+        ReflectionTestUtils.setField(jwtService, "cacheMaxSize", 100L);
+        ReflectionTestUtils.setField(jwtService, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(jwtService, "jwsHeader", JwsHeader.with(MacAlgorithm.HS256).build());
+        jwtService.init();
         
         now = Instant.now();
         expiration = now.plus(24, ChronoUnit.HOURS);
@@ -56,14 +67,24 @@ class JwtServiceTest {
         when(mockGeneratedJwt.getTokenValue()).thenReturn("generated-jwt-token");
         when(jwtEncoder.encode(any(JwtEncoderParameters.class))).thenReturn(mockGeneratedJwt);
 
+        User user = new User();
+        user.setEmail(email);
+        user.setRole(role);
+
         // Act
-        String token = jwtService.generateToken(null); //TODO fix this
+        String token = jwtService.generateToken(user);
 
         // Assert
         assertNotNull(token);
         assertEquals("generated-jwt-token", token);
         
-        verify(jwtEncoder).encode(any(JwtEncoderParameters.class));
+        ArgumentCaptor<JwtEncoderParameters> parameters = ArgumentCaptor.forClass(JwtEncoderParameters.class);
+        verify(jwtEncoder).encode(parameters.capture());
+        JwtClaimsSet claims = parameters.getValue().getClaims();
+        assertEquals(email, claims.getSubject());
+        assertEquals("CUSTOMER", claims.getClaimAsString("role"));
+        // Email accounts have no Google id, so the claim is left out rather than null
+        assertFalse(claims.hasClaim("googleid"));
     }
 
     @Test
@@ -250,4 +271,111 @@ class JwtServiceTest {
         assertTrue(isExpired);
         verify(jwtDecoder).decode(cleanToken);
     }
-}
\ No newline at end of file
+
+    @Test
+    void parse_ShouldVerifyOnce_WhenSameTokenSeenAgain() {
+        // Arrange
+        String token = "valid-jwt-token";
+        when(mockJwt.getExpiresAt()).thenReturn(Instant.now().plus(1, ChronoUnit.HOURS));
+        when(mockJwt.getSubject()).thenReturn("test@example.com");
+        when(mockJwt.getClaimAsString("role")).thenReturn("CUSTOMER");
+        when(jwtDecoder.decode(token)).thenReturn(mockJwt);
+
+        // Act
+        boolean valid = jwtService.isTokenValid("Bearer " + token);
+        String email = jwtService.extractUsername(token);
+        String role = jwtService.extractRole("Bearer " + token);
+
+        // Assert
+        assertTrue(valid);
+        assertEquals("test@example.com", email);
+        assertEquals("CUSTOMER", role);
+        verify(jwtDecoder, times(1)).decode(token);
+    }
+
+    @Test
+    void parse_ShouldNotCache_WhenTokenAlreadyExpired() {
+        // Arrange
+        String token = "expired-jwt-token";
+        when(mockJwt.getExpiresAt()).thenReturn(Instant.now().minus(1, ChronoUnit.MINUTES));
+        when(jwtDecoder.decode(token)).thenReturn(mockJwt);
+
+        // Act
+        jwtService.parse(token);
+        jwtService.parse(token);
+
+        // Assert
+        verify(jwtDecoder, times(2)).decode(token);
+    }
+
+    @Test
+    void parse_ShouldNotCache_WhenVerificationFails() {
+        // Arrange
+        String token = "forged-jwt-token";
+        when(jwtDecoder.decode(token)).thenThrow(new JwtException("Invalid signature"));
+
+        // Act & Assert
+        assertThrows(JwtException.class, () -> jwtService.parse(token));
+        assertThrows(JwtException.class, () -> jwtService.parse(token));
+        verify(jwtDecoder, times(2)).decode(token);
+    }
+
+    @Test
+    void parse_ShouldReject_WhenTokenRevoked() {
+        // Arrange
+        String token = "revoked-jwt-token";
+        UUID jti = UUID.randomUUID();
+        when(jwtDecoder.decode(token)).thenReturn(jwtWithId(jti));
+        when(tokenDenylist.isRevoked(jti)).thenReturn(false, true);
+
+        // Act
+        jwtService.parse(token);
+        boolean validAfterLogout = jwtService.isTokenValid(token);
+
+        // Assert
+        assertFalse(validAfterLogout);
+        verify(jwtDecoder, times(1)).decode(token);
+    }
+
+    @Test
+    void revoke_ShouldDenylistJtiUntilExpiry() {
+        // Arrange
+        String token = "valid-jwt-token";
+        UUID jti = UUID.randomUUID();
+        Jwt jwt = jwtWithId(jti);
+        when(jwtDecoder.decode(token)).thenReturn(jwt);
+
+        // Act
+        boolean revoked = jwtService.revoke("Bearer " + token);
+
+        // Assert
+        assertTrue(revoked);
+        verify(tokenDenylist).revoke(jti, jwt.getExpiresAt());
+    }
+
+    @Test
+    void revoke_ShouldReturnFalse_WhenTokenHasNoJti() {
+        // Arrange
+        String token = "legacy-jwt-token";
+        when(mockJwt.getExpiresAt()).thenReturn(Instant.now().plus(1, ChronoUnit.HOURS));
+        when(jwtDecoder.decode(token)).thenReturn(mockJwt);
+
+        // Act
+        boolean revoked = jwtService.revoke(token);
+
+        // Assert
+        assertFalse(revoked);
+        verify(tokenDenylist, never()).revoke(any(), any());
+    }
+
+    private static Jwt jwtWithId(UUID jti) {
+        Instant issuedAt = Instant.now();
+        return Jwt.withTokenValue("token")
+                .header("alg", "HS256")
+                .jti(jti.toString())
+                .subject("test@example.com")
+                .issuedAt(issuedAt)
+                .expiresAt(issuedAt.plus(1, ChronoUnit.HOURS))
+                .build();
+    }
+}
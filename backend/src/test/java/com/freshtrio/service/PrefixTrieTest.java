@@ -0,0 +1,54 @@
+package com.freshtrio.service;
+
+import com.freshtrio.dto.Suggestion;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PrefixTrieTest {
+
+    private final PrefixTrie trie = new PrefixTrie.Builder(3)
+            .add(Suggestion.category("Beef", "beef"))
+            .add(Suggestion.category("Chicken", "chicken"))
+            .add(Suggestion.product("Beef Mince", "beef", UUID.randomUUID()))
+            .add(Suggestion.product("Beef Brisket", "beef", UUID.randomUUID()))
+            .add(Suggestion.product("Beef Burger", "beef", UUID.randomUUID()))
+            .add(Suggestion.product("Chicken Breast", "chicken", UUID.randomUUID()))
+            .add(Suggestion.product("Rib Eye Steak", "beef", UUID.randomUUID()))
+            .build();
+
+    @Test
+    void suggest_ShouldReturnBestEntriesInRankOrder() {
+        assertEquals(List.of("Beef", "Beef Mince", "Beef Brisket"), texts(trie.suggest("be", 10)));
+    }
+
+    @Test
+    void suggest_ShouldHonourLimit() {
+        assertEquals(List.of("Beef"), texts(trie.suggest("b", 1)));
+    }
+
+    @Test
+    void suggest_ShouldMatchStartOfLaterWords() {
+        assertEquals(List.of("Rib Eye Steak"), texts(trie.suggest("eye", 10)));
+        assertEquals(List.of("Chicken Breast"), texts(trie.suggest("brea", 10)));
+    }
+
+    @Test
+    void suggest_ShouldNormalizeCaseAndWhitespace() {
+        assertEquals(List.of("Rib Eye Steak"), texts(trie.suggest("  RIB   eye", 10)));
+    }
+
+    @Test
+    void suggest_ShouldReturnEmpty_WhenNoMatchOrBlank() {
+        assertTrue(trie.suggest("lamb", 10).isEmpty());
+        assertTrue(trie.suggest("   ", 10).isEmpty());
+        assertTrue(PrefixTrie.EMPTY.suggest("beef", 10).isEmpty());
+    }
+
+    private List<String> texts(List<Suggestion> suggestions) {
+        return suggestions.stream().map(Suggestion::text).toList();
+    }
+}
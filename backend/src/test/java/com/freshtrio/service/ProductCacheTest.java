@@ -0,0 +1,110 @@
+package com.freshtrio.service;
+
+import com.freshtrio.dto.ProductSummary;
+import com.freshtrio.entity.Product;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProductCacheTest {
+
+    private ProductCache productCache;
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        productCache = new ProductCache();
+        ReflectionTestUtils.setField(productCache, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(productCache, "productsMaxSize", 100L);
+        ReflectionTestUtils.setField(productCache, "productsTtl", Duration.ofMinutes(10));
+        ReflectionTestUtils.setField(productCache, "pagesMaxSize", 100L);
+        ReflectionTestUtils.setField(productCache, "pagesTtl", Duration.ofMinutes(5));
+        productCache.init();
+    }
+
+    @Test
+    void getProduct_ShouldLoadOnce_WhenCalledRepeatedly() {
+        // Arrange
+        UUID id = UUID.randomUUID();
+        AtomicInteger loads = new AtomicInteger();
+
+        // Act
+        for (int i = 0; i < 3; i++) {
+            productCache.getProduct(id, key -> {
+                loads.incrementAndGet();
+                return Product.builder().id(key).name("Ribeye").build();
+            });
+        }
+
+        // Assert
+        assertEquals(1, loads.get());
+        assertEquals(2.0, meterRegistry.get("cache.gets").tag("cache", "products").tag("result", "hit")
+                .functionCounter().count());
+    }
+
+    @Test
+    void getProduct_ShouldNotCacheMissingProduct() {
+        // Arrange
+        UUID id = UUID.randomUUID();
+        AtomicInteger loads = new AtomicInteger();
+
+        // Act
+        productCache.getProduct(id, key -> { loads.incrementAndGet(); return null; });
+        productCache.getProduct(id, key -> { loads.incrementAndGet(); return null; });
+
+        // Assert
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void evictPages_ShouldOnlyEvictAffectedCategoriesAndAll() {
+        // Arrange
+        AtomicInteger loads = new AtomicInteger();
+        PageRequest pageable = PageRequest.of(0, 20);
+        for (String category : List.of("beef", "chicken", "all")) {
+            productCache.getPage(category, pageable, () -> countingPage(loads));
+        }
+
+        // Act
+        productCache.evictPages(Set.of("beef"));
+        for (String category : List.of("beef", "chicken", "all")) {
+            productCache.getPage(category, pageable, () -> countingPage(loads));
+        }
+
+        // Assert - beef and all reloaded, chicken served from cache
+        assertEquals(5, loads.get());
+        assertEquals(2.0, meterRegistry.get("cache.invalidations").tag("cache", "productPages").counter().count());
+    }
+
+    @Test
+    void getPage_ShouldTreatNullCategoryAsAll() {
+        // Arrange
+        AtomicInteger loads = new AtomicInteger();
+        PageRequest pageable = PageRequest.of(0, 20);
+
+        // Act
+        productCache.getPage(null, pageable, () -> countingPage(loads));
+        productCache.getPage("all", pageable, () -> countingPage(loads));
+
+        // Assert
+        assertEquals(1, loads.get());
+    }
+
+    private Page<ProductSummary> countingPage(AtomicInteger loads) {
+        loads.incrementAndGet();
+        return new PageImpl<>(List.of());
+    }
+}
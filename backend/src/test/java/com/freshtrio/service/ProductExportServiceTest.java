@@ -0,0 +1,118 @@
+package com.freshtrio.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.freshtrio.repository.ProductExportRepository;
+import com.freshtrio.repository.ProductExportRepository.ExportedProduct;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ProductExportServiceTest {
+
+    @Mock
+    private ProductExportRepository exportRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @InjectMocks
+    private ProductExportService productExportService;
+
+    private final UUID supplierId = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(productExportService, "objectMapper", new ObjectMapper());
+        productExportService.init();
+    }
+
+    @Test
+    void export_ShouldWriteQuotedCsvRows() throws IOException {
+        // Arrange
+        ExportedProduct ribeye = product("Ribeye, \"dry aged\"", "Line one\nline two");
+        streamRows(ribeye);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // Act
+        productExportService.export(ProductExportService.Format.CSV, null, true, out);
+
+        // Assert
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\r\n");
+        assertTrue(lines[0].startsWith("id,supplier_id,supplier_name,name,"));
+        assertTrue(lines[1].contains(",\"Ribeye, \"\"dry aged\"\"\",\"Line one\nline two\",beef,28.99,kg,,true,"));
+    }
+
+    @Test
+    void export_ShouldWriteOneJsonObjectPerLine() throws IOException {
+        // Arrange
+        streamRows(product("Ribeye", null), product("Cod", null));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // Act
+        productExportService.export(ProductExportService.Format.NDJSON, supplierId, false, out);
+
+        // Assert
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, lines.length);
+        JsonNode cod = new ObjectMapper().readTree(lines[1]);
+        assertEquals("Cod", cod.get("name").asText());
+        assertEquals(new BigDecimal("28.99"), cod.get("price").decimalValue());
+        assertFalse(cod.has("description"));
+        verify(exportRepository).forEach(eq(supplierId), eq(false), any());
+    }
+
+    @Test
+    void export_ShouldPropagateClientDisconnect() {
+        // Arrange
+        streamRows(product("Ribeye", null));
+        OutputStream closed = new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                throw new IOException("Broken pipe");
+            }
+        };
+
+        // Act & Assert
+        IOException error = assertThrows(IOException.class,
+                () -> productExportService.export(ProductExportService.Format.NDJSON, null, true, closed));
+        assertEquals("Broken pipe", error.getMessage());
+    }
+
+    @SuppressWarnings("unchecked")
+    private void streamRows(ExportedProduct... products) {
+        doAnswer(invocation -> {
+            Consumer<ExportedProduct> consumer = invocation.getArgument(2);
+            for (ExportedProduct product : products) {
+                consumer.accept(product);
+            }
+            return null;
+        }).when(exportRepository).forEach(any(), anyBoolean(), any(Consumer.class));
+    }
+
+    private ExportedProduct product(String name, String description) {
+        return new ExportedProduct(UUID.randomUUID(), name, description, "beef", new BigDecimal("28.99"), "kg",
+                null, true, LocalDateTime.of(2024, 9, 1, 10, 0), LocalDateTime.of(2024, 9, 2, 10, 0),
+                supplierId, "Fresh Farms");
+    }
+}
@@ -0,0 +1,179 @@
+package com.freshtrio.service;
+
+import com.freshtrio.repository.ProductRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class ProductImageServiceTest {
+
+    private final ProductImageService productImageService = new ProductImageService();
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void renderVariants_ShouldWriteEveryVariantWithinItsMaxEdge() throws Exception {
+        // Arrange
+        Path original = dir.resolve("original.png");
+        ImageIO.write(new BufferedImage(3000, 2000, BufferedImage.TYPE_INT_ARGB), "png", original.toFile());
+
+        // Act
+        productImageService.renderVariants(original, dir);
+
+        // Assert
+        for (ProductImageService.Variant variant : ProductImageService.VARIANTS) {
+            BufferedImage image = ImageIO.read(dir.resolve(variant.name() + ".jpg").toFile());
+            assertEquals(variant.maxEdge(), image.getWidth());
+            assertEquals(Math.round(variant.maxEdge() * 2 / 3.0), image.getHeight());
+        }
+        try (var files = Files.list(dir)) {
+            assertTrue(files.noneMatch(file -> file.toString().endsWith(".tmp")));
+        }
+    }
+
+    @Test
+    void resize_ShouldNotUpscaleSmallImages() {
+        // Arrange
+        BufferedImage small = new BufferedImage(100, 50, BufferedImage.TYPE_INT_RGB);
+
+        // Act
+        BufferedImage resized = ProductImageService.resize(small, 480);
+
+        // Assert
+        assertEquals(100, resized.getWidth());
+        assertEquals(50, resized.getHeight());
+    }
+
+    @Test
+    void newImageId_ShouldSortByUploadTime() throws Exception {
+        // Arrange
+        UUID legacy = UUID.randomUUID();
+        UUID earlier = ProductImageService.newImageId();
+        Thread.sleep(2);
+        UUID later = ProductImageService.newImageId();
+
+        // Act & Assert
+        assertEquals(7, later.version());
+        assertTrue(ProductImageService.compareUploadOrder(earlier, later) < 0);
+        assertTrue(ProductImageService.compareUploadOrder(later, earlier) > 0);
+        assertTrue(ProductImageService.compareUploadOrder(legacy, earlier) < 0);
+    }
+
+    @Test
+    void process_ShouldPublishImageAndDeleteOnlyOlderImages() throws Exception {
+        // Arrange
+        UUID productId = UUID.randomUUID();
+        UUID older = ProductImageService.newImageId();
+        Thread.sleep(2);
+        UUID uploaded = ProductImageService.newImageId();
+        Thread.sleep(2);
+        UUID newer = ProductImageService.newImageId(); // still being processed
+        ProductRepository productRepository = mock(ProductRepository.class);
+        ProductService productService = mock(ProductService.class);
+        configure(productRepository, productService);
+        String olderUrl = "/uploads/products/" + productId + "/" + older + "/detail.jpg";
+        when(productRepository.findImageSlot(productId)).thenReturn(Optional.of(slot(olderUrl, "beef")));
+        when(productRepository.replaceImageUrl(eq(productId), eq(olderUrl), anyString())).thenReturn(1);
+        Path original = upload(productId, uploaded);
+        Files.createDirectories(imageDir(productId, older));
+        Files.createDirectories(imageDir(productId, newer));
+
+        // Act
+        productImageService.process(productId, uploaded, original);
+
+        // Assert
+        verify(productRepository).replaceImageUrl(productId, olderUrl,
+                "/uploads/products/" + productId + "/" + uploaded + "/detail.jpg");
+        verify(productService).evictAfterBulkWrite(List.of(productId), Set.of("beef"), false);
+        assertFalse(Files.exists(imageDir(productId, older)));
+        assertTrue(Files.exists(imageDir(productId, uploaded).resolve("detail.jpg")));
+        assertTrue(Files.exists(imageDir(productId, newer)));
+    }
+
+    @Test
+    void process_ShouldDiscardImage_WhenLaterUploadPublishedFirst() throws Exception {
+        // Arrange - the compare-and-set loses to a later upload, which is then seen on re-read
+        UUID productId = UUID.randomUUID();
+        UUID uploaded = ProductImageService.newImageId();
+        Thread.sleep(2);
+        UUID later = ProductImageService.newImageId();
+        ProductRepository productRepository = mock(ProductRepository.class);
+        ProductService productService = mock(ProductService.class);
+        configure(productRepository, productService);
+        String laterUrl = "/uploads/products/" + productId + "/" + later + "/detail.jpg";
+        when(productRepository.findImageSlot(productId))
+                .thenReturn(Optional.of(slot(null, "beef")))
+                .thenReturn(Optional.of(slot(laterUrl, "beef")));
+        when(productRepository.replaceImageUrl(eq(productId), eq(""), anyString())).thenReturn(0);
+        Path original = upload(productId, uploaded);
+        Files.createDirectories(imageDir(productId, later));
+
+        // Act
+        productImageService.process(productId, uploaded, original);
+
+        // Assert
+        verify(productRepository, times(1)).replaceImageUrl(any(), any(), any());
+        verify(productService, never()).evictAfterBulkWrite(any(), any(), anyBoolean());
+        assertFalse(Files.exists(imageDir(productId, uploaded)));
+        assertTrue(Files.exists(imageDir(productId, later)));
+    }
+
+    @Test
+    void sniffExtension_ShouldRecognizeJpegAndPngOnly() {
+        // Arrange
+        byte[] jpeg = {(byte) 0xFF, (byte) 0xD8, (byte) 0xFF, (byte) 0xE0, 0, 0, 0, 0};
+        byte[] png = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'};
+        byte[] gif = {'G', 'I', 'F', '8', '9', 'a', 0, 0};
+
+        // Act & Assert
+        assertEquals("jpg", ProductImageService.sniffExtension(jpeg));
+        assertEquals("png", ProductImageService.sniffExtension(png));
+        assertNull(ProductImageService.sniffExtension(gif));
+        assertNull(ProductImageService.sniffExtension(new byte[0]));
+    }
+
+    private void configure(ProductRepository productRepository, ProductService productService) {
+        ReflectionTestUtils.setField(productImageService, "productRepository", productRepository);
+        ReflectionTestUtils.setField(productImageService, "productService", productService);
+        ReflectionTestUtils.setField(productImageService, "uploadDir", dir.toString());
+        ReflectionTestUtils.setField(productImageService, "baseUrl", "/uploads");
+    }
+
+    private Path upload(UUID productId, UUID imageId) throws Exception {
+        Path original = Files.createDirectories(imageDir(productId, imageId)).resolve("original.png");
+        ImageIO.write(new BufferedImage(40, 30, BufferedImage.TYPE_INT_RGB), "png", original.toFile());
+        return original;
+    }
+
+    private Path imageDir(UUID productId, UUID imageId) {
+        return dir.resolve(ProductImageService.PRODUCTS_DIR).resolve(productId.toString()).resolve(imageId.toString());
+    }
+
+    private static ProductRepository.ImageSlot slot(String imageUrl, String category) {
+        return new ProductRepository.ImageSlot() {
+            @Override
+            public String getImageUrl() {
+                return imageUrl;
+            }
+
+            @Override
+            public String getCategory() {
+                return category;
+            }
+        };
+    }
+}
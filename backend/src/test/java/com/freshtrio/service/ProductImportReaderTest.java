@@ -0,0 +1,92 @@
+package com.freshtrio.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProductImportReaderTest {
+
+    @Test
+    void next_ShouldParseQuotedCsvFields() throws IOException {
+        // Arrange
+        String csv = "Name,Price,Image URL,Description\r\n"
+                + "Ribeye,28.99,,\"Thick cut, \"\"dry aged\"\"\"\r\n"
+                + "\"Salmon\nFillet\",24.99,http://img/salmon,Wild\r\n";
+
+        // Act
+        List<ProductImportReader.RawRecord> records = readAll(csv, ProductImportService.Format.CSV);
+
+        // Assert
+        assertEquals(2, records.size());
+        assertEquals(2, records.get(0).line());
+        assertEquals("Thick cut, \"dry aged\"", records.get(0).fields().get("description"));
+        assertEquals("", records.get(0).fields().get("imageurl"));
+        assertEquals("Salmon\nFillet", records.get(1).fields().get("name"));
+        assertEquals("http://img/salmon", records.get(1).fields().get("imageurl"));
+    }
+
+    @Test
+    void next_ShouldReportCsvRowWithTooManyColumnsAndContinue() throws IOException {
+        // Arrange
+        String csv = "name,price\n\nRibeye,28.99,extra\nCod,18.99\n";
+
+        // Act
+        List<ProductImportReader.RawRecord> records = readAll(csv, ProductImportService.Format.CSV);
+
+        // Assert - the blank line is skipped, line numbers still count it
+        assertEquals(2, records.size());
+        assertEquals(3, records.get(0).line());
+        assertNotNull(records.get(0).error());
+        assertEquals("Cod", records.get(1).fields().get("name"));
+        assertEquals(4, records.get(1).line());
+    }
+
+    @Test
+    void next_ShouldParseNdjsonAndReportInvalidLines() throws IOException {
+        // Arrange
+        String ndjson = "{\"name\":\"Ribeye\",\"price\":28.99,\"isActive\":false}\n"
+                + "{not json}\n"
+                + "{\"name\":\"Cod\",\"tags\":[\"fish\"]}\n";
+
+        // Act
+        List<ProductImportReader.RawRecord> records = readAll(ndjson, ProductImportService.Format.NDJSON);
+
+        // Assert
+        assertEquals(3, records.size());
+        assertEquals("28.99", records.get(0).fields().get("price"));
+        assertEquals("false", records.get(0).fields().get("active"));
+        assertEquals(2, records.get(1).line());
+        assertNotNull(records.get(1).error());
+        assertNotNull(records.get(2).error());
+    }
+
+    @Test
+    void next_ShouldStop_WhenRecordExceedsLimit() throws IOException {
+        // Arrange
+        String csv = "name,price\n\"" + "x".repeat(ProductImportReader.MAX_RECORD_CHARS) + "\",1\nCod,18.99\n";
+
+        // Act
+        List<ProductImportReader.RawRecord> records = readAll(csv, ProductImportService.Format.CSV);
+
+        // Assert
+        assertEquals(1, records.size());
+        assertTrue(records.get(0).error().contains("exceeds"));
+    }
+
+    private List<ProductImportReader.RawRecord> readAll(String input, ProductImportService.Format format) throws IOException {
+        List<ProductImportReader.RawRecord> records = new ArrayList<>();
+        try (ProductImportReader reader = new ProductImportReader(new StringReader(input), format, new ObjectMapper())) {
+            ProductImportReader.RawRecord record;
+            while ((record = reader.next()) != null) {
+                records.add(record);
+            }
+        }
+        return records;
+    }
+}
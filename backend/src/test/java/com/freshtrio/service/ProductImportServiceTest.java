@@ -0,0 +1,211 @@
+package com.freshtrio.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.freshtrio.dto.ImportReport;
+import com.freshtrio.dto.ProductImportRow;
+import com.freshtrio.repository.ProductImportRepository;
+import com.freshtrio.repository.ProductImportRepository.ExistingProduct;
+import com.freshtrio.repository.ProductImportRepository.UpsertedProduct;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anySet;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ProductImportServiceTest {
+
+    @Mock
+    private ProductImportRepository importRepository;
+
+    @Mock
+    private ProductService productService;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @InjectMocks
+    private ProductImportService productImportService;
+
+    private final UUID supplierId = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(productImportService, "objectMapper", new ObjectMapper());
+        ReflectionTestUtils.setField(productImportService, "chunkSize", 2);
+        ReflectionTestUtils.setField(productImportService, "maxErrors", 10);
+        lenient().when(importRepository.supplierExists(supplierId)).thenReturn(true);
+        lenient().when(transactionTemplate.execute(any()))
+                .thenAnswer(invocation -> ((TransactionCallback<?>) invocation.getArgument(0)).doInTransaction(null));
+    }
+
+    @Test
+    void importProducts_ShouldUpsertInChunksAndInvalidateOncePerChunk() throws Exception {
+        // Arrange
+        UUID ribeyeId = UUID.randomUUID();
+        useStoredProducts(Map.of("Ribeye", new ExistingProduct(ribeyeId, "beef", true)));
+        String csv = "name,price,category\nRibeye,29.99,\nCod,18.99,Seafood\nTuna,32.99,seafood\n";
+
+        // Act
+        ImportReport report = productImportService.importProducts(supplierId, stream(csv), ProductImportService.Format.CSV);
+
+        // Assert
+        assertEquals(3, report.getRowsRead());
+        assertEquals(2, report.getInserted());
+        assertEquals(1, report.getUpdated());
+        assertEquals(0, report.getFailed());
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<ProductImportRow>> batches = ArgumentCaptor.forClass(List.class);
+        verify(importRepository, times(2)).upsert(eq(supplierId), batches.capture());
+        ProductImportRow ribeye = batches.getAllValues().get(0).get(0);
+        assertNull(ribeye.category());
+        // Stored as given, like products saved through the API
+        assertEquals("Seafood", batches.getAllValues().get(0).get(1).category());
+        assertEquals(new BigDecimal("29.99"), ribeye.price());
+
+        // Existing category counts as affected even when the row leaves it unchanged
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<UUID>> evictedIds = ArgumentCaptor.forClass(List.class);
+        verify(productService).evictAfterBulkWrite(evictedIds.capture(), eq(Set.of("beef", "Seafood")), eq(true));
+        assertEquals(ribeyeId, evictedIds.getValue().get(0));
+        verify(productService, times(2)).evictAfterBulkWrite(anyList(), anySet(), anyBoolean());
+    }
+
+    @Test
+    void importProducts_ShouldReportInvalidRowsAndKeepGoing() throws Exception {
+        // Arrange
+        useStoredProducts(Map.of());
+        String ndjson = "{\"price\":1.00}\n"
+                + "{\"name\":\"Cod\",\"price\":\"cheap\"}\n"
+                + "{\"name\":\"Tuna\",\"price\":1.999}\n"
+                + "{\"name\":\"Ribeye\",\"price\":28.99,\"active\":\"maybe\"}\n"
+                + "{\"name\":\"Lamb\",\"price\":22.99}\n";
+
+        // Act
+        ImportReport report = productImportService.importProducts(supplierId, stream(ndjson), ProductImportService.Format.NDJSON);
+
+        // Assert
+        assertEquals(5, report.getRowsRead());
+        assertEquals(1, report.getInserted());
+        assertEquals(4, report.getFailed());
+        assertEquals(List.of(1L, 2L, 3L, 4L), report.getErrors().stream().map(ImportReport.RowError::line).toList());
+    }
+
+    @Test
+    void importProducts_ShouldCollapseRepeatedNamesWithinChunk() throws Exception {
+        // Arrange
+        useStoredProducts(Map.of());
+        String csv = "name,price\nCod,18.99\nCod,17.99\n";
+
+        // Act
+        ImportReport report = productImportService.importProducts(supplierId, stream(csv), ProductImportService.Format.CSV);
+
+        // Assert - the later line wins and the earlier one counts as an update
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<ProductImportRow>> batch = ArgumentCaptor.forClass(List.class);
+        verify(importRepository).upsert(eq(supplierId), batch.capture());
+        assertEquals(1, batch.getValue().size());
+        assertEquals(new BigDecimal("17.99"), batch.getValue().get(0).price());
+        assertEquals(1, report.getInserted());
+        assertEquals(1, report.getUpdated());
+    }
+
+    @Test
+    void importProducts_ShouldTakeIdsAndCountsFromDatabase_WhenAnotherWriterInsertedFirst() throws Exception {
+        // Arrange - the read saw no Cod, but a concurrent import stored it before our write
+        UUID storedId = UUID.randomUUID();
+        when(importRepository.findExisting(eq(supplierId), anyCollection())).thenReturn(Map.of());
+        when(importRepository.upsert(eq(supplierId), anyList())).thenReturn(
+                List.of(new UpsertedProduct(storedId, "Cod", "seafood", true, false)));
+        String csv = "name,price\nCod,18.99\n";
+
+        // Act
+        ImportReport report = productImportService.importProducts(supplierId, stream(csv), ProductImportService.Format.CSV);
+
+        // Assert
+        assertEquals(0, report.getInserted());
+        assertEquals(1, report.getUpdated());
+        verify(productService).evictAfterBulkWrite(eq(List.of(storedId)), eq(Set.of("seafood")), eq(true));
+    }
+
+    @Test
+    void importProducts_ShouldReportFailedChunkWithoutInvalidating() throws Exception {
+        // Arrange
+        doThrow(new DataIntegrityViolationException("value too long")).when(importRepository).upsert(any(), anyList());
+        String csv = "name,price\nCod,18.99\n";
+
+        // Act
+        ImportReport report = productImportService.importProducts(supplierId, stream(csv), ProductImportService.Format.CSV);
+
+        // Assert
+        assertEquals(1, report.getFailed());
+        assertEquals(0, report.getInserted());
+        assertEquals(2, report.getErrors().get(0).line());
+        verify(productService, never()).evictAfterBulkWrite(anyList(), anySet(), anyBoolean());
+    }
+
+    @Test
+    void importProducts_ShouldRejectUnknownSupplier() {
+        // Arrange
+        UUID unknown = UUID.randomUUID();
+        when(importRepository.supplierExists(unknown)).thenReturn(false);
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class,
+                () -> productImportService.importProducts(unknown, stream("name,price\n"), ProductImportService.Format.CSV));
+    }
+
+    /**
+     * Answers findExisting and upsert as the database would with the given products stored.
+     */
+    private void useStoredProducts(Map<String, ExistingProduct> stored) {
+        when(importRepository.findExisting(eq(supplierId), anyCollection())).thenAnswer(invocation -> {
+            Collection<String> names = invocation.getArgument(1);
+            Map<String, ExistingProduct> found = new HashMap<>(stored);
+            found.keySet().retainAll(names);
+            return found;
+        });
+        when(importRepository.upsert(eq(supplierId), anyList())).thenAnswer(invocation -> {
+            List<ProductImportRow> rows = invocation.getArgument(1);
+            return rows.stream().map(row -> {
+                ExistingProduct current = stored.get(row.name());
+                if (current == null) {
+                    return new UpsertedProduct(row.id(), row.name(), row.category(), row.active(), true);
+                }
+                String category = row.category() != null ? row.category() : current.category();
+                return new UpsertedProduct(current.id(), row.name(), category, row.active(), false);
+            }).toList();
+        });
+    }
+
+    private InputStream stream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,109 @@
+package com.freshtrio.service;
+
+import com.freshtrio.dto.ProductSummary;
+import com.freshtrio.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.projection.SpelAwareProxyProjectionFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ProductSearchIndexTest {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @InjectMocks
+    private ProductSearchIndex searchIndex;
+
+    private final ProductSummary ribeye = summary("Rib Eye Steak", "Well marbled beef", "beef");
+    private final ProductSummary salmon = summary("Salmon Fillet", "Fresh Atlantic salmon", "seafood");
+    private final ProductSummary mince = summary("Beef Mince", "Lean minced beef, 5% fat", "beef");
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(searchIndex, "minSimilarity", 0.6);
+        when(productRepository.findActiveSummaries()).thenReturn(List.of(ribeye, salmon, mince));
+        searchIndex.rebuild();
+    }
+
+    @Test
+    void search_ShouldMatchAcrossWordBoundaries() {
+        assertEquals(List.of("Rib Eye Steak"), names(searchIndex.search("ribeye", null, PageRequest.of(0, 20))));
+    }
+
+    @Test
+    void search_ShouldTolerateTypos() {
+        assertEquals(List.of("Salmon Fillet"), names(searchIndex.search("salmn", null, PageRequest.of(0, 20))));
+    }
+
+    @Test
+    void search_ShouldRankNameMatchesFirstAndFilterByCategory() {
+        // Act
+        Page<ProductSummary> all = searchIndex.search("beef", null, PageRequest.of(0, 20));
+        Page<ProductSummary> seafood = searchIndex.search("beef", "seafood", PageRequest.of(0, 20));
+
+        // Assert
+        assertEquals(List.of("Beef Mince", "Rib Eye Steak"), names(all));
+        assertEquals(2, all.getTotalElements());
+        assertTrue(seafood.isEmpty());
+    }
+
+    @Test
+    void search_ShouldReturnNull_WhenQueryShorterThanTrigram() {
+        assertNull(searchIndex.search("ox", null, PageRequest.of(0, 20)));
+    }
+
+    @Test
+    void refresh_ShouldDropProduct_WhenNoLongerActive() {
+        // Arrange
+        when(productRepository.findActiveSummaryById(salmon.getId())).thenReturn(Optional.empty());
+
+        // Act
+        searchIndex.refresh(salmon.getId());
+
+        // Assert
+        assertTrue(searchIndex.search("salmon", null, PageRequest.of(0, 20)).isEmpty());
+    }
+
+    @Test
+    void refresh_ShouldReindexRenamedProduct() {
+        // Arrange
+        ProductSummary renamed = summary("Smoked Salmon", "Fresh Atlantic salmon", "seafood", salmon.getId());
+        when(productRepository.findActiveSummaryById(salmon.getId())).thenReturn(Optional.of(renamed));
+
+        // Act
+        searchIndex.refresh(salmon.getId());
+
+        // Assert
+        assertEquals(List.of("Smoked Salmon"), names(searchIndex.search("smoked", null, PageRequest.of(0, 20))));
+        assertTrue(searchIndex.search("fillet", null, PageRequest.of(0, 20)).isEmpty());
+    }
+
+    private List<String> names(Page<ProductSummary> page) {
+        return page.getContent().stream().map(ProductSummary::getName).toList();
+    }
+
+    private static ProductSummary summary(String name, String description, String category) {
+        return summary(name, description, category, UUID.randomUUID());
+    }
+
+    private static ProductSummary summary(String name, String description, String category, UUID id) {
+        return new SpelAwareProxyProjectionFactory().createProjection(ProductSummary.class,
+                Map.of("id", id, "name", name, "description", description, "category", category));
+    }
+}
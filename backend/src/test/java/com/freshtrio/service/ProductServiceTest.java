@@ -0,0 +1,391 @@
+package com.freshtrio.service;
+
+import com.freshtrio.dto.CursorPage;
+import com.freshtrio.dto.FacetValue;
+import com.freshtrio.dto.FacetedSearchResult;
+import com.freshtrio.dto.ProductBatch;
+import com.freshtrio.dto.ProductChange;
+import com.freshtrio.dto.ProductChanges;
+import com.freshtrio.dto.ProductSearchFilter;
+import com.freshtrio.dto.ProductSummary;
+import com.freshtrio.entity.Product;
+import com.freshtrio.repository.ProductFacetRepository;
+import com.freshtrio.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.projection.SpelAwareProxyProjectionFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ProductServiceTest {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private ProductCache productCache;
+
+    @Mock
+    private ProductFacetRepository facetRepository;
+
+    @Mock
+    private CatalogVersion catalogVersion;
+
+    @Mock
+    private CategoryService categoryService;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @InjectMocks
+    private ProductService productService;
+
+    private final Page<ProductSummary> emptyPage = new PageImpl<>(List.of());
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(productService, "fullTextSearchEnabled", true);
+        ReflectionTestUtils.setField(productService, "minQueryLength", 3);
+        ReflectionTestUtils.setField(productService, "syncSettleTime", Duration.ofSeconds(10));
+        ReflectionTestUtils.setField(productService, "priceBands", new BigDecimal[]{new BigDecimal("10"), new BigDecimal("20")});
+    }
+
+    @Test
+    void toPrefixTsQuery_ShouldAndTermsAndPrefixLastTerm() {
+        assertEquals("rib & eye:*", productService.toPrefixTsQuery("Rib eye"));
+        assertEquals("salm:*", productService.toPrefixTsQuery("salm"));
+    }
+
+    @Test
+    void toPrefixTsQuery_ShouldStripTsQueryOperators() {
+        assertEquals("beef & mince:*", productService.toPrefixTsQuery("beef | !mince & ('"));
+    }
+
+    @Test
+    void toPrefixTsQuery_ShouldReturnNull_WhenQueryTooShortOrEmpty() {
+        assertNull(productService.toPrefixTsQuery(""));
+        assertNull(productService.toPrefixTsQuery("ab"));
+        assertNull(productService.toPrefixTsQuery("  &&  "));
+        assertNull(productService.toPrefixTsQuery(null));
+    }
+
+    @Test
+    void searchProducts_ShouldUseFullTextSearch_WhenQueryLongEnough() {
+        // Arrange
+        Pageable pageable = PageRequest.of(1, 10, Sort.by("name"));
+        when(productRepository.fullTextSearch(anyString(), any(Pageable.class))).thenReturn(emptyPage);
+
+        // Act
+        productService.searchProducts("chicken", pageable);
+
+        // Assert - client sort is dropped so ts_rank ordering applies
+        verify(productRepository).fullTextSearch("chicken:*", PageRequest.of(1, 10));
+        verify(productRepository, never()).searchProducts(anyString(), any(Pageable.class));
+    }
+
+    @Test
+    void searchProducts_ShouldFallBackToLike_WhenQueryTooShort() {
+        // Arrange
+        Pageable pageable = PageRequest.of(0, 20);
+        when(productRepository.searchProducts("ch", pageable)).thenReturn(emptyPage);
+
+        // Act
+        productService.searchProducts("ch", pageable);
+
+        // Assert
+        verify(productRepository).searchProducts("ch", pageable);
+        verify(productRepository, never()).fullTextSearch(anyString(), any(Pageable.class));
+    }
+
+    @Test
+    void searchProducts_ShouldFallBackToLike_WhenFullTextDisabled() {
+        // Arrange
+        ReflectionTestUtils.setField(productService, "fullTextSearchEnabled", false);
+        Pageable pageable = PageRequest.of(0, 20);
+        when(productRepository.searchProducts("chicken", pageable)).thenReturn(emptyPage);
+
+        // Act
+        productService.searchProducts("chicken", pageable);
+
+        // Assert
+        verify(productRepository).searchProducts("chicken", pageable);
+    }
+
+    @Test
+    void searchProductsByCategory_ShouldUseCategoryFullTextSearch() {
+        // Arrange
+        Pageable pageable = PageRequest.of(0, 20);
+        when(productRepository.fullTextSearchByCategory(anyString(), eq("beef"), any(Pageable.class))).thenReturn(emptyPage);
+
+        // Act
+        productService.searchProductsByCategory("mince", "beef", pageable);
+
+        // Assert
+        verify(productRepository).fullTextSearchByCategory("mince:*", "beef", pageable);
+    }
+
+    @Test
+    void scrollProducts_ShouldReturnCursor_WhenMoreRowsExist() {
+        // Arrange
+        ProductSummary first = summary("Brisket", LocalDateTime.of(2024, 5, 2, 10, 0));
+        ProductSummary second = summary("Chuck", LocalDateTime.of(2024, 5, 1, 10, 0));
+        ProductSummary extra = summary("Mince", LocalDateTime.of(2024, 4, 30, 10, 0));
+        when(productRepository.findNewestFirst(null, PageRequest.of(0, 3))).thenReturn(List.of(first, second, extra));
+
+        // Act
+        CursorPage<ProductSummary> page = productService.scrollProducts("all", ProductCursor.Order.NEWEST, null, 2);
+
+        // Assert
+        assertEquals(List.of(first, second), page.getContent());
+        assertTrue(page.isHasNext());
+        ProductCursor cursor = ProductCursor.decode(page.getNextCursor(), ProductCursor.Order.NEWEST);
+        assertEquals(second.getId(), cursor.id());
+        assertEquals(second.getCreatedAt(), cursor.createdAt());
+    }
+
+    @Test
+    void scrollProducts_ShouldSeekFromCursor_WhenCursorProvided() {
+        // Arrange
+        ProductSummary last = summary("Chuck", LocalDateTime.of(2024, 5, 1, 10, 0));
+        String cursor = ProductCursor.after(ProductCursor.Order.NAME, last).encode();
+        when(productRepository.findOrderedByNameAfter("beef", "Chuck", last.getId(), PageRequest.of(0, 21)))
+                .thenReturn(List.of());
+
+        // Act
+        CursorPage<ProductSummary> page = productService.scrollProducts("beef", ProductCursor.Order.NAME, cursor, 20);
+
+        // Assert
+        assertTrue(page.getContent().isEmpty());
+        assertFalse(page.isHasNext());
+        assertNull(page.getNextCursor());
+        verify(productRepository, never()).findAll(any(Pageable.class));
+    }
+
+    @Test
+    void scrollProducts_ShouldRejectCursor_WhenIssuedForOtherOrder() {
+        // Arrange
+        String cursor = ProductCursor.after(ProductCursor.Order.NAME, summary("Chuck", LocalDateTime.now())).encode();
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class,
+                () -> productService.scrollProducts(null, ProductCursor.Order.NEWEST, cursor, 20));
+        assertThrows(IllegalArgumentException.class,
+                () -> productService.scrollProducts(null, ProductCursor.Order.NEWEST, "not-a-cursor", 20));
+    }
+
+    @Test
+    void getProductsByIds_ShouldKeepRequestOrderAndReportMissingAndInactive() {
+        // Arrange
+        ProductSummary brisket = summary("Brisket", LocalDateTime.now());
+        ProductSummary chuck = summary("Chuck", LocalDateTime.now());
+        UUID deleted = UUID.randomUUID();
+        UUID unknown = UUID.randomUUID();
+        when(productRepository.findActiveSummariesByIds(any())).thenReturn(List.of(brisket, chuck));
+        when(productRepository.findInactiveIds(List.of(unknown, deleted))).thenReturn(List.of(deleted));
+
+        // Act
+        ProductBatch batch = productService.getProductsByIds(
+                List.of(chuck.getId(), unknown, brisket.getId(), chuck.getId(), deleted));
+
+        // Assert
+        assertEquals(List.of(chuck, brisket), batch.products());
+        assertEquals(List.of(unknown), batch.missing());
+        assertEquals(List.of(deleted), batch.inactive());
+    }
+
+    @Test
+    void getProductsByIds_ShouldUseSingleQuery_WhenAllFound() {
+        // Arrange
+        ProductSummary brisket = summary("Brisket", LocalDateTime.now());
+        when(productRepository.findActiveSummariesByIds(any())).thenReturn(List.of(brisket));
+
+        // Act
+        ProductBatch batch = productService.getProductsByIds(List.of(brisket.getId()));
+
+        // Assert
+        assertEquals(List.of(brisket), batch.products());
+        verify(productRepository, never()).findInactiveIds(any());
+    }
+
+    @Test
+    void getProductsByIds_ShouldRejectTooManyIds() {
+        // Arrange
+        List<UUID> ids = new ArrayList<>();
+        for (int i = 0; i <= ProductService.MAX_BATCH_SIZE; i++) {
+            ids.add(UUID.randomUUID());
+        }
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> productService.getProductsByIds(ids));
+        verifyNoInteractions(productRepository);
+    }
+
+    @Test
+    void getChanges_ShouldReturnTokenOfLastChange_WhenMoreChangesExist() {
+        // Arrange
+        ProductChange first = change("Brisket", true, LocalDateTime.of(2024, 5, 1, 10, 0));
+        ProductChange second = change("Chuck", false, LocalDateTime.of(2024, 5, 1, 11, 0, 0, 123456000));
+        ProductChange extra = change("Mince", true, LocalDateTime.of(2024, 5, 1, 12, 0));
+        when(productRepository.findChanges(anyLong(), eq(PageRequest.of(0, 3))))
+                .thenReturn(List.of(first, second, extra));
+
+        // Act
+        ProductChanges changes = productService.getChanges(null, 2);
+
+        // Assert
+        assertEquals(List.of(first, second), changes.changes());
+        assertTrue(changes.hasMore());
+        ChangeToken token = ChangeToken.decode(changes.nextToken());
+        assertEquals(second.getUpdatedAt(), token.updatedAt());
+        assertEquals(second.getId(), token.id());
+    }
+
+    @Test
+    void getChanges_ShouldSeekFromTokenAndHoldBackRecentChanges() {
+        // Arrange
+        ChangeToken since = new ChangeToken(LocalDateTime.of(2024, 5, 1, 10, 0), UUID.randomUUID());
+        when(productRepository.findChangesAfter(eq(since.updatedAt()), eq(since.id()), anyLong(), any(Pageable.class)))
+                .thenReturn(List.of());
+
+        // Act
+        ProductChanges changes = productService.getChanges(since.encode(), 500);
+
+        // Assert - nothing new, so the client keeps its token; the database applies the settle time
+        assertTrue(changes.changes().isEmpty());
+        assertEquals(since.encode(), changes.nextToken());
+        verify(productRepository).findChangesAfter(any(), any(), eq(10L), any(Pageable.class));
+    }
+
+    @Test
+    void getChanges_ShouldRejectMalformedToken() {
+        assertThrows(IllegalArgumentException.class, () -> productService.getChanges("bm90LWEtdG9rZW4", 100));
+    }
+
+    @Test
+    void facetedSearch_ShouldReturnPageWithFacetsAndTotal() {
+        // Arrange
+        ProductSummary mince = summary("Beef Mince", LocalDateTime.now());
+        List<FacetValue> categories = List.of(FacetValue.of("beef", 3), FacetValue.of("pork", 1));
+        when(facetRepository.countFacets(any(ProductSearchFilter.class), eq("mince:*"), any()))
+                .thenReturn(new ProductFacetRepository.FacetCounts(11, categories, List.of(), List.of()));
+        when(facetRepository.findPage(any(ProductSearchFilter.class), eq("mince:*"), eq(10L), eq(10)))
+                .thenReturn(List.of(mince));
+
+        // Act
+        FacetedSearchResult result = productService.facetedSearch(
+                new ProductSearchFilter("mince", "all", null, new BigDecimal("20"), null), PageRequest.of(1, 10));
+
+        // Assert - "all" means no category filter
+        assertEquals(List.of(mince), result.results().getContent());
+        assertEquals(11, result.results().getTotalElements());
+        assertEquals(categories, result.categories());
+        ArgumentCaptor<ProductSearchFilter> filter = ArgumentCaptor.forClass(ProductSearchFilter.class);
+        verify(facetRepository).countFacets(filter.capture(), eq("mince:*"), any());
+        assertNull(filter.getValue().category());
+        assertEquals(new BigDecimal("20"), filter.getValue().maxPrice());
+    }
+
+    @Test
+    void facetedSearch_ShouldSkipPageQuery_WhenNothingMatches() {
+        // Arrange
+        when(facetRepository.countFacets(any(ProductSearchFilter.class), isNull(), any()))
+                .thenReturn(new ProductFacetRepository.FacetCounts(0, List.of(), List.of(), List.of()));
+
+        // Act
+        FacetedSearchResult result = productService.facetedSearch(
+                new ProductSearchFilter("ab", "beef", null, null, null), PageRequest.of(0, 20));
+
+        // Assert
+        assertTrue(result.results().isEmpty());
+        verify(facetRepository, never()).findPage(any(), any(), anyLong(), anyInt());
+    }
+
+    @Test
+    void facetedSearch_ShouldSkipPageQuery_WhenPageStartsPastLastMatch() {
+        // Arrange
+        when(facetRepository.countFacets(any(ProductSearchFilter.class), eq("mince:*"), any()))
+                .thenReturn(new ProductFacetRepository.FacetCounts(3, List.of(), List.of(), List.of()));
+
+        // Act
+        FacetedSearchResult result = productService.facetedSearch(
+                new ProductSearchFilter("mince", null, null, null, null), PageRequest.of(1, 10));
+
+        // Assert
+        assertTrue(result.results().getContent().isEmpty());
+        assertEquals(3, result.results().getTotalElements());
+        verify(facetRepository, never()).findPage(any(), any(), anyLong(), anyInt());
+    }
+
+    @Test
+    void getProductById_ShouldLoadWithSupplierFetched_OnCacheMiss() {
+        // Arrange
+        UUID id = UUID.randomUUID();
+        Product product = Product.builder().id(id).name("Ribeye Steak").build();
+        when(productCache.getProduct(eq(id), any())).thenAnswer(invocation ->
+                invocation.<Function<UUID, Product>>getArgument(1).apply(id));
+        when(productRepository.findDetailById(id)).thenReturn(Optional.of(product));
+
+        // Act
+        Optional<Product> result = productService.getProductById(id);
+
+        // Assert - never findById, whose supplier is a lazy proxy tied to a closed session
+        assertEquals(Optional.of(product), result);
+        verify(productRepository, never()).findById(any());
+    }
+
+    @Test
+    void evictAfterBulkWrite_ShouldBumpCatalogVersion_AfterInvalidating() {
+        // Arrange
+        UUID productId = UUID.randomUUID();
+
+        // Act
+        productService.evictAfterBulkWrite(List.of(productId), Set.of("beef"), true);
+
+        // Assert - a client given the new ETag must not be served anything cached before it
+        InOrder order = inOrder(productCache, categoryService, catalogVersion, eventPublisher);
+        order.verify(productCache).evictProduct(productId);
+        order.verify(productCache).evictPages(Set.of("beef"));
+        order.verify(categoryService).refresh();
+        order.verify(catalogVersion).bump();
+        order.verify(eventPublisher).publishEvent(any(CatalogChangedEvent.class));
+    }
+
+    private ProductChange change(String name, boolean active, LocalDateTime updatedAt) {
+        return new SpelAwareProxyProjectionFactory().createProjection(ProductChange.class,
+                Map.of("id", UUID.randomUUID(), "name", name, "active", active, "updatedAt", updatedAt));
+    }
+
+    private ProductSummary summary(String name, LocalDateTime createdAt) {
+        return new SpelAwareProxyProjectionFactory().createProjection(ProductSummary.class,
+                Map.of("id", UUID.randomUUID(), "name", name, "createdAt", createdAt));
+    }
+}
@@ -0,0 +1,62 @@
+package com.freshtrio.service;
+
+import com.freshtrio.dto.CategorySummary;
+import com.freshtrio.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SuggestServiceTest {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private CategoryService categoryService;
+
+    @InjectMocks
+    private SuggestService suggestService;
+
+    private final CatalogVersion catalogVersion = new CatalogVersion();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(suggestService, "catalogVersion", catalogVersion);
+        ReflectionTestUtils.setField(suggestService, "maxResults", 10);
+    }
+
+    @Test
+    void rebuild_ShouldRecordVersionReadBeforeLoading() {
+        // Arrange - a write lands while the trie is being built
+        long before = catalogVersion.current();
+        when(categoryService.getCategories()).thenAnswer(invocation -> {
+            catalogVersion.bump();
+            return List.of(new CategorySummary("beef", "Beef", null, 1, 3));
+        });
+        when(productRepository.findActiveSummaries()).thenReturn(List.of());
+
+        // Act
+        suggestService.rebuild();
+
+        // Assert
+        assertEquals(before, suggestService.version());
+        assertTrue(suggestService.version() < catalogVersion.current());
+        assertEquals("Beef", suggestService.suggest("be", 5).get(0).text());
+    }
+
+    @Test
+    void version_ShouldBeZero_BeforeFirstBuild() {
+        assertEquals(0, suggestService.version());
+        assertTrue(suggestService.suggest("be", 5).isEmpty());
+    }
+}
@@ -0,0 +1,153 @@
+package com.freshtrio.service;
+
+import com.freshtrio.entity.RevokedToken;
+import com.freshtrio.repository.RevokedTokenRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TokenDenylistTest {
+
+    @Mock
+    private RevokedTokenRepository revokedTokenRepository;
+
+    @InjectMocks
+    private TokenDenylist tokenDenylist;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        ReflectionTestUtils.setField(tokenDenylist, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(tokenDenylist, "expectedRevocations", 1000);
+        ReflectionTestUtils.setField(tokenDenylist, "falsePositiveRate", 0.01);
+        ReflectionTestUtils.setField(tokenDenylist, "syncInterval", Duration.ofHours(1));
+    }
+
+    @AfterEach
+    void tearDown() {
+        tokenDenylist.shutdown();
+    }
+
+    @Test
+    void revoke_ShouldRejectTokenAndPersistIt() {
+        // Arrange
+        tokenDenylist.init();
+        UUID jti = UUID.randomUUID();
+        Instant expiresAt = Instant.now().plusSeconds(3600);
+
+        // Act
+        tokenDenylist.revoke(jti, expiresAt);
+
+        // Assert
+        assertTrue(tokenDenylist.isRevoked(jti));
+        assertFalse(tokenDenylist.isRevoked(UUID.randomUUID()));
+        verify(revokedTokenRepository).save(new RevokedToken(jti, expiresAt));
+        assertEquals(1.0, meterRegistry.get("auth.tokens.revoked").counter().count());
+        assertEquals(1.0, meterRegistry.get("auth.denylist.size").gauge().value());
+        assertTrue(meterRegistry.get("auth.denylist.memory.per.token").gauge().value()
+                >= TokenDenylist.ESTIMATED_ENTRY_BYTES);
+    }
+
+    @Test
+    void revoke_ShouldStillReject_WhenDatabaseWriteFails() {
+        // Arrange
+        tokenDenylist.init();
+        UUID jti = UUID.randomUUID();
+        when(revokedTokenRepository.save(any(RevokedToken.class)))
+                .thenThrow(new DataAccessResourceFailureException("Connection refused"));
+
+        // Act
+        tokenDenylist.revoke(jti, Instant.now().plusSeconds(3600));
+
+        // Assert
+        assertTrue(tokenDenylist.isRevoked(jti));
+    }
+
+    @Test
+    void revoke_ShouldIgnoreTokenThatAlreadyExpired() {
+        // Arrange
+        tokenDenylist.init();
+        UUID jti = UUID.randomUUID();
+
+        // Act
+        tokenDenylist.revoke(jti, Instant.now().minusSeconds(1));
+
+        // Assert
+        assertFalse(tokenDenylist.isRevoked(jti));
+        verify(revokedTokenRepository, never()).save(any(RevokedToken.class));
+    }
+
+    @Test
+    void init_ShouldLoadRevocationsPersistedBeforeRestart() {
+        // Arrange
+        UUID jti = UUID.randomUUID();
+        when(revokedTokenRepository.findByExpiresAtAfter(any(Instant.class)))
+                .thenReturn(List.of(new RevokedToken(jti, Instant.now().plusSeconds(3600))));
+
+        // Act
+        tokenDenylist.init();
+
+        // Assert
+        assertTrue(tokenDenylist.isRevoked(jti));
+        verify(revokedTokenRepository).deleteExpired(any(Instant.class));
+    }
+
+    @Test
+    void init_ShouldStartEmpty_WhenDatabaseUnavailable() {
+        // Arrange
+        when(revokedTokenRepository.deleteExpired(any(Instant.class)))
+                .thenThrow(new DataAccessResourceFailureException("Connection refused"));
+
+        // Act
+        tokenDenylist.init();
+
+        // Assert
+        assertEquals(0, tokenDenylist.size());
+    }
+
+    @Test
+    void bloomFilter_ShouldNeverMissAddedValues_AndRarelyMatchOthers() {
+        // Arrange
+        BloomFilter filter = new BloomFilter(10_000, 0.01);
+        List<UUID> added = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            UUID value = UUID.randomUUID();
+            added.add(value);
+            filter.add(value);
+        }
+
+        // Act
+        int falsePositives = 0;
+        for (int i = 0; i < 100_000; i++) {
+            if (filter.mightContain(UUID.randomUUID())) {
+                falsePositives++;
+            }
+        }
+
+        // Assert
+        assertTrue(added.stream().allMatch(filter::mightContain));
+        assertTrue(falsePositives < 2_000, "false positives: " + falsePositives);
+        // About 9.6 bits per expected entry at 1%
+        assertTrue(filter.sizeInBytes() < 13_000);
+    }
+}
@@ -0,0 +1,125 @@
+package com.freshtrio.service;
+
+import com.freshtrio.entity.User;
+import com.freshtrio.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class UserCacheTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    @InjectMocks
+    private UserCache userCache;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(userCache, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(userCache, "maxSize", 100L);
+        ReflectionTestUtils.setField(userCache, "ttl", Duration.ofMinutes(5));
+        ReflectionTestUtils.setField(userCache, "negativeTtl", Duration.ofSeconds(30));
+        userCache.init();
+
+        user = new User();
+        user.setId(UUID.randomUUID());
+        user.setEmail("test@example.com");
+        user.setRole(User.Role.CUSTOMER);
+    }
+
+    @Test
+    void findByEmail_ShouldQueryOnce_WhenUserLookedUpRepeatedly() {
+        // Arrange
+        when(userRepository.findByEmail("test@example.com")).thenReturn(Optional.of(user));
+
+        // Act
+        userCache.findByEmail("test@example.com");
+        Optional<User> second = userCache.findByEmail("test@example.com");
+        Optional<User> byId = userCache.findById(user.getId());
+
+        // Assert
+        assertSame(user, second.orElseThrow());
+        assertSame(user, byId.orElseThrow());
+        verify(userRepository, times(1)).findByEmail("test@example.com");
+        verify(userRepository, never()).findById(any());
+    }
+
+    @Test
+    void findByEmail_ShouldCacheMiss_WhenNoUserHasEmail() {
+        // Arrange
+        when(userRepository.findByEmail("nobody@example.com")).thenReturn(Optional.empty());
+
+        // Act
+        userCache.findByEmail("nobody@example.com");
+        Optional<User> second = userCache.findByEmail("nobody@example.com");
+
+        // Assert
+        assertTrue(second.isEmpty());
+        verify(userRepository, times(1)).findByEmail("nobody@example.com");
+    }
+
+    @Test
+    void save_ShouldReplaceNegativeEntry() {
+        // Arrange
+        when(userRepository.findByEmail("test@example.com")).thenReturn(Optional.empty());
+        when(userRepository.save(user)).thenReturn(user);
+        userCache.findByEmail("test@example.com");
+
+        // Act
+        userCache.save(user);
+        Optional<User> found = userCache.findByEmail("test@example.com");
+
+        // Assert
+        assertSame(user, found.orElseThrow());
+        verify(userRepository, times(1)).findByEmail("test@example.com");
+    }
+
+    @Test
+    void save_ShouldEvict_WhenWriteFails() {
+        // Arrange
+        when(userRepository.findByEmail("test@example.com")).thenReturn(Optional.of(user));
+        userCache.findByEmail("test@example.com");
+        user.setGoogleId("firebase-uid");
+        when(userRepository.save(user)).thenThrow(new DataIntegrityViolationException("duplicate key"));
+
+        // Act
+        assertThrows(DataIntegrityViolationException.class, () -> userCache.save(user));
+        userCache.findByEmail("test@example.com");
+
+        // Assert
+        verify(userRepository, times(2)).findByEmail("test@example.com");
+    }
+
+    @Test
+    void findById_ShouldNotCache_WhenUserUnknown() {
+        // Arrange
+        UUID id = UUID.randomUUID();
+        when(userRepository.findById(id)).thenReturn(Optional.empty());
+
+        // Act
+        userCache.findById(id);
+        Optional<User> second = userCache.findById(id);
+
+        // Assert
+        assertTrue(second.isEmpty());
+        verify(userRepository, times(2)).findById(id);
+    }
+}
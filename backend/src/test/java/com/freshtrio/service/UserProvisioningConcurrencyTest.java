@@ -0,0 +1,185 @@
+package com.freshtrio.service;
+
+import com.freshtrio.dto.AuthResponse;
+import com.freshtrio.dto.FirebaseAuthRequest;
+import com.freshtrio.dto.GoogleAuthRequest;
+import com.freshtrio.entity.User;
+import com.freshtrio.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+/**
+ * Fires hundreds of simultaneous first logins for one account at a real PostgreSQL, and
+ * checks that every one succeeds with the same user and that exactly one row exists.
+ * Needs Docker; skipped without it, in which case UserProvisioningRaceTest still runs the
+ * same races against an atomic in-memory stand-in for the upsert.
+ */
+@SpringBootTest
+@Testcontainers(disabledWithoutDocker = true)
+class UserProvisioningConcurrencyTest {
+
+    private static final int LOGINS = 300;
+
+    @Container
+    static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:15-alpine");
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", POSTGRES::getJdbcUrl);
+        registry.add("spring.datasource.username", POSTGRES::getUsername);
+        registry.add("spring.datasource.password", POSTGRES::getPassword);
+        registry.add("spring.datasource.hikari.maximum-pool-size", () -> "20");
+        registry.add("jwt.secret", () -> "testSecretKeyThatIsAtLeast32CharactersLongForTesting123456789");
+    }
+
+    @Autowired
+    private AuthService authService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserCache userCache;
+
+    @MockBean
+    private FirebaseService firebaseService;
+
+    private ExecutorService executor;
+
+    @BeforeEach
+    void setUp() {
+        userCache.invalidateAll();
+        executor = Executors.newFixedThreadPool(LOGINS);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void firebaseAuth_ShouldProvisionOneUser_WhenFirstLoginsRace() throws Exception {
+        // Arrange
+        String email = "race-" + UUID.randomUUID() + "@example.com";
+        when(firebaseService.verify("first-login-token")).thenReturn(
+                new FirebaseIdentity("firebase-uid", email, "Race User", null, "google.com", Instant.now().plusSeconds(3600)));
+        FirebaseAuthRequest request = new FirebaseAuthRequest();
+        request.setIdToken("first-login-token");
+
+        // Act
+        List<AuthResponse> responses = runTogether(() -> authService.firebaseAuth(request));
+
+        // Assert
+        assertEquals(1, userIds(responses).size());
+        User user = userRepository.findByEmail(email).orElseThrow();
+        assertEquals(user.getId(), responses.get(0).getUser().getId());
+        assertEquals("firebase-uid", user.getGoogleId());
+        assertEquals(User.AuthProvider.GOOGLE, user.getAuthProvider());
+        assertEquals(1, userRepository.findAll().stream().filter(u -> u.getEmail().equals(email)).count());
+    }
+
+    @Test
+    void firebaseAuth_ShouldLinkExistingAccountOnce_WhenLoginsRace() throws Exception {
+        // Arrange
+        String email = "linked-" + UUID.randomUUID() + "@example.com";
+        User registered = new User();
+        registered.setEmail(email);
+        registered.setFirstName("Email");
+        registered.setLastName("User");
+        registered.setRole(User.Role.CUSTOMER);
+        registered.setAuthProvider(User.AuthProvider.EMAIL);
+        registered = userRepository.save(registered);
+        when(firebaseService.verify("link-token")).thenReturn(
+                new FirebaseIdentity("firebase-uid-2", email, "Other Name", null, "facebook.com", Instant.now().plusSeconds(3600)));
+        FirebaseAuthRequest request = new FirebaseAuthRequest();
+        request.setIdToken("link-token");
+
+        // Act
+        List<AuthResponse> responses = runTogether(() -> authService.firebaseAuth(request));
+
+        // Assert
+        assertEquals(Set.of(registered.getId()), userIds(responses));
+        User user = userRepository.findByEmail(email).orElseThrow();
+        assertEquals("firebase-uid-2", user.getGoogleId());
+        // Linking through Firebase keeps the provider and profile the account was created with
+        assertEquals(User.AuthProvider.EMAIL, user.getAuthProvider());
+        assertEquals("Email", user.getFirstName());
+    }
+
+    @Test
+    void googleAuth_ShouldProvisionOneUser_WhenFirstLoginsRace() throws Exception {
+        // Arrange
+        String email = "google-" + UUID.randomUUID() + "@example.com";
+        GoogleAuthRequest request = new GoogleAuthRequest();
+        request.setEmail(email);
+        request.setFirstName("Google");
+        request.setLastName("User");
+        request.setIdToken("google-id");
+
+        // Act
+        List<AuthResponse> responses = runTogether(() -> authService.googleAuth(request));
+
+        // Assert
+        assertEquals(1, userIds(responses).size());
+        User user = userRepository.findByEmail(email).orElseThrow();
+        assertEquals("google-id", user.getGoogleId());
+        assertEquals(User.AuthProvider.GOOGLE, user.getAuthProvider());
+    }
+
+    /**
+     * Starts LOGINS copies of the call at once and returns every result, failing the test
+     * if any call threw.
+     */
+    private List<AuthResponse> runTogether(Callable<AuthResponse> login) throws Exception {
+        CountDownLatch ready = new CountDownLatch(LOGINS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<AuthResponse>> futures = new ArrayList<>();
+        for (int i = 0; i < LOGINS; i++) {
+            futures.add(executor.submit(() -> {
+                ready.countDown();
+                start.await();
+                return login.call();
+            }));
+        }
+        assertTrue(ready.await(30, TimeUnit.SECONDS));
+        start.countDown();
+        List<AuthResponse> responses = new ArrayList<>();
+        for (Future<AuthResponse> future : futures) {
+            responses.add(future.get(60, TimeUnit.SECONDS));
+        }
+        return responses;
+    }
+
+    private static Set<UUID> userIds(List<AuthResponse> responses) {
+        Set<UUID> ids = new HashSet<>();
+        for (AuthResponse response : responses) {
+            ids.add(response.getUser().getId());
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,220 @@
+package com.freshtrio.service;
+
+import com.freshtrio.dto.AuthResponse;
+import com.freshtrio.dto.FirebaseAuthRequest;
+import com.freshtrio.dto.GoogleAuthRequest;
+import com.freshtrio.entity.User;
+import com.freshtrio.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * The same first-login races as UserProvisioningConcurrencyTest, run without Docker: the
+ * repository is a mock whose provisionExternalUser is atomic per email, like the
+ * INSERT ... ON CONFLICT it stands for. This checks that AuthService and UserCache only
+ * ever go through that upsert and agree on one user, whatever the interleaving.
+ */
+class UserProvisioningRaceTest {
+
+    private static final int LOGINS = 300;
+
+    private final Map<String, User> rows = new ConcurrentHashMap<>();
+    private UserRepository userRepository;
+    private FirebaseService firebaseService;
+    private AuthService authService;
+    private ExecutorService executor;
+
+    @BeforeEach
+    void setUp() {
+        userRepository = mock(UserRepository.class);
+        firebaseService = mock(FirebaseService.class);
+        JwtService jwtService = mock(JwtService.class);
+        when(jwtService.generateToken(any(User.class))).thenReturn("jwt");
+        when(userRepository.provisionExternalUser(anyString(), any(), any(), any(), anyString(), anyString(), anyBoolean()))
+                .thenAnswer(this::upsert);
+
+        UserCache userCache = new UserCache();
+        ReflectionTestUtils.setField(userCache, "userRepository", userRepository);
+        ReflectionTestUtils.setField(userCache, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(userCache, "maxSize", 100L);
+        ReflectionTestUtils.setField(userCache, "ttl", Duration.ofMinutes(5));
+        ReflectionTestUtils.setField(userCache, "negativeTtl", Duration.ofSeconds(30));
+        userCache.init();
+
+        authService = new AuthService();
+        ReflectionTestUtils.setField(authService, "userCache", userCache);
+        ReflectionTestUtils.setField(authService, "jwtService", jwtService);
+        ReflectionTestUtils.setField(authService, "firebaseService", firebaseService);
+        executor = Executors.newFixedThreadPool(LOGINS);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void firebaseAuth_ShouldProvisionOneUser_WhenFirstLoginsRace() throws Exception {
+        // Arrange
+        String email = "race@example.com";
+        when(firebaseService.verify("first-login-token")).thenReturn(
+                new FirebaseIdentity("firebase-uid", email, "Race User", null, "google.com", Instant.now().plusSeconds(3600)));
+        FirebaseAuthRequest request = new FirebaseAuthRequest();
+        request.setIdToken("first-login-token");
+
+        // Act
+        List<AuthResponse> responses = runTogether(() -> authService.firebaseAuth(request));
+
+        // Assert
+        assertEquals(Set.of(rows.get(email).getId()), userIds(responses));
+        assertEquals(1, rows.size());
+        assertEquals("firebase-uid", rows.get(email).getGoogleId());
+        verify(userRepository, never()).save(any(User.class));
+        verify(userRepository, never()).findByEmail(anyString());
+    }
+
+    @Test
+    void firebaseAuth_ShouldLinkExistingAccountOnce_WhenLoginsRace() throws Exception {
+        // Arrange
+        String email = "linked@example.com";
+        User registered = new User();
+        registered.setId(UUID.randomUUID());
+        registered.setEmail(email);
+        registered.setFirstName("Email");
+        registered.setRole(User.Role.CUSTOMER);
+        registered.setAuthProvider(User.AuthProvider.EMAIL);
+        rows.put(email, registered);
+        when(firebaseService.verify("link-token")).thenReturn(
+                new FirebaseIdentity("firebase-uid-2", email, "Other Name", null, "facebook.com", Instant.now().plusSeconds(3600)));
+        FirebaseAuthRequest request = new FirebaseAuthRequest();
+        request.setIdToken("link-token");
+
+        // Act
+        List<AuthResponse> responses = runTogether(() -> authService.firebaseAuth(request));
+
+        // Assert
+        assertEquals(Set.of(registered.getId()), userIds(responses));
+        assertEquals("firebase-uid-2", rows.get(email).getGoogleId());
+        assertEquals(User.AuthProvider.EMAIL, rows.get(email).getAuthProvider());
+        assertEquals("Email", rows.get(email).getFirstName());
+    }
+
+    @Test
+    void googleAuth_ShouldProvisionOneUser_WhenFirstLoginsRace() throws Exception {
+        // Arrange
+        String email = "google@example.com";
+        GoogleAuthRequest request = new GoogleAuthRequest();
+        request.setEmail(email);
+        request.setFirstName("Google");
+        request.setLastName("User");
+        request.setIdToken("google-id");
+
+        // Act
+        List<AuthResponse> responses = runTogether(() -> authService.googleAuth(request));
+
+        // Assert
+        assertEquals(Set.of(rows.get(email).getId()), userIds(responses));
+        assertEquals(1, rows.size());
+        assertEquals(User.AuthProvider.GOOGLE, rows.get(email).getAuthProvider());
+    }
+
+    /**
+     * Applies provisionExternalUser the way its ON CONFLICT (email) statement does, atomically
+     * per email, and returns a copy as RETURNING * would.
+     */
+    private User upsert(InvocationOnMock invocation) {
+        String email = invocation.getArgument(0);
+        User[] returned = new User[1];
+        rows.compute(email, (key, current) -> {
+            User row = current;
+            if (row == null) {
+                row = new User();
+                row.setId(UUID.randomUUID());
+                row.setEmail(email);
+                row.setFirstName(invocation.getArgument(1));
+                row.setLastName(invocation.getArgument(2));
+                row.setGoogleId(invocation.getArgument(4));
+                row.setAuthProvider(User.AuthProvider.valueOf(invocation.getArgument(5)));
+                row.setRole(User.Role.CUSTOMER);
+            } else if (row.getGoogleId() == null) {
+                if (invocation.<Boolean>getArgument(6)) {
+                    row.setAuthProvider(User.AuthProvider.valueOf(invocation.getArgument(5)));
+                }
+                row.setGoogleId(invocation.getArgument(4));
+            }
+            returned[0] = copy(row);
+            return row;
+        });
+        return returned[0];
+    }
+
+    private static User copy(User row) {
+        User copy = new User();
+        copy.setId(row.getId());
+        copy.setEmail(row.getEmail());
+        copy.setFirstName(row.getFirstName());
+        copy.setLastName(row.getLastName());
+        copy.setGoogleId(row.getGoogleId());
+        copy.setAuthProvider(row.getAuthProvider());
+        copy.setRole(row.getRole());
+        return copy;
+    }
+
+    /**
+     * Starts LOGINS copies of the call at once and returns every result, failing the test
+     * if any call threw.
+     */
+    private List<AuthResponse> runTogether(Callable<AuthResponse> login) throws Exception {
+        CountDownLatch ready = new CountDownLatch(LOGINS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<AuthResponse>> futures = new ArrayList<>();
+        for (int i = 0; i < LOGINS; i++) {
+            futures.add(executor.submit(() -> {
+                ready.countDown();
+                start.await();
+                return login.call();
+            }));
+        }
+        assertTrue(ready.await(30, TimeUnit.SECONDS));
+        start.countDown();
+        List<AuthResponse> responses = new ArrayList<>();
+        for (Future<AuthResponse> future : futures) {
+            responses.add(future.get(60, TimeUnit.SECONDS));
+        }
+        return responses;
+    }
+
+    private static Set<UUID> userIds(List<AuthResponse> responses) {
+        Set<UUID> ids = new HashSet<>();
+        for (AuthResponse response : responses) {
+            ids.add(response.getUser().getId());
+        }
+        return ids;
+    }
+}
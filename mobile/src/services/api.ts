@@ -227,8 +227,39 @@ export const productAPI = {
     return response.data;
   },
 
+  // Resolves many products in one request, e.g. to refresh every cart line at once.
+  // Returns { products, missing, inactive } with products in the order of ids.
+  getProductsByIds: async (ids: string[]) => {
+    const response = await apiClient.post('/products/batch', { ids });
+    return response.data;
+  },
+
+  // Delta sync for the offline catalog. Pass the nextToken of the previous call as since
+  // (omit it for the first sync) and repeat while hasMore is true.
+  getProductChanges: async (since?: string) => {
+    const params = since ? { since } : undefined;
+    const response = await apiClient.get('/products/changes', { params });
+    return response.data;
+  },
+
   getCategories: async () => {
     const response = await apiClient.get('/products/categories');
+    // Categories come back as { name, displayName, sortOrder, productCount }, already sorted
+    return response.data.map((category: { name: string }) => category.name);
+  },
+
+  // One request for the list screen: a result page plus counts per category, price band
+  // and supplier for the same query. All filters are optional.
+  facetedSearch: async (filters: {
+    q?: string;
+    category?: string;
+    minPrice?: number;
+    maxPrice?: number;
+    supplierId?: string;
+    page?: number;
+    size?: number;
+  }) => {
+    const response = await apiClient.get('/products/facets', { params: filters });
     return response.data;
   },
 